@@ -22,6 +22,7 @@ import java.io.StringWriter;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -34,10 +35,13 @@ import de.doubleslash.keeptime.common.FontProvider;
 import de.doubleslash.keeptime.common.Resources;
 import de.doubleslash.keeptime.common.Resources.RESOURCE;
 import de.doubleslash.keeptime.controller.Controller;
+import de.doubleslash.keeptime.controller.WorkDailySummaryService;
+import de.doubleslash.keeptime.controller.WorkJournal;
 import de.doubleslash.keeptime.model.Model;
 import de.doubleslash.keeptime.model.Project;
 import de.doubleslash.keeptime.model.Settings;
 import de.doubleslash.keeptime.model.Work;
+import de.doubleslash.keeptime.model.WorkSnapshot;
 import de.doubleslash.keeptime.view.ViewController;
 import de.doubleslash.keeptime.viewpopup.GlobalScreenListener;
 import de.doubleslash.keeptime.viewpopup.ViewControllerPopup;
@@ -65,6 +69,9 @@ public class Main extends Application {
 
    private static final Logger LOG = LoggerFactory.getLogger(Main.class);
 
+   /** start argument to aggregate the daily work summary again from all work items **/
+   public static final String REBUILD_DAILY_SUMMARY_ARGUMENT = "--rebuildDailySummary";
+
    private ConfigurableApplicationContext springContext;
 
    private Stage popupViewStage;
@@ -94,6 +101,11 @@ public class Main extends Application {
       model = springContext.getBean(Model.class);
       controller = springContext.getBean(Controller.class);
       model.setSpringContext(springContext);
+
+      final WorkDailySummaryService workDailySummaryService = springContext.getBean(WorkDailySummaryService.class);
+      if (getParameters().getRaw().contains(REBUILD_DAILY_SUMMARY_ARGUMENT) || workDailySummaryService.needsRebuild()) {
+         workDailySummaryService.rebuild();
+      }
    }
 
    @Override
@@ -138,10 +150,12 @@ public class Main extends Application {
    }
 
    private void initialiseApplication(final Stage primaryStage) throws Exception {
+      recoverWorkFromJournal();
+
       FontProvider.loadFonts();
       readSettings();
 
-      final List<Work> todaysWorkItems = model.getWorkRepository().findByStartDateOrderByStartTimeAsc(LocalDate.now());
+      final List<Work> todaysWorkItems = model.getWorkRepository().findStartedOn(LocalDate.now());
       LOG.info("Found {} past work items", todaysWorkItems.size());
       model.getPastWorkItems().addAll(todaysWorkItems);
 
@@ -174,6 +188,62 @@ public class Main extends Application {
       initialisePopupUI(primaryStage);
    }
 
+   /**
+    * Saves the work items which were active or not saved yet when KeepTime was not shut down cleanly, with the state
+    * of the journal.
+    */
+   private void recoverWorkFromJournal() {
+      final WorkJournal workJournal = springContext.getBean(WorkJournal.class);
+      final List<WorkJournal.Entry> uncleanEntries = workJournal.readUncleanEntries();
+      if (uncleanEntries.isEmpty()) {
+         return;
+      }
+
+      LOG.warn("KeepTime was not shut down cleanly. Recovering '{}' work items from work journal.",
+            uncleanEntries.size());
+      uncleanEntries.forEach(this::recoverJournaledWork);
+      workJournal.markClean();
+   }
+
+   private void recoverJournaledWork(final WorkJournal.Entry entry) {
+      LOG.info("Recovering '{}' from work journal.", entry);
+
+      final Optional<Project> project = model.getProjectRepository().findById(entry.getProjectId());
+      if (!project.isPresent()) {
+         LOG.error("Project with id '{}' of journaled work does not exist. Work is not recovered.",
+               entry.getProjectId());
+         return;
+      }
+
+      final Optional<Work> savedWork = findJournaledWork(entry);
+      final Work work = savedWork.orElseGet(() -> new Work(entry.getStartTime(), entry.getEndTime(), project.get(),
+            entry.getNotes()));
+      if (savedWork.isPresent() && !work.getEndTime().isBefore(entry.getEndTime())) {
+         LOG.info("Saved work '{}' is already up to date.", work);
+         return;
+      }
+
+      final Set<LocalDate> previousDays = WorkDailySummaryService.daysOf(work);
+      work.setEndTime(entry.getEndTime());
+      work.setNotes(entry.getNotes());
+      springContext.getBean(WorkDailySummaryService.class).saveWork(WorkSnapshot.of(work), previousDays);
+      LOG.info("Recovered work '{}'.", work);
+   }
+
+   private Optional<Work> findJournaledWork(final WorkJournal.Entry entry) {
+      if (entry.getWorkId() != 0) {
+         return model.getWorkRepository().findById(entry.getWorkId());
+      }
+
+      // work may have been saved after the journal was written the last time
+      return model.getWorkRepository()
+                  .findByStartTimeInRange(entry.getStartTime(), entry.getStartTime().plusSeconds(1))
+                  .stream()
+                  .filter(w -> w.getStartTime().equals(entry.getStartTime())
+                        && w.getProject().getId() == entry.getProjectId())
+                  .findAny();
+   }
+
    private void readSettings() {
       LOG.debug("Reading configuration");
 
@@ -191,6 +261,7 @@ public class Main extends Application {
          settings.setUseHotkey(false);
          settings.setDisplayProjectsRight(false);
          settings.setHideProjectsOnMouseExit(false);
+         settings.setPopupHotkey(Model.ORIGINAL_POPUP_HOTKEY);
          model.getSettingsRepository().save(settings);
       } else {
          settings = settingsList.get(0);
@@ -209,7 +280,7 @@ public class Main extends Application {
       model.screenSettings.screenHash.set(settings.getScreenHash());
       model.screenSettings.saveWindowPosition.set(settings.isSaveWindowPosition());
       model.remindIfNotesAreEmpty.set(settings.isRemindIfNotesAreEmpty());
-
+      model.popupHotkey.set(settings.getPopupHotkey());
    }
 
    private void initialisePopupUI(final Stage primaryStage) throws IOException {
@@ -217,6 +288,8 @@ public class Main extends Application {
 
       globalScreenListener = new GlobalScreenListener();
 
+      model.popupHotkey.addListener((a, b, newValue) -> globalScreenListener.setBindings(newValue));
+      globalScreenListener.setBindings(model.popupHotkey.get());
       model.useHotkey.addListener((a, b, newValue) -> globalScreenListener.register(newValue));
       globalScreenListener.register(model.useHotkey.get());
 
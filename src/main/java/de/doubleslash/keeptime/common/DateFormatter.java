@@ -23,24 +23,107 @@ import java.time.format.DateTimeFormatter;
 
 public class DateFormatter {
    private static DateTimeFormatter dayDateFormatter = DateTimeFormatter.ofPattern("eeee dd.MM.yyyy");
+   private static DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd.MM.yyyy");
    private static DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm:ss");
 
    private DateFormatter() {
       throw new IllegalStateException("Utility class: DateFormatter");
    }
 
+   /** "00" to "99" one after another **/
+   private static final char[] TWO_DIGITS = new char[200];
+
+   /** '-', up to 16 digits of hours and ":MM:SS" **/
+   static final int MAX_HHMMSS_LENGTH = 23;
+
+   static {
+      for (int i = 0; i < 100; i++) {
+         TWO_DIGITS[i * 2] = (char) ('0' + i / 10);
+         TWO_DIGITS[i * 2 + 1] = (char) ('0' + i % 10);
+      }
+   }
+
    public static String secondsToHHMMSS(final long currentWorkSeconds) {
-      final int hours = (int) (currentWorkSeconds / 3600);
-      final int minutes = (int) ((currentWorkSeconds % 3600) / 60);
+      final char[] chars = new char[MAX_HHMMSS_LENGTH];
+      final int length = writeHHMMSS(currentWorkSeconds, chars, 0);
+      return new String(chars, 0, length);
+   }
+
+   /**
+    * Appends the seconds as HH:MM:SS to the builder, without creating intermediate strings.
+    */
+   public static void appendHHMMSS(final long seconds, final StringBuilder builder) {
+      long rest = seconds;
+      if (rest < 0) {
+         builder.append('-');
+         rest = negate(rest);
+      }
+
+      final long hours = rest / 3600;
+      if (hours < 100) {
+         appendTwoDigits((int) hours, builder);
+      } else {
+         builder.append(hours);
+      }
+      builder.append(':');
+      appendTwoDigits((int) (rest % 3600 / 60), builder);
+      builder.append(':');
+      appendTwoDigits((int) (rest % 60), builder);
+   }
+
+   /**
+    * Writes the seconds as HH:MM:SS into the array, which needs space for {@link #MAX_HHMMSS_LENGTH} chars.
+    *
+    * @return the index after the last written char
+    */
+   public static int writeHHMMSS(final long seconds, final char[] target, final int offset) {
+      int position = offset;
+      long rest = seconds;
+      if (rest < 0) {
+         target[position++] = '-';
+         rest = negate(rest);
+      }
+
+      final long hours = rest / 3600;
+      if (hours < 100) {
+         position = writeTwoDigits((int) hours, target, position);
+      } else {
+         final int digits = digitsOf(hours);
+         long hoursRest = hours;
+         for (int i = position + digits - 1; i >= position; i--) {
+            target[i] = (char) ('0' + hoursRest % 10);
+            hoursRest /= 10;
+         }
+         position += digits;
+      }
+      target[position++] = ':';
+      position = writeTwoDigits((int) (rest % 3600 / 60), target, position);
+      target[position++] = ':';
+      return writeTwoDigits((int) (rest % 60), target, position);
+   }
 
-      final int sec = (int) (currentWorkSeconds % 3600 % 60);
+   private static int digitsOf(final long value) {
+      // counted with integers, as Math.log10 may be off by one near powers of ten
+      int digits = 1;
+      for (long rest = value; rest >= 10; rest /= 10) {
+         digits++;
+      }
+      return digits;
+   }
 
-      final Object hoursString = hours > 9 ? hours : "0" + hours;
-      final Object minutesString = minutes > 9 ? minutes : "0" + minutes;
-      final Object secondsString = sec > 9 ? sec : "0" + sec;
+   private static long negate(final long negativeSeconds) {
+      // Long.MIN_VALUE can not be negated
+      return negativeSeconds == Long.MIN_VALUE ? Long.MAX_VALUE : -negativeSeconds;
+   }
+
+   private static int writeTwoDigits(final int value, final char[] target, final int position) {
+      target[position] = TWO_DIGITS[value * 2];
+      target[position + 1] = TWO_DIGITS[value * 2 + 1];
+      return position + 2;
+   }
 
-      final String timeString = hoursString + ":" + minutesString + ":" + secondsString;
-      return timeString;
+   private static void appendTwoDigits(final int value, final StringBuilder builder) {
+      builder.append(TWO_DIGITS[value * 2]).append(TWO_DIGITS[value * 2 + 1]);
    }
 
    public static long getSecondsBewtween(final LocalDateTime startDate, final LocalDateTime endDate) {
@@ -51,8 +134,30 @@ public class DateFormatter {
       return newvalue.format(dayDateFormatter);
    }
 
+   public static String toDateString(final LocalDate date) {
+      return date.format(dateFormatter);
+   }
+
    public static String toTimeString(final LocalDateTime localDateTime) {
       return localDateTime.format(timeFormatter);
    }
 
+   /**
+    * Formats seconds as HH:MM:SS into a reused buffer and returns the previous string, if the seconds did not change.
+    * Meant to be held once per call site, e.g. per label, and used from one thread only.
+    */
+   public static class HHMMSSFormatter {
+      private final char[] chars = new char[MAX_HHMMSS_LENGTH];
+      private long lastSeconds;
+      private String lastText;
+
+      public String format(final long seconds) {
+         if (lastText == null || seconds != lastSeconds) {
+            lastText = new String(chars, 0, writeHHMMSS(seconds, chars, 0));
+            lastSeconds = seconds;
+         }
+         return lastText;
+      }
+   }
+
 }
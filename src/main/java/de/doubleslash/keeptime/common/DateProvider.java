@@ -22,4 +22,11 @@ public interface DateProvider {
 
    LocalDateTime dateTimeNow();
 
+   /**
+    * @return value of a monotonic clock in nanoseconds, only meaningful to measure elapsed time
+    */
+   default long nanoTime() {
+      return System.nanoTime();
+   }
+
 }
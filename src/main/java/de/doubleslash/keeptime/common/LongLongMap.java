@@ -0,0 +1,106 @@
+// Copyright 2019 doubleSlash Net Business GmbH
+//
+// This file is part of KeepTime.
+// KeepTime is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+
+package de.doubleslash.keeptime.common;
+
+import java.util.Arrays;
+
+/**
+ * Map from long keys to long values with open addressing, which does not box keys or values. Missing keys have the
+ * value 0.
+ */
+public class LongLongMap {
+
+   private static final int MIN_CAPACITY = 16;
+
+   private long[] keys;
+   private long[] values;
+   private boolean[] used;
+   private int size;
+
+   public LongLongMap() {
+      allocate(MIN_CAPACITY);
+   }
+
+   public long get(final long key) {
+      final int slot = findSlot(key);
+      return used[slot] ? values[slot] : 0;
+   }
+
+   /**
+    * Adds the given value to the value of the key.
+    */
+   public void add(final long key, final long value) {
+      final int slot = findSlot(key);
+      if (used[slot]) {
+         values[slot] += value;
+         return;
+      }
+
+      used[slot] = true;
+      keys[slot] = key;
+      values[slot] = value;
+      size++;
+      if (size * 2 > keys.length) {
+         grow();
+      }
+   }
+
+   public int size() {
+      return size;
+   }
+
+   public void clear() {
+      Arrays.fill(used, false);
+      size = 0;
+   }
+
+   private int findSlot(final long key) {
+      final int mask = keys.length - 1;
+      int slot = hash(key) & mask;
+      while (used[slot] && keys[slot] != key) {
+         slot = (slot + 1) & mask;
+      }
+      return slot;
+   }
+
+   private static int hash(final long key) {
+      final long h = key * 0x9E3779B97F4A7C15L;
+      return (int) (h ^ (h >>> 32));
+   }
+
+   private void grow() {
+      final long[] oldKeys = keys;
+      final long[] oldValues = values;
+      final boolean[] oldUsed = used;
+      allocate(oldKeys.length * 2);
+      for (int i = 0; i < oldKeys.length; i++) {
+         if (oldUsed[i]) {
+            final int slot = findSlot(oldKeys[i]);
+            used[slot] = true;
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+         }
+      }
+   }
+
+   private void allocate(final int capacity) {
+      keys = new long[capacity];
+      values = new long[capacity];
+      used = new boolean[capacity];
+   }
+}
@@ -33,7 +33,6 @@ public class Resources {
       /** LAYOUTS **/
       // main
       FXML_VIEW_LAYOUT("/layouts/ViewLayout.fxml"),
-      FXML_PROJECT_LAYOUT("/layouts/ProjectDetailLayout.fxml"),
       FXML_SETTINGS("/layouts/settings.fxml"),
       FXML_VIEW_POPUP_LAYOUT("/layouts/ViewLayoutPopup.fxml"),
       FXML_REPORT("/layouts/report.fxml"),
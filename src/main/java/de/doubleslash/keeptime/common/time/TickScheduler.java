@@ -0,0 +1,372 @@
+// Copyright 2019 doubleSlash Net Business GmbH
+//
+// This file is part of KeepTime.
+// KeepTime is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+
+package de.doubleslash.keeptime.common.time;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import de.doubleslash.keeptime.common.DateProvider;
+import javafx.application.Platform;
+
+/**
+ * One scheduler for all periodic callbacks of the application, implemented as hashed timer wheel driven by the
+ * monotonic clock of the {@link DateProvider}.<br>
+ * Background callbacks run on the scheduler thread. Callbacks which change the UI are collected and handed to the FX
+ * thread with one single {@link Platform#runLater(Runnable)} per tick. If ticks were missed (e.g. after standby) every
+ * callback is only called once. The scheduler thread sleeps until the next deadline, so it does not wake up the
+ * process every tick.
+ */
+@Component
+public class TickScheduler {
+
+   private static final Logger LOG = LoggerFactory.getLogger(TickScheduler.class);
+
+   static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+   private static final int WHEEL_SIZE = 512;
+   private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+   private final DateProvider dateProvider;
+
+   private final Consumer<Runnable> fxExecutor;
+
+   private final List<List<Registration>> wheel = new ArrayList<>(WHEEL_SIZE);
+
+   private final long startNanos;
+
+   private long currentTick = 0;
+
+   private final Set<Registration> pendingFxCallbacks = new LinkedHashSet<>();
+
+   /** latest ui update computed by each registration, which did not run on the FX thread yet **/
+   private final Map<Registration, Runnable> pendingFxUpdates = new LinkedHashMap<>();
+
+   private boolean fxBatchPosted = false;
+
+   private final boolean driven;
+
+   private ScheduledExecutorService driver;
+
+   private ScheduledFuture<?> nextWakeUp;
+
+   private long nextWakeUpTick = Long.MAX_VALUE;
+
+   @Autowired
+   public TickScheduler(final DateProvider dateProvider) {
+      this(dateProvider, Platform::runLater, true);
+   }
+
+   /**
+    * Creates a scheduler which is not driven by a thread. Ticks have to be processed by calling {@link #advance()}.
+    */
+   TickScheduler(final DateProvider dateProvider, final Consumer<Runnable> fxExecutor) {
+      this(dateProvider, fxExecutor, false);
+   }
+
+   private TickScheduler(final DateProvider dateProvider, final Consumer<Runnable> fxExecutor, final boolean driven) {
+      this.dateProvider = dateProvider;
+      this.fxExecutor = fxExecutor;
+      this.driven = driven;
+      this.startNanos = dateProvider.nanoTime();
+      for (int i = 0; i < WHEEL_SIZE; i++) {
+         wheel.add(new ArrayList<>());
+      }
+   }
+
+   /**
+    * Calls the callback periodically on the scheduler thread. It must not change the UI.
+    */
+   public Registration schedule(final Duration period, final CallBackListener callBack) {
+      return register(period, callBack, false, null);
+   }
+
+   /**
+    * Calls the callback periodically on the FX thread.
+    */
+   public Registration scheduleOnFxThread(final Duration period, final CallBackListener callBack) {
+      return register(period, callBack, true, null);
+   }
+
+   /**
+    * Calls the computation periodically on the scheduler thread. The ui update it returns runs on the FX thread
+    * together with the other FX callbacks of the tick. If the FX thread is busy, only the latest update runs.
+    *
+    * @param computation
+    *           must not change the UI. Returns the update of the UI or null if there is nothing to update.
+    */
+   public Registration scheduleWithFxUpdate(final Duration period, final Supplier<Runnable> computation) {
+      return register(period, null, false, computation);
+   }
+
+   private Registration register(final Duration period, final CallBackListener callBack, final boolean onFxThread,
+         final Supplier<Runnable> computation) {
+      final long periodTicks = Math.max(1, period.toNanos() / TICK_NANOS);
+      final Registration registration = new Registration(periodTicks, callBack, onFxThread, computation);
+      synchronized (this) {
+         // the wheel is only advanced at deadlines, so the current tick may be behind the clock
+         final long nowTick = Math.max(currentTick, (dateProvider.nanoTime() - startNanos) / TICK_NANOS);
+         addToWheel(registration, nowTick + periodTicks);
+         startDriver();
+         scheduleWakeUp();
+      }
+      return registration;
+   }
+
+   /**
+    * Processes all ticks which passed until now. Called by the scheduler thread.
+    */
+   void advance() {
+      final List<Registration> dueRegistrations = new ArrayList<>();
+
+      synchronized (this) {
+         final long targetTick = (dateProvider.nanoTime() - startNanos) / TICK_NANOS;
+         // no need to visit a bucket twice when catching up
+         final long firstTick = Math.max(currentTick + 1, targetTick - WHEEL_SIZE + 1);
+         for (long tick = firstTick; tick <= targetTick; tick++) {
+            collectDue(wheel.get((int) (tick & WHEEL_MASK)), targetTick, dueRegistrations);
+         }
+         currentTick = Math.max(currentTick, targetTick);
+
+         for (final Registration registration : dueRegistrations) {
+            if (registration.onFxThread) {
+               pendingFxCallbacks.add(registration);
+            }
+         }
+      }
+
+      for (final Registration registration : dueRegistrations) {
+         if (registration.computation != null) {
+            final Runnable update = compute(registration);
+            if (update != null) {
+               synchronized (this) {
+                  pendingFxUpdates.put(registration, update);
+               }
+            }
+         } else if (!registration.onFxThread) {
+            call(registration);
+         }
+      }
+
+      boolean postFxBatch = false;
+      synchronized (this) {
+         if ((!pendingFxCallbacks.isEmpty() || !pendingFxUpdates.isEmpty()) && !fxBatchPosted) {
+            fxBatchPosted = true;
+            postFxBatch = true;
+         }
+      }
+      if (postFxBatch) {
+         fxExecutor.accept(this::runFxBatch);
+      }
+   }
+
+   /**
+    * @return the tick of the earliest deadline of all callbacks or {@link Long#MAX_VALUE} if there is none
+    */
+   synchronized long nextDeadlineTick() {
+      long nextDeadline = Long.MAX_VALUE;
+      for (final List<Registration> bucket : wheel) {
+         for (final Registration registration : bucket) {
+            if (!registration.cancelled && registration.deadlineTick < nextDeadline) {
+               nextDeadline = registration.deadlineTick;
+            }
+         }
+      }
+      return nextDeadline;
+   }
+
+   private void collectDue(final List<Registration> bucket, final long targetTick,
+         final List<Registration> dueRegistrations) {
+      for (int i = bucket.size() - 1; i >= 0; i--) {
+         final Registration registration = bucket.get(i);
+         if (registration.cancelled) {
+            removeFromBucket(bucket, i);
+            continue;
+         }
+         if (registration.deadlineTick > targetTick) {
+            continue;
+         }
+
+         removeFromBucket(bucket, i);
+         dueRegistrations.add(registration);
+         // skip missed periods, so the callback is called only once
+         final long missedPeriods = (targetTick - registration.deadlineTick) / registration.periodTicks;
+         addToWheel(registration, registration.deadlineTick + (missedPeriods + 1) * registration.periodTicks);
+      }
+   }
+
+   private void removeFromBucket(final List<Registration> bucket, final int index) {
+      final int last = bucket.size() - 1;
+      bucket.set(index, bucket.get(last));
+      bucket.remove(last);
+   }
+
+   private void addToWheel(final Registration registration, final long deadlineTick) {
+      registration.deadlineTick = deadlineTick;
+      wheel.get((int) (deadlineTick & WHEEL_MASK)).add(registration);
+   }
+
+   private void runFxBatch() {
+      final List<Registration> batch;
+      final Map<Registration, Runnable> updates;
+      synchronized (this) {
+         batch = new ArrayList<>(pendingFxCallbacks);
+         pendingFxCallbacks.clear();
+         updates = new LinkedHashMap<>(pendingFxUpdates);
+         pendingFxUpdates.clear();
+         fxBatchPosted = false;
+      }
+      for (final Registration registration : batch) {
+         call(registration);
+      }
+      updates.forEach((registration, update) -> {
+         if (!registration.cancelled) {
+            run(update);
+         }
+      });
+   }
+
+   private void call(final Registration registration) {
+      if (registration.cancelled) {
+         return;
+      }
+      run(registration.callBack::call);
+   }
+
+   private Runnable compute(final Registration registration) {
+      if (registration.cancelled) {
+         return null;
+      }
+      try {
+         return registration.computation.get();
+      } catch (final RuntimeException e) {
+         LOG.error("Error in scheduled computation.", e);
+         return null;
+      }
+   }
+
+   private void run(final Runnable callBack) {
+      try {
+         callBack.run();
+      } catch (final RuntimeException e) {
+         LOG.error("Error in scheduled callback.", e);
+      }
+   }
+
+   /**
+    * only start the thread if needed
+    */
+   private void startDriver() {
+      if (!driven || driver != null) {
+         return;
+      }
+
+      driver = Executors.newSingleThreadScheduledExecutor(runnable -> {
+         final Thread thread = new Thread(runnable, "tick-scheduler");
+         thread.setDaemon(true);
+         return thread;
+      });
+   }
+
+   /**
+    * Lets the scheduler thread sleep until the next deadline, if it would not wake up in time anyway. Has to be
+    * called while holding the lock.
+    */
+   private void scheduleWakeUp() {
+      if (driver == null) {
+         return;
+      }
+
+      final long deadlineTick = nextDeadlineTick();
+      if (deadlineTick >= nextWakeUpTick) {
+         return;
+      }
+      if (nextWakeUp != null) {
+         nextWakeUp.cancel(false);
+      }
+      final long delayNanos = startNanos + deadlineTick * TICK_NANOS - dateProvider.nanoTime();
+      nextWakeUp = driver.schedule(this::wakeUp, Math.max(0, delayNanos), TimeUnit.NANOSECONDS);
+      nextWakeUpTick = deadlineTick;
+   }
+
+   private void wakeUp() {
+      synchronized (this) {
+         // the driver has a single thread, so no other wake up is running
+         nextWakeUp = null;
+         nextWakeUpTick = Long.MAX_VALUE;
+      }
+      advance();
+      synchronized (this) {
+         scheduleWakeUp();
+      }
+   }
+
+   @PreDestroy
+   public synchronized void shutdown() {
+      if (driver != null) {
+         driver.shutdownNow();
+         driver = null;
+         nextWakeUp = null;
+         nextWakeUpTick = Long.MAX_VALUE;
+      }
+   }
+
+   /**
+    * Handle of a scheduled callback.
+    */
+   public static class Registration {
+      private final long periodTicks;
+      private final CallBackListener callBack;
+      private final boolean onFxThread;
+      private final Supplier<Runnable> computation;
+      private long deadlineTick;
+      private volatile boolean cancelled = false;
+
+      Registration(final long periodTicks, final CallBackListener callBack, final boolean onFxThread,
+            final Supplier<Runnable> computation) {
+         this.periodTicks = periodTicks;
+         this.callBack = callBack;
+         this.onFxThread = onFxThread;
+         this.computation = computation;
+      }
+
+      /**
+       * Stops calling the callback.
+       */
+      public void cancel() {
+         cancelled = true;
+      }
+   }
+}
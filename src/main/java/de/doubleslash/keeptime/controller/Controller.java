@@ -20,7 +20,14 @@ import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
 
 import javax.annotation.PreDestroy;
 
@@ -31,30 +38,70 @@ import org.springframework.stereotype.Service;
 
 import de.doubleslash.keeptime.common.DateFormatter;
 import de.doubleslash.keeptime.common.DateProvider;
-import de.doubleslash.keeptime.common.time.Interval;
+import de.doubleslash.keeptime.common.time.TickScheduler;
 import de.doubleslash.keeptime.model.Model;
 import de.doubleslash.keeptime.model.Project;
+import de.doubleslash.keeptime.model.ProjectSnapshot;
 import de.doubleslash.keeptime.model.Settings;
 import de.doubleslash.keeptime.model.Work;
+import de.doubleslash.keeptime.model.WorkSnapshot;
 import javafx.collections.ObservableList;
 
 @Service
 public class Controller {
    private final long QUICK_SAVE_INTERVAL = 60;
 
+   private final long JOURNAL_INTERVAL = 1;
+
+   /** distance between the indexes of neighbouring projects after renumbering them */
+   static final int PROJECT_INDEX_GAP = 1024;
+
    private static final Logger LOG = LoggerFactory.getLogger(Controller.class);
 
    private final Model model;
 
    private final DateProvider dateProvider;
 
+   private final WorkDailySummaryService workDailySummaryService;
+
+   private final PersistenceExecutor persistenceExecutor;
+
+   private final WorkJournal workJournal;
+
+   private final DayReportCache dayReportCache;
+
+   private final ProjectCache projectCache;
+
+   /**
+    * Ids of the work items saved by the persistence thread. Only used on that thread, as snapshots taken before the id
+    * of a new work item was applied on the FX thread do not contain it yet.
+    */
+   private final Map<Work, Long> savedWorkIds = new WeakHashMap<>();
+
+   /**
+    * Ids of the projects saved by the persistence thread. Only used on that thread, like {@link #savedWorkIds}.
+    */
+   private final Map<Project, Long> savedProjectIds = new WeakHashMap<>();
+
    @Autowired
-   public Controller(final Model model, final DateProvider dateProvider) {
+   public Controller(final Model model, final DateProvider dateProvider,
+         final WorkDailySummaryService workDailySummaryService, final PersistenceExecutor persistenceExecutor,
+         final WorkJournal workJournal, final DayReportCache dayReportCache, final ProjectCache projectCache,
+         final TickScheduler tickScheduler) {
       this.model = model;
       this.dateProvider = dateProvider;
+      this.workDailySummaryService = workDailySummaryService;
+      this.persistenceExecutor = persistenceExecutor;
+      this.workJournal = workJournal;
+      this.dayReportCache = dayReportCache;
+      this.projectCache = projectCache;
 
       // initiate quicksaving
-      new Interval(QUICK_SAVE_INTERVAL).registerCallBack(() -> saveCurrentWork(dateProvider.dateTimeNow()));
+      tickScheduler.scheduleOnFxThread(Duration.ofSeconds(QUICK_SAVE_INTERVAL),
+            () -> saveCurrentWork(dateProvider.dateTimeNow()));
+      // keep crash journal up to date
+      tickScheduler.scheduleOnFxThread(Duration.ofSeconds(JOURNAL_INTERVAL),
+            () -> journalActiveWork(model.activeWorkItem.get(), dateProvider.dateTimeNow()));
    }
 
    public void changeProject(final Project newProject) {
@@ -66,7 +113,18 @@ public class Controller {
       final LocalDateTime workEnd = dateProvider.dateTimeNow().minusSeconds(minusSeconds);
       final LocalDate today = dateProvider.dateTimeNow().toLocalDate();
 
-      final Work oldWork = saveCurrentWork(workEnd);
+      final Work oldWork = model.activeWorkItem.get();
+      if (oldWork != null) {
+         // the journal records the new work from now on, so it keeps the old one until its final save is done. This
+         // is queued before the save, so marking the work as saved is always queued after it
+         oldWork.setEndTime(workEnd);
+         final WorkSnapshot pendingSave = WorkSnapshot.of(oldWork);
+         final Project oldProject = oldWork.getProject();
+         persistenceExecutor.submit("record pending save in work journal",
+               () -> workJournal.recordPendingSave(oldWork, withSavedIds(oldWork, oldProject, pendingSave)));
+         saveWork(oldWork, workEnd).thenRun(() -> persistenceExecutor.submit("mark work saved in work journal",
+               () -> workJournal.markSaved(oldWork)));
+      }
 
       if (oldWork != null && !today.isEqual(oldWork.getStartTime().toLocalDate())) {
          LOG.info("Removing projects with other creation date than today '{}' from list.", today);
@@ -79,9 +137,25 @@ public class Controller {
       final Work newWork = new Work(workEnd, workEnd.plusSeconds(minusSeconds), newProject, "");
 
       model.getPastWorkItems().add(newWork);
+      model.getProjectSearchIndex().recordUse(newProject);
 
       model.activeWorkItem.set(newWork);
 
+      journalActiveWork(newWork, newWork.getEndTime());
+   }
+
+   /**
+    * Records the active work in the crash journal. Only the snapshot is taken on the FX thread, the journal is
+    * written and forced to disk on the persistence thread.
+    */
+   private void journalActiveWork(final Work work, final LocalDateTime endTime) {
+      if (work == null) {
+         return;
+      }
+      final WorkSnapshot snapshot = WorkSnapshot.of(work);
+      final Project project = work.getProject();
+      persistenceExecutor.submit("record work journal",
+            () -> workJournal.record(withSavedIds(work, project, snapshot), endTime));
    }
 
    public Work saveCurrentWork(final LocalDateTime workEnd) {
@@ -91,6 +165,11 @@ public class Controller {
          return null;
       }
 
+      saveWork(currentWork, workEnd);
+      return currentWork;
+   }
+
+   private CompletableFuture<Void> saveWork(final Work currentWork, final LocalDateTime workEnd) {
       currentWork.setEndTime(workEnd);
 
       final String time = DateFormatter
@@ -100,19 +179,31 @@ public class Controller {
             currentWork.getEndTime(), time, currentWork.getProject().getName(), currentWork.getNotes());
 
       // Save in db
-      return model.getWorkRepository().save(currentWork);
-
+      final WorkSnapshot snapshot = WorkSnapshot.of(currentWork);
+      final Project project = currentWork.getProject();
+      final CompletableFuture<Void> saved = persistenceExecutor.submitSave(currentWork,
+            "save work " + currentWork.getStartTime(),
+            () -> persistWork(currentWork, project, snapshot, Collections.emptySet()));
+      dayReportCache.invalidate(Collections.singleton(currentWork.getStartTime().toLocalDate()));
+      return saved;
    }
 
+   /**
+    * Adds the project to the list of projects.
+    * 
+    * @param project
+    *           the new project. Its index is the position it should get in the sorted project list.
+    */
    public void addNewProject(final Project project) {
       LOG.info("Creating new project '{}'.", project);
+      // the sorted list has to know the final index before the project is added
+      final List<Project> changedProjects = placeProject(model.getSortedAvailableProjects(), project,
+            project.getIndex());
       model.getAllProjects().add(project);
       model.getAvailableProjects().add(project);
 
-      final List<Project> changedProjects = resortProjectIndexes(model.getAvailableProjects(), project,
-            model.getAvailableProjects().size(), project.getIndex());
       changedProjects.add(project);
-      model.getProjectRepository().saveAll(changedProjects);
+      saveProjects(changedProjects);
    }
 
    public void updateSettings(final Settings newValuedSettings) {
@@ -131,6 +222,7 @@ public class Controller {
       settings.setWindowYProportion(newValuedSettings.getWindowYProportion());
       settings.setScreenHash(newValuedSettings.getScreenHash());
       settings.setRemindIfNotesAreEmpty(newValuedSettings.isRemindIfNotesAreEmpty());
+      settings.setPopupHotkey(newValuedSettings.getPopupHotkey());
 
       settings = model.getSettingsRepository().save(settings);
 
@@ -147,6 +239,7 @@ public class Controller {
       model.screenSettings.proportionalY.set(settings.getWindowYProportion());
       model.screenSettings.screenHash.set(settings.getScreenHash());
       model.remindIfNotesAreEmpty.set(settings.isRemindIfNotesAreEmpty());
+      model.popupHotkey.set(settings.getPopupHotkey());
    }
 
    @PreDestroy
@@ -162,8 +255,12 @@ public class Controller {
             model.useHotkey.get(), model.displayProjectsRight.get(), model.hideProjectsOnMouseExit.get(),
             model.screenSettings.proportionalX.get(), model.screenSettings.proportionalY.get(),
             model.screenSettings.screenHash.get(), model.screenSettings.saveWindowPosition.get(),
-            model.remindIfNotesAreEmpty.get());
+            model.remindIfNotesAreEmpty.get(), model.popupHotkey.get());
       updateSettings(newSettings);
+
+      persistenceExecutor.submit("mark work journal clean", workJournal::markClean);
+      persistenceExecutor.drain();
+      projectCache.logStatistics();
    }
 
    public void deleteProject(final Project p) {
@@ -178,58 +275,119 @@ public class Controller {
 
       LOG.info("Disabeling project '{}'.", p);
 
-      final int indexToRemove = p.getIndex();
       p.setEnabled(false); // we don't delete it because of the referenced work
                            // items
       p.setIndex(-1);
 
       model.getAvailableProjects().remove(p);
 
-      final List<Project> changedProjects = adaptProjectIndexesAfterRemoving(model.getAvailableProjects(),
-            indexToRemove);
-
-      changedProjects.add(p);
-      model.getProjectRepository().saveAll(changedProjects);
+      // the gap left behind does not disturb the order of the other projects
+      saveProjects(Collections.singletonList(p));
    }
 
    private boolean isProjectActive(final Project p) {
       return p == model.activeWorkItem.get().getProject();
    }
 
+   /**
+    * Takes over the values of the edited project.
+    * 
+    * @param projectToBeUpdated
+    *           the project to change
+    * @param newValuedProject
+    *           the new values. Its index is the position the project should get in the sorted project list.
+    */
    public void editProject(final Project projectToBeUpdated, final Project newValuedProject) {
       LOG.info("Changing project '{}' to '{}'.", projectToBeUpdated, newValuedProject);
 
       projectToBeUpdated.setName(newValuedProject.getName());
       projectToBeUpdated.setDescription(newValuedProject.getDescription());
       projectToBeUpdated.setColor(newValuedProject.getColor());
-      projectToBeUpdated.setWork(newValuedProject.isWork());
-      final int oldIndex = projectToBeUpdated.getIndex();
-      projectToBeUpdated.setIndex(newValuedProject.getIndex());
+      final boolean workFlagChanged = projectToBeUpdated.isWork() != newValuedProject.isWork();
+      final boolean isWork = newValuedProject.isWork();
+      projectToBeUpdated.setWork(isWork);
 
-      final List<Project> changedProjects = resortProjectIndexes(model.getAvailableProjects(), projectToBeUpdated,
-            oldIndex, newValuedProject.getIndex());
+      final List<Project> changedProjects = placeProject(model.getSortedAvailableProjects(), projectToBeUpdated,
+            newValuedProject.getIndex());
       changedProjects.add(projectToBeUpdated);
 
-      // save all projects which changed index
-      model.getProjectRepository().saveAll(changedProjects);
+      // only contains other projects if they had to be renumbered
+      saveProjects(changedProjects);
+
+      // work flag and color of todays work items may have changed
+      model.getTodaysTimeAccumulator().invalidate();
+      model.getProjectSearchIndex().invalidate();
+
+      if (workFlagChanged) {
+         final long projectId = projectToBeUpdated.getId();
+         persistenceExecutor.submit("update work flag of " + projectToBeUpdated.getName(),
+               () -> workDailySummaryService.updateWorkFlag(
+                     savedIdOf(savedProjectIds, projectToBeUpdated, projectId), isWork));
+      }
+   }
+
+   private void saveProjects(final List<Project> changedProjects) {
+      // reports show name, color and order of the projects
+      dayReportCache.invalidateAll();
+      final List<ProjectSnapshot> snapshots = new ArrayList<>(changedProjects.size());
+      for (final Project project : changedProjects) {
+         snapshots.add(ProjectSnapshot.of(project));
+      }
+      persistenceExecutor.submit("save " + changedProjects.size() + " projects", () -> {
+         persistProjects(changedProjects, snapshots);
+         projectCache.evict();
+      });
+   }
+
+   /**
+    * Saves the snapshots of the projects and applies the ids new projects got to them on the FX thread. Runs on the
+    * persistence thread.
+    */
+   private void persistProjects(final List<Project> projects, final List<ProjectSnapshot> snapshots) {
+      final List<Project> entities = new ArrayList<>(snapshots.size());
+      for (int i = 0; i < snapshots.size(); i++) {
+         final ProjectSnapshot snapshot = snapshots.get(i);
+         entities.add(snapshot.toProject(savedIdOf(savedProjectIds, projects.get(i), snapshot.getId())));
+      }
+      final List<Project> savedProjects = model.getProjectRepository().saveAll(entities);
+
+      for (int i = 0; i < projects.size(); i++) {
+         final Project project = projects.get(i);
+         final long savedId = savedProjects.get(i).getId();
+         savedProjectIds.put(project, savedId);
+         if (snapshots.get(i).getId() != savedId) {
+            persistenceExecutor.applyOnFxThread(() -> {
+               project.setId(savedId);
+               // both know the project by its id
+               model.getTodaysTimeAccumulator().invalidate();
+               model.getProjectSearchIndex().invalidate();
+            });
+         }
+      }
    }
 
    public void editWork(final Work workToBeEdited, final Work newValuedWork) {
       LOG.info("Changing work '{}' to '{}'.", workToBeEdited, newValuedWork);
 
+      final Set<LocalDate> previousDays = WorkDailySummaryService.daysOf(workToBeEdited);
+      final LocalDate previousStartDay = workToBeEdited.getStartTime().toLocalDate();
       workToBeEdited.setStartTime(newValuedWork.getStartTime());
       workToBeEdited.setEndTime(newValuedWork.getEndTime());
       workToBeEdited.setNotes(newValuedWork.getNotes());
       workToBeEdited.setProject(newValuedWork.getProject());
 
-      final Work editedWork = model.getWorkRepository().save(workToBeEdited);
+      final WorkSnapshot snapshot = WorkSnapshot.of(workToBeEdited);
+      final Project project = workToBeEdited.getProject();
+      persistenceExecutor.submit("edit work " + workToBeEdited.getId(),
+            () -> persistWork(workToBeEdited, project, snapshot, previousDays));
+      dayReportCache.invalidate(Arrays.asList(previousStartDay, workToBeEdited.getStartTime().toLocalDate()));
 
       // remove old
       model.getPastWorkItems().removeIf(w -> (w.getId() == workToBeEdited.getId()));
       // add if started today
       final LocalDate dateNow = dateProvider.dateTimeNow().toLocalDate();
-      if (dateNow.equals(editedWork.getStartTime().toLocalDate())) {
-         model.getPastWorkItems().add(editedWork);
+      if (dateNow.equals(workToBeEdited.getStartTime().toLocalDate())) {
+         model.getPastWorkItems().add(workToBeEdited);
       }
 
    }
@@ -238,73 +396,97 @@ public class Controller {
       LOG.info("Deleting work '{}'.", workToBeDeleted);
 
       model.getPastWorkItems().removeIf(w -> (w.getId() == workToBeDeleted.getId()));
-      model.getWorkRepository().delete(workToBeDeleted);
+      final WorkSnapshot snapshot = WorkSnapshot.of(workToBeDeleted);
+      persistenceExecutor.submit("delete work " + workToBeDeleted.getId(), () -> {
+         final long id = savedIdOf(savedWorkIds, workToBeDeleted, snapshot.getId());
+         if (id != 0) {
+            workDailySummaryService.deleteWork(snapshot.withId(id));
+         }
+      });
+      dayReportCache.invalidate(Collections.singleton(workToBeDeleted.getStartTime().toLocalDate()));
    }
 
    /**
-    * Changes the indexes of the originalList parameter to have a consistent order.
+    * Saves the snapshot of the work and applies the id it got to the work on the FX thread. Runs on the persistence
+    * thread.
     * 
-    * @param originalList
-    *           list of all projects to adapt the indexes for
-    * @param changedProject
-    *           the project which has changed which already has the new index
-    * @param oldIndex
-    *           the old index of the changed project
-    * @param newIndex
-    *           the new index of the changed project (which the projects also already has)
-    * @return all projects whose index has been adapted
+    * @param project
+    *           the project of the work when the snapshot was taken, to look up its id if it was new
     */
-   List<Project> resortProjectIndexes(final List<Project> originalList, final Project changedProject,
-         final int oldIndex, final int newIndex) {
-      final ArrayList<Project> changedProjects = new ArrayList<>(Math.abs(oldIndex - newIndex));
-      if (newIndex == oldIndex) {
-         return changedProjects;
+   private void persistWork(final Work work, final Project project, final WorkSnapshot snapshot,
+         final Collection<LocalDate> previousDays) {
+      final long savedId = workDailySummaryService.saveWork(withSavedIds(work, project, snapshot), previousDays);
+      savedWorkIds.put(work, savedId);
+      if (snapshot.getId() != savedId) {
+         persistenceExecutor.applyOnFxThread(() -> work.setId(savedId));
       }
+   }
 
-      final boolean newIndexGreater = newIndex > oldIndex;
-      final int adjustOffset = newIndexGreater ? -1 : +1;
-
-      final int smallerIndex = Math.min(newIndex, oldIndex);
-      final int biggerIndex = Math.max(newIndex, oldIndex);
-
-      for (int i = 0; i < originalList.size(); i++) {
-         final Project project = originalList.get(i);
-         final int currentIndex = project.getIndex();
-         if ((currentIndex < smallerIndex || currentIndex > biggerIndex) || project == changedProject) {
-            // index is not affected by change or
-            // this one is already at the right/wanted index
-            continue;
-         }
+   /**
+    * @return the snapshot with the ids the work and its project got when they were saved before. Runs on the
+    *         persistence thread.
+    */
+   private WorkSnapshot withSavedIds(final Work work, final Project project, final WorkSnapshot snapshot) {
+      return snapshot.withId(savedIdOf(savedWorkIds, work, snapshot.getId()))
+            .withProjectId(savedIdOf(savedProjectIds, project, snapshot.getProjectId()));
+   }
 
-         final int newCurrentIndex = currentIndex + adjustOffset;
-         project.setIndex(newCurrentIndex);
-         changedProjects.add(project);
+   /**
+    * @return the id of the snapshot or, if the entity had no id yet when the snapshot was taken, the id it got when it
+    *         was saved before
+    */
+   private static <T> long savedIdOf(final Map<T, Long> savedIds, final T entity, final long snapshotId) {
+      if (snapshotId != 0) {
+         return snapshotId;
       }
-
-      return changedProjects;
+      return savedIds.getOrDefault(entity, 0L);
    }
 
    /**
-    * Decreases all indexes by one, after the removed index
+    * Gives the project an index between the indexes of its new neighbours, so only the project itself has to be
+    * saved. The indexes are spread by {@link #PROJECT_INDEX_GAP}, so there is room for a few moves between two
+    * projects. If there is no free index left between the neighbours, all projects are renumbered once.
     * 
-    * @param originalList
-    *           list of all projects to adapt the indexes for
-    * @param removedIndex
-    *           the index which has been removed
-    * @return all projects whose index has been adapted
+    * @param sortedProjects
+    *           projects sorted by index. May contain the project to place.
+    * @param project
+    *           the project to place
+    * @param position
+    *           the wanted position of the project in the sorted list
+    * @return the other projects whose index had to be changed
     */
-   List<Project> adaptProjectIndexesAfterRemoving(final List<Project> originalList, final int removedIndex) {
-      final int size = originalList.size();
-      final List<Project> changedProjects = new ArrayList<>(size - removedIndex);
-      for (int i = 0; i < size; i++) {
-         final Project project = originalList.get(i);
-         if (project.getIndex() < removedIndex) {
-            // Not affected
-            continue;
-         }
+   List<Project> placeProject(final List<Project> sortedProjects, final Project project, final int position) {
+      final List<Project> otherProjects = new ArrayList<>(sortedProjects);
+      otherProjects.remove(project);
+      final int newPosition = Math.max(0, Math.min(position, otherProjects.size()));
+
+      // indexes stay positive, as deleted projects get -1
+      final boolean atEnd = newPosition == otherProjects.size();
+      final long lowerIndex = newPosition == 0 ? -1 : otherProjects.get(newPosition - 1).getIndex();
+      final long upperIndex = atEnd ? Long.MAX_VALUE : otherProjects.get(newPosition).getIndex();
+
+      if (sortedProjects.contains(project) && lowerIndex < project.getIndex() && project.getIndex() < upperIndex) {
+         // already at the wanted position
+         return new ArrayList<>();
+      }
+
+      final long newIndex = atEnd ? lowerIndex + PROJECT_INDEX_GAP : lowerIndex + (upperIndex - lowerIndex) / 2;
+      if (newIndex > lowerIndex && newIndex < upperIndex && newIndex <= Integer.MAX_VALUE) {
+         project.setIndex((int) newIndex);
+         return new ArrayList<>();
+      }
 
-         project.setIndex(project.getIndex() - 1);
-         changedProjects.add(project);
+      LOG.info("No free index at position '{}' for project '{}'. Renumbering all projects.", newPosition, project);
+      otherProjects.add(newPosition, project);
+      final List<Project> changedProjects = new ArrayList<>(otherProjects.size());
+      for (int i = 0; i < otherProjects.size(); i++) {
+         final Project otherProject = otherProjects.get(i);
+         // leave room in front of the first project, too
+         final int renumberedIndex = (i + 1) * PROJECT_INDEX_GAP;
+         if (otherProject != project && otherProject.getIndex() != renumberedIndex) {
+            changedProjects.add(otherProject);
+         }
+         otherProject.setIndex(renumberedIndex);
       }
       return changedProjects;
    }
@@ -318,28 +500,14 @@ public class Controller {
     * Calculate todays seconds counted as work
     */
    public long calcTodaysWorkSeconds() {
-      final List<Work> workItems = new ArrayList<>();
-
-      for (final Work work : model.getPastWorkItems()) {
-         final Project project = work.getProject();
-         for (final Project p : model.getAllProjects()) {
-            if (p.getId() == project.getId()) {
-               if (p.isWork()) {
-                  workItems.add(work);
-               }
-               break;
-            }
-         }
-      }
-
-      return calcSeconds(workItems);
+      return model.getTodaysTimeAccumulator().getTodaysWorkSeconds();
    }
 
    /**
     * Calculate todays present seconds (work+nonWork)
     */
    public long calcTodaysSeconds() {
-      return calcSeconds(model.getPastWorkItems());
+      return model.getTodaysTimeAccumulator().getTodaysSeconds();
    }
 
    public ObservableList<Project> getAvailableProjects() {
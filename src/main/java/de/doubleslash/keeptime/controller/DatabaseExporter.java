@@ -0,0 +1,152 @@
+// Copyright 2019 doubleSlash Net Business GmbH
+//
+// This file is part of KeepTime.
+// KeepTime is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+
+package de.doubleslash.keeptime.controller;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import de.doubleslash.keeptime.ApplicationProperties;
+
+/**
+ * Exports the database as gzip compressed sql script, which H2 can import with
+ * {@code RUNSCRIPT FROM '<file>' COMPRESSION GZIP}.<br>
+ * H2 creates the whole result of {@code SCRIPT} before returning it, so the script is created on the persistence
+ * thread, where it is a consistent snapshot as all writes of KeepTime run there. Quick-saves only wait for that short
+ * step. Compressing and writing the file is done afterwards on the calling thread.
+ */
+@Component
+public class DatabaseExporter {
+
+   private static final Logger LOG = LoggerFactory.getLogger(DatabaseExporter.class);
+
+   private static final int BUFFER_SIZE = 64 * 1024;
+
+   /**
+    * Receives the progress of an export and decides whether it goes on.
+    */
+   public interface Progress {
+      void update(long exportedStatements, long totalStatements);
+
+      boolean isCancelled();
+   }
+
+   private final ApplicationProperties applicationProperties;
+   private final PersistenceExecutor persistenceExecutor;
+
+   @Autowired
+   public DatabaseExporter(final ApplicationProperties applicationProperties,
+         final PersistenceExecutor persistenceExecutor) {
+      this.applicationProperties = applicationProperties;
+      this.persistenceExecutor = persistenceExecutor;
+   }
+
+   /**
+    * Exports the database to the given file. Blocks until done, so call it from a background thread.
+    *
+    * @param file
+    *           the file to write. It is deleted again if the export fails or is cancelled
+    * @param progress
+    *           informed after every statement
+    * @throws CancellationException
+    *            if the progress reported the export as cancelled
+    */
+   public void export(final File file, final Progress progress)
+         throws SQLException, IOException, InterruptedException {
+      try (Connection connection = DriverManager.getConnection(applicationProperties.getSpringDataSourceUrl(),
+            applicationProperties.getSpringDataSourceUserName(),
+            applicationProperties.getSpringDataSourcePassword())) {
+         export(connection, file, progress);
+      }
+   }
+
+   void export(final Connection connection, final File file, final Progress progress)
+         throws SQLException, IOException, InterruptedException {
+      final long start = System.nanoTime();
+      try (Statement statement = connection.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE,
+            ResultSet.CONCUR_READ_ONLY); ResultSet script = createScript(statement)) {
+         script.last();
+         final int totalStatements = script.getRow();
+         script.beforeFirst();
+         LOG.info("Created script with {} statements in {} ms.", totalStatements,
+               (System.nanoTime() - start) / 1_000_000);
+
+         boolean exported = false;
+         try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+               new GZIPOutputStream(new FileOutputStream(file), BUFFER_SIZE), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            writeScript(script, totalStatements, writer, progress);
+            exported = true;
+         } finally {
+            if (!exported) {
+               Files.deleteIfExists(file.toPath());
+            }
+         }
+      }
+      LOG.info("Exported database to '{}' in {} ms.", file, (System.nanoTime() - start) / 1_000_000);
+   }
+
+   private ResultSet createScript(final Statement statement) throws SQLException, InterruptedException {
+      try {
+         return persistenceExecutor.query("create export script", () -> {
+            try {
+               return statement.executeQuery("SCRIPT DROP");
+            } catch (final SQLException e) {
+               throw new IllegalStateException("Could not create script of database.", e);
+            }
+         }).get();
+      } catch (final ExecutionException e) {
+         if (e.getCause() != null && e.getCause().getCause() instanceof SQLException) {
+            throw (SQLException) e.getCause().getCause();
+         }
+         throw new IllegalStateException("Could not create script of database.", e.getCause());
+      }
+   }
+
+   private void writeScript(final ResultSet script, final int totalStatements, final Writer writer,
+         final Progress progress) throws SQLException, IOException {
+      int exportedStatements = 0;
+      progress.update(exportedStatements, totalStatements);
+      while (script.next()) {
+         if (progress.isCancelled()) {
+            throw new CancellationException("Export was cancelled.");
+         }
+         // the statements already end with a semicolon
+         writer.write(script.getString(1));
+         writer.write('\n');
+         progress.update(++exportedStatements, totalStatements);
+      }
+   }
+}
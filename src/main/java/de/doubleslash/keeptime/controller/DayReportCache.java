@@ -0,0 +1,151 @@
+// Copyright 2019 doubleSlash Net Business GmbH
+//
+// This file is part of KeepTime.
+// KeepTime is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+
+package de.doubleslash.keeptime.controller;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import de.doubleslash.keeptime.model.DayReport;
+import de.doubleslash.keeptime.model.repos.WorkRepository;
+
+/**
+ * Keeps the reports of the last viewed days, so browsing through the report does not hit the database for every day.
+ * The least recently used report is dropped when the cache is full.<br>
+ * Reports are loaded on the {@link PersistenceExecutor}, so they always contain the changes queued before. The
+ * {@link Controller} invalidates the days touched by a change.
+ */
+@Component
+public class DayReportCache {
+
+   private static final Logger LOG = LoggerFactory.getLogger(DayReportCache.class);
+
+   static final int CAPACITY = 31;
+
+   private final WorkRepository workRepository;
+
+   private final PersistenceExecutor persistenceExecutor;
+
+   private final Map<LocalDate, DayReport> reports = new LinkedHashMap<LocalDate, DayReport>(CAPACITY * 2, 0.75f,
+         true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<LocalDate, DayReport> eldest) {
+         return size() > CAPACITY;
+      }
+   };
+
+   private final Set<LocalDate> prefetchingDays = new HashSet<>();
+
+   /** increased on every invalidation, so reports loaded before are not cached **/
+   private long generation;
+
+   @Autowired
+   public DayReportCache(final WorkRepository workRepository, final PersistenceExecutor persistenceExecutor) {
+      this.workRepository = workRepository;
+      this.persistenceExecutor = persistenceExecutor;
+   }
+
+   /**
+    * Returns the report of the given day. If it is not cached yet, it is loaded in the background, so the caller never
+    * waits for the {@link PersistenceExecutor}.
+    *
+    * @return future of the report, already completed if the report was cached
+    */
+   public CompletableFuture<DayReport> get(final LocalDate day) {
+      final long loadGeneration;
+      synchronized (this) {
+         final DayReport cachedReport = reports.get(day);
+         if (cachedReport != null) {
+            return CompletableFuture.completedFuture(cachedReport);
+         }
+         loadGeneration = generation;
+      }
+
+      return load(day).thenApply(report -> {
+         put(day, report, loadGeneration);
+         return report;
+      });
+   }
+
+   /**
+    * Loads the report of the given day in the background, if it is not cached or loading yet.
+    */
+   public void prefetch(final LocalDate day) {
+      final long loadGeneration;
+      synchronized (this) {
+         // containsKey does not count as access, so prefetching does not keep old days alive
+         if (reports.containsKey(day) || !prefetchingDays.add(day)) {
+            return;
+         }
+         loadGeneration = generation;
+      }
+
+      load(day).whenComplete((report, error) -> {
+         synchronized (this) {
+            prefetchingDays.remove(day);
+         }
+         if (report != null) {
+            put(day, report, loadGeneration);
+         }
+      });
+   }
+
+   /**
+    * Drops the reports of the given days.
+    */
+   public synchronized void invalidate(final Collection<LocalDate> days) {
+      generation++;
+      reports.keySet().removeAll(days);
+   }
+
+   /**
+    * Drops all reports, e.g. because a shown project has changed.
+    */
+   public synchronized void invalidateAll() {
+      generation++;
+      reports.clear();
+   }
+
+   synchronized boolean contains(final LocalDate day) {
+      return reports.containsKey(day);
+   }
+
+   private synchronized void put(final LocalDate day, final DayReport report, final long loadGeneration) {
+      if (loadGeneration != generation) {
+         LOG.debug("Not caching report of '{}' as it was invalidated while loading.", day);
+         return;
+      }
+      reports.put(day, report);
+   }
+
+   private CompletableFuture<DayReport> load(final LocalDate day) {
+      return persistenceExecutor.query("load report of " + day,
+            () -> DayReport.of(day, workRepository.findStartedOn(day)));
+   }
+}
@@ -0,0 +1,221 @@
+// Copyright 2019 doubleSlash Net Business GmbH
+//
+// This file is part of KeepTime.
+// KeepTime is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+
+package de.doubleslash.keeptime.controller;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javafx.application.Platform;
+
+/**
+ * Runs all write operations against the database on one single background thread, so the JavaFX thread never waits
+ * for H2. Operations are executed in the order they were submitted. A save which is submitted while a save with the
+ * same key is still waiting in the queue replaces the operation of the waiting one, so only the latest state is
+ * persisted. Failed operations are reported to the failure listener on the FX thread.
+ */
+@Component
+public class PersistenceExecutor {
+
+   private static final Logger LOG = LoggerFactory.getLogger(PersistenceExecutor.class);
+
+   private static final long DRAIN_TIMEOUT_SECONDS = 30;
+
+   private final Executor executor;
+
+   private final Consumer<Runnable> fxExecutor;
+
+   private final Map<Object, QueuedSave> queuedSaves = new ConcurrentHashMap<>();
+
+   private volatile Consumer<String> failureListener = description -> {};
+
+   public PersistenceExecutor() {
+      this(Executors.newSingleThreadExecutor(runnable -> {
+         final Thread thread = new Thread(runnable, "persistence");
+         thread.setDaemon(true);
+         return thread;
+      }), Platform::runLater);
+   }
+
+   /**
+    * @param executor
+    *           executor which has to run the operations one after another in submission order
+    */
+   PersistenceExecutor(final Executor executor) {
+      this(executor, Runnable::run);
+   }
+
+   PersistenceExecutor(final Executor executor, final Consumer<Runnable> fxExecutor) {
+      this.executor = executor;
+      this.fxExecutor = fxExecutor;
+   }
+
+   /**
+    * @param failureListener
+    *           called on the FX thread with the description of each operation which failed
+    */
+   public void setFailureListener(final Consumer<String> failureListener) {
+      this.failureListener = failureListener;
+   }
+
+   /**
+    * Hands the given action to the FX thread, e.g. to apply the result of an operation to the model.
+    */
+   public void applyOnFxThread(final Runnable action) {
+      fxExecutor.accept(action);
+   }
+
+   /**
+    * Queues the given operation.
+    *
+    * @param description
+    *           what the operation does, used for logging
+    * @param operation
+    *           the operation to execute
+    * @return future which completes after the operation was executed
+    */
+   public CompletableFuture<Void> submit(final String description, final Runnable operation) {
+      final CompletableFuture<Void> future = new CompletableFuture<>();
+      executor.execute(() -> run(description, operation, future));
+      return future;
+   }
+
+   /**
+    * Queues the given read operation. As it runs after all operations submitted before, it sees their changes.
+    *
+    * @param description
+    *           what the query does, used for logging
+    * @param query
+    *           the query to execute
+    * @return future which completes with the result of the query
+    */
+   public <T> CompletableFuture<T> query(final String description, final Supplier<T> query) {
+      final CompletableFuture<T> future = new CompletableFuture<>();
+      executor.execute(() -> {
+         try {
+            future.complete(query.get());
+         } catch (final RuntimeException e) {
+            LOG.error("Could not execute '{}'.", description, e);
+            future.completeExceptionally(e);
+            notifyFailure(description);
+         }
+      });
+      return future;
+   }
+
+   /**
+    * Queues the given save operation. If a save with the same key is still waiting, its operation is replaced by the
+    * given one instead.
+    *
+    * @param key
+    *           identifies the saved object, e.g. the entity itself
+    * @param description
+    *           what the operation does, used for logging
+    * @param operation
+    *           the operation to execute. It has to persist a copy of the state taken when it was submitted
+    * @return future which completes after the (possibly already waiting) save was executed
+    */
+   public CompletableFuture<Void> submitSave(final Object key, final String description, final Runnable operation) {
+      final QueuedSave newSave = new QueuedSave(description, operation);
+      final QueuedSave queuedSave = queuedSaves.merge(key, newSave, (waiting, latest) -> {
+         LOG.debug("Replacing queued '{}' with '{}'.", waiting.description, latest.description);
+         waiting.replace(latest);
+         return waiting;
+      });
+      if (queuedSave != newSave) {
+         return queuedSave.future;
+      }
+
+      executor.execute(() -> {
+         // remove before running, so changes done while saving are queued again
+         queuedSaves.remove(key, newSave);
+         run(newSave.description, newSave.operation, newSave.future);
+      });
+      return newSave.future;
+   }
+
+   /**
+    * Blocks until all operations submitted so far are executed.
+    */
+   public void drain() {
+      LOG.info("Waiting for queued database operations.");
+      try {
+         submit("drain", () -> {}).get(DRAIN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+      } catch (final InterruptedException e) {
+         Thread.currentThread().interrupt();
+         LOG.error("Interrupted while waiting for queued database operations.", e);
+      } catch (final ExecutionException | TimeoutException e) {
+         LOG.error("Queued database operations did not finish.", e);
+      }
+   }
+
+   @PreDestroy
+   public void shutdown() {
+      drain();
+      if (executor instanceof ExecutorService) {
+         ((ExecutorService) executor).shutdown();
+      }
+   }
+
+   private void run(final String description, final Runnable operation, final CompletableFuture<Void> future) {
+      try {
+         operation.run();
+         future.complete(null);
+      } catch (final RuntimeException e) {
+         LOG.error("Could not execute '{}'.", description, e);
+         future.completeExceptionally(e);
+         notifyFailure(description);
+      }
+   }
+
+   private void notifyFailure(final String description) {
+      fxExecutor.accept(() -> failureListener.accept(description));
+   }
+
+   private static class QueuedSave {
+      private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+      // replaced while waiting, read by the persistence thread after the save was removed from the queue
+      private volatile String description;
+      private volatile Runnable operation;
+
+      QueuedSave(final String description, final Runnable operation) {
+         this.description = description;
+         this.operation = operation;
+      }
+
+      void replace(final QueuedSave latest) {
+         this.description = latest.description;
+         this.operation = latest.operation;
+      }
+   }
+}
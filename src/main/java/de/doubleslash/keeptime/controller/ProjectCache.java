@@ -0,0 +1,73 @@
+// Copyright 2019 doubleSlash Net Business GmbH
+//
+// This file is part of KeepTime.
+// KeepTime is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+
+package de.doubleslash.keeptime.controller;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import de.doubleslash.keeptime.model.Project;
+
+/**
+ * Access to the second level cache of the projects. Every loaded work item resolves its project, so the projects are
+ * kept in the cache instead of being selected again for each query.
+ */
+@Component
+public class ProjectCache {
+
+   private static final Logger LOG = LoggerFactory.getLogger(ProjectCache.class);
+
+   private final EntityManagerFactory entityManagerFactory;
+
+   @Autowired
+   public ProjectCache(final EntityManagerFactory entityManagerFactory) {
+      this.entityManagerFactory = entityManagerFactory;
+   }
+
+   /**
+    * Drops all cached projects, so they are read again from the database.
+    */
+   public void evict() {
+      entityManagerFactory.getCache().evict(Project.class);
+   }
+
+   /**
+    * Logs hits and misses of the project cache. Statistics are only collected if KeepTime is started with
+    * {@code -Dkeeptime.debug.statistics=true}.
+    */
+   public void logStatistics() {
+      final Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+      if (!statistics.isStatisticsEnabled()) {
+         return;
+      }
+      final CacheRegionStatistics projectStatistics = statistics
+            .getDomainDataRegionStatistics(Project.class.getName());
+      if (projectStatistics == null) {
+         return;
+      }
+      LOG.info("Project cache: '{}' hits, '{}' misses, '{}' puts.", projectStatistics.getHitCount(),
+            projectStatistics.getMissCount(), projectStatistics.getPutCount());
+   }
+
+}
@@ -0,0 +1,214 @@
+// Copyright 2019 doubleSlash Net Business GmbH
+//
+// This file is part of KeepTime.
+// KeepTime is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+
+package de.doubleslash.keeptime.controller;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import de.doubleslash.keeptime.model.Work;
+import de.doubleslash.keeptime.model.WorkDailySummary;
+import de.doubleslash.keeptime.model.WorkSnapshot;
+import de.doubleslash.keeptime.model.WorkTime;
+import de.doubleslash.keeptime.model.repos.ProjectRepository;
+import de.doubleslash.keeptime.model.repos.WorkDailySummaryRepository;
+import de.doubleslash.keeptime.model.repos.WorkRepository;
+
+/**
+ * Persists work items and keeps the daily summary (seconds per day and project) in sync with them. Only the days
+ * touched by a change are aggregated again.<br>
+ * The summary is read for totals of several days. Todays totals and the totals of the day report are still summed up
+ * from the work items in memory: they contain the active work item, which is not saved yet, and the day report groups
+ * the whole work items by their start day, while the summary splits them at midnight.
+ */
+@Service
+public class WorkDailySummaryService {
+
+   private static final Logger LOG = LoggerFactory.getLogger(WorkDailySummaryService.class);
+
+   private static final int REBUILD_PAGE_SIZE = 1000;
+
+   private final WorkRepository workRepository;
+
+   private final WorkDailySummaryRepository summaryRepository;
+
+   private final ProjectRepository projectRepository;
+
+   @Autowired
+   public WorkDailySummaryService(final WorkRepository workRepository,
+         final WorkDailySummaryRepository summaryRepository, final ProjectRepository projectRepository) {
+      this.workRepository = workRepository;
+      this.summaryRepository = summaryRepository;
+      this.projectRepository = projectRepository;
+   }
+
+   /**
+    * Saves the work and updates the summary of all days the work covers.
+    * 
+    * @param work
+    *           the state of the work to save. A new work item is inserted if its id is 0.
+    * @param previousDays
+    *           days the work covered before it was changed (e.g. when the start time was edited)
+    * @return the id of the saved work
+    */
+   @Transactional
+   public long saveWork(final WorkSnapshot work, final Collection<LocalDate> previousDays) {
+      final Work entity = new Work(work.getStartTime(), work.getEndTime(),
+            projectRepository.getOne(work.getProjectId()), work.getNotes());
+      entity.setId(work.getId());
+      final Work savedWork = workRepository.save(entity);
+
+      final Set<LocalDate> touchedDays = new HashSet<>(previousDays);
+      touchedDays.addAll(daysOf(work.getStartTime(), work.getEndTime()));
+      touchedDays.forEach(this::refreshDay);
+      return savedWork.getId();
+   }
+
+   @Transactional
+   public void deleteWork(final WorkSnapshot work) {
+      workRepository.deleteById(work.getId());
+      daysOf(work.getStartTime(), work.getEndTime()).forEach(this::refreshDay);
+   }
+
+   /**
+    * Updates the work seconds of all days, as they depend on whether a project counts as work.
+    */
+   @Transactional
+   public void updateWorkFlag(final long projectId, final boolean isWork) {
+      if (isWork) {
+         summaryRepository.countAsWork(projectId);
+      } else {
+         summaryRepository.countAsNonWork(projectId);
+      }
+   }
+
+   public List<WorkDailySummary> findDailySummaries(final LocalDate firstDay, final LocalDate lastDay) {
+      return summaryRepository.findByWorkDateBetweenOrderByWorkDateAsc(firstDay, lastDay);
+   }
+
+   /**
+    * @return true if the summary is empty although there are work items, e.g. after updating from an older version
+    */
+   public boolean needsRebuild() {
+      return summaryRepository.count() == 0 && workRepository.count() > 0;
+   }
+
+   /**
+    * Throws away the whole summary and aggregates it again from all work items. Only the times of the work items are
+    * read, page by page, so they do not have to fit into memory at once.
+    */
+   public void rebuild() {
+      LOG.info("Rebuilding daily work summary.");
+      summaryRepository.deleteAllInBatch();
+
+      final Map<WorkDailySummary.Key, WorkDailySummary> summaries = new HashMap<>();
+      final Pageable pageable = PageRequest.of(0, REBUILD_PAGE_SIZE);
+      List<WorkTime> page = workRepository.findTimesAfterId(0, pageable);
+      while (!page.isEmpty()) {
+         for (final WorkTime workTime : page) {
+            addSecondsPerDay(workTime, LocalDate.MIN, LocalDate.MAX, summaries);
+         }
+         if (page.size() < REBUILD_PAGE_SIZE) {
+            break;
+         }
+         page = workRepository.findTimesAfterId(page.get(page.size() - 1).getId(), pageable);
+      }
+
+      summaryRepository.insertAll(summaries.values());
+      LOG.info("Rebuilt daily work summary with '{}' entries.", summaries.size());
+   }
+
+   private void refreshDay(final LocalDate day) {
+      final List<WorkTime> workOfDay = workRepository.findTimesOverlappingRange(day.atStartOfDay(),
+            day.plusDays(1).atStartOfDay());
+
+      final Map<WorkDailySummary.Key, WorkDailySummary> summaries = new HashMap<>();
+      for (final WorkTime workTime : workOfDay) {
+         addSecondsPerDay(workTime, day, day, summaries);
+      }
+
+      summaryRepository.deleteByWorkDate(day);
+      summaryRepository.insertAll(summaries.values());
+   }
+
+   /**
+    * Splits the work into the days it covers and adds the seconds of each day between firstDay and lastDay to the
+    * summaries.
+    */
+   static void addSecondsPerDay(final WorkTime workTime, final LocalDate firstDay, final LocalDate lastDay,
+         final Map<WorkDailySummary.Key, WorkDailySummary> summaries) {
+      final LocalDateTime start = workTime.getStartTime();
+      final LocalDateTime end = workTime.getEndTime();
+      final long projectId = workTime.getProjectId();
+      final boolean isWork = workTime.isWork();
+
+      LocalDate day = start.toLocalDate().isBefore(firstDay) ? firstDay : start.toLocalDate();
+      final LocalDate endDay = end.toLocalDate().isAfter(lastDay) ? lastDay : end.toLocalDate();
+      for (; !day.isAfter(endDay); day = day.plusDays(1)) {
+         final LocalDateTime dayStart = day.atStartOfDay();
+         final LocalDateTime dayEnd = day.plusDays(1).atStartOfDay();
+         final LocalDateTime sliceStart = start.isAfter(dayStart) ? start : dayStart;
+         final LocalDateTime sliceEnd = end.isBefore(dayEnd) ? end : dayEnd;
+         final long seconds = Duration.between(sliceStart, sliceEnd).getSeconds();
+         if (seconds <= 0) {
+            continue;
+         }
+
+         final WorkDailySummary.Key key = new WorkDailySummary.Key(day, projectId);
+         summaries.computeIfAbsent(key, k -> new WorkDailySummary(k.getWorkDate(), k.getProjectId()))
+               .addSeconds(seconds, isWork);
+      }
+   }
+
+   /**
+    * @return all days the work covers
+    */
+   public static Set<LocalDate> daysOf(final Work work) {
+      return daysOf(work.getStartTime(), work.getEndTime());
+   }
+
+   private static Set<LocalDate> daysOf(final LocalDateTime startTime, final LocalDateTime endTime) {
+      final LocalDate startDay = startTime.toLocalDate();
+      final LocalDate endDay = endTime == null ? startDay : endTime.toLocalDate();
+      if (!endDay.isAfter(startDay)) {
+         return Collections.singleton(startDay);
+      }
+
+      final Set<LocalDate> days = new HashSet<>();
+      for (LocalDate day = startDay; !day.isAfter(endDay); day = day.plusDays(1)) {
+         days.add(day);
+      }
+      return days;
+   }
+
+}
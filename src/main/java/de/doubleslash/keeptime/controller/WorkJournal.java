@@ -0,0 +1,379 @@
+// Copyright 2019 doubleSlash Net Business GmbH
+//
+// This file is part of KeepTime.
+// KeepTime is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+
+package de.doubleslash.keeptime.controller;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import de.doubleslash.keeptime.model.WorkSnapshot;
+
+/**
+ * Small memory mapped file which holds the state of the active work item, so it can be recovered after a crash. It
+ * also keeps work items which were switched away from until their final save is done.<br>
+ * Each work item has a region of two slots which are written alternately, each protected by a checksum. A torn write
+ * therefore only destroys the newer slot and the older one is still readable. Writing reuses the same buffers, so it
+ * does not allocate and is cheap enough to be done every second.<br>
+ * Every write is forced to disk, so it is only called on the {@link PersistenceExecutor} and never blocks the FX
+ * thread.
+ */
+@Component
+public class WorkJournal {
+
+   private static final Logger LOG = LoggerFactory.getLogger(WorkJournal.class);
+
+   private static final int MAGIC = 0x4B544A31; // KTJ1
+
+   static final int SLOT_SIZE = 16 * 1024;
+
+   /** number of switched away work items which can be kept until their save is done **/
+   static final int PENDING_SAVE_REGIONS = 4;
+
+   private static final int REGION_SIZE = 2 * SLOT_SIZE;
+   private static final int ACTIVE_REGION = 0;
+   private static final int REGIONS = 1 + PENDING_SAVE_REGIONS;
+
+   private static final int MAGIC_OFFSET = 0;
+   private static final int SEQUENCE_OFFSET = 4;
+   private static final int ACTIVE_OFFSET = 12;
+   private static final int WORK_ID_OFFSET = 13;
+   private static final int START_SECOND_OFFSET = 21;
+   private static final int START_NANO_OFFSET = 29;
+   private static final int END_SECOND_OFFSET = 33;
+   private static final int END_NANO_OFFSET = 41;
+   private static final int PROJECT_ID_OFFSET = 49;
+   private static final int NOTES_LENGTH_OFFSET = 57;
+   private static final int NOTES_OFFSET = 61;
+   private static final int CRC_OFFSET = SLOT_SIZE - 8;
+   private static final int MAX_NOTES_BYTES = CRC_OFFSET - NOTES_OFFSET;
+
+   private final Path file;
+
+   private final CharsetEncoder notesEncoder = StandardCharsets.UTF_8.newEncoder();
+
+   private final CRC32 crc = new CRC32();
+
+   private final CharBuffer notesChars = CharBuffer.allocate(MAX_NOTES_BYTES);
+
+   private MappedByteBuffer buffer;
+
+   /** views of the buffer for encoding the notes and calculating the checksum, created once **/
+   private ByteBuffer notesView;
+   private ByteBuffer checksumView;
+
+   private boolean unavailable = false;
+
+   private final long[] sequences = new long[REGIONS];
+
+   /** key of the work item kept in each pending save region, null if the region is free **/
+   private final Object[] pendingSaves = new Object[REGIONS];
+
+   /** order in which the pending save regions were used, to reuse the oldest one if all are taken **/
+   private final long[] pendingSaveOrder = new long[REGIONS];
+   private long pendingSaveCount = 0;
+
+   public WorkJournal() {
+      this(Paths.get("db", "keeptime-work-journal.bin"));
+   }
+
+   WorkJournal(final Path file) {
+      this.file = file;
+   }
+
+   /**
+    * Records the given work as the active one and forces it to disk.
+    *
+    * @param work
+    *           the active work item
+    * @param endTime
+    *           the time the work item lasts until now
+    */
+   public synchronized void record(final WorkSnapshot work, final LocalDateTime endTime) {
+      if (work == null || !open()) {
+         return;
+      }
+
+      write(ACTIVE_REGION, true, work.getId(), work.getStartTime(), endTime, work.getProjectId(), work.getNotes());
+   }
+
+   /**
+    * Keeps the given work item in the journal until {@link #markSaved(Object)} is called for it, as the active work
+    * item is recorded instead of it from now on while its final save may still be queued.
+    *
+    * @param key
+    *           identifies the work item when it is marked as saved, e.g. the entity. It is only compared
+    * @param work
+    *           the work item which is not active any more
+    */
+   public synchronized void recordPendingSave(final Object key, final WorkSnapshot work) {
+      if (!open()) {
+         return;
+      }
+
+      int region = ACTIVE_REGION + 1;
+      for (int i = ACTIVE_REGION + 1; i < REGIONS; i++) {
+         if (pendingSaves[i] == null) {
+            region = i;
+            break;
+         }
+         if (pendingSaveOrder[i] < pendingSaveOrder[region]) {
+            region = i;
+         }
+      }
+      if (pendingSaves[region] != null) {
+         LOG.warn("Too many pending saves. The oldest one is not kept in the work journal any more.");
+      }
+
+      pendingSaves[region] = key;
+      pendingSaveOrder[region] = ++pendingSaveCount;
+      write(region, true, work.getId(), work.getStartTime(), work.getEndTime(), work.getProjectId(), work.getNotes());
+   }
+
+   /**
+    * Removes the work item recorded by {@link #recordPendingSave(Object, WorkSnapshot)} after it was saved.
+    */
+   public synchronized void markSaved(final Object key) {
+      for (int region = ACTIVE_REGION + 1; region < REGIONS; region++) {
+         if (pendingSaves[region] == key) {
+            pendingSaves[region] = null;
+            writeInactive(region);
+         }
+      }
+   }
+
+   /**
+    * Marks the journal as cleanly closed, so nothing is recovered on next start.
+    */
+   public synchronized void markClean() {
+      if (!open()) {
+         return;
+      }
+
+      for (int region = 0; region < REGIONS; region++) {
+         pendingSaves[region] = null;
+         writeInactive(region);
+      }
+   }
+
+   /**
+    * @return the work items recorded last, if the application was not shut down cleanly. These are the active work
+    *         item and the ones whose save was still pending.
+    */
+   public synchronized List<Entry> readUncleanEntries() {
+      final List<Entry> entries = new ArrayList<>();
+      if (!open()) {
+         return entries;
+      }
+
+      // pending saves are older than the active work item
+      for (int region = REGIONS - 1; region >= 0; region--) {
+         final int regionOffset = region * REGION_SIZE;
+         final long firstSequence = validSequence(regionOffset);
+         final long secondSequence = validSequence(regionOffset + SLOT_SIZE);
+         if (firstSequence < 0 && secondSequence < 0) {
+            continue;
+         }
+
+         final int slot = firstSequence > secondSequence ? regionOffset : regionOffset + SLOT_SIZE;
+         if (buffer.get(slot + ACTIVE_OFFSET) == 0) {
+            continue;
+         }
+
+         final byte[] notes = new byte[buffer.getInt(slot + NOTES_LENGTH_OFFSET)];
+         notesView.clear();
+         notesView.position(slot + NOTES_OFFSET);
+         notesView.get(notes);
+
+         entries.add(new Entry(buffer.getLong(slot + WORK_ID_OFFSET),
+               readTime(slot + START_SECOND_OFFSET, slot + START_NANO_OFFSET),
+               readTime(slot + END_SECOND_OFFSET, slot + END_NANO_OFFSET), buffer.getLong(slot + PROJECT_ID_OFFSET),
+               new String(notes, StandardCharsets.UTF_8)));
+      }
+      return entries;
+   }
+
+   private boolean open() {
+      if (buffer != null) {
+         return true;
+      }
+      if (unavailable) {
+         return false;
+      }
+
+      try {
+         if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+         }
+         try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+               StandardOpenOption.WRITE)) {
+            // the mapping stays valid after the channel is closed
+            buffer = channel.map(MapMode.READ_WRITE, 0, (long) REGIONS * REGION_SIZE);
+         }
+      } catch (final IOException e) {
+         LOG.error("Could not open work journal '{}'. Active work will only be saved by the quick save.", file, e);
+         unavailable = true;
+         return false;
+      }
+
+      notesView = buffer.duplicate();
+      checksumView = buffer.duplicate();
+      for (int region = 0; region < REGIONS; region++) {
+         final int regionOffset = region * REGION_SIZE;
+         sequences[region] = Math.max(0,
+               Math.max(validSequence(regionOffset), validSequence(regionOffset + SLOT_SIZE)));
+      }
+      return true;
+   }
+
+   private void writeInactive(final int region) {
+      final LocalDateTime now = LocalDateTime.now();
+      write(region, false, 0, now, now, 0, "");
+   }
+
+   private void write(final int region, final boolean active, final long workId, final LocalDateTime startTime,
+         final LocalDateTime endTime, final long projectId, final String notes) {
+      final long sequence = ++sequences[region];
+      final int slot = region * REGION_SIZE + (int) (sequence & 1) * SLOT_SIZE;
+
+      buffer.putInt(slot + MAGIC_OFFSET, MAGIC);
+      buffer.putLong(slot + SEQUENCE_OFFSET, sequence);
+      buffer.put(slot + ACTIVE_OFFSET, (byte) (active ? 1 : 0));
+      buffer.putLong(slot + WORK_ID_OFFSET, workId);
+      writeTime(slot + START_SECOND_OFFSET, slot + START_NANO_OFFSET, startTime);
+      writeTime(slot + END_SECOND_OFFSET, slot + END_NANO_OFFSET, endTime);
+      buffer.putLong(slot + PROJECT_ID_OFFSET, projectId);
+
+      // more characters than bytes never fit. The encoder stops at the last complete character anyway.
+      notesChars.clear();
+      if (notes != null) {
+         notesChars.put(notes, 0, Math.min(notes.length(), notesChars.capacity()));
+      }
+      notesChars.flip();
+      notesView.clear();
+      notesView.position(slot + NOTES_OFFSET);
+      notesView.limit(slot + NOTES_OFFSET + MAX_NOTES_BYTES);
+      notesEncoder.reset();
+      notesEncoder.encode(notesChars, notesView, true);
+      final int notesLength = notesView.position() - slot - NOTES_OFFSET;
+      buffer.putInt(slot + NOTES_LENGTH_OFFSET, notesLength);
+
+      buffer.putLong(slot + CRC_OFFSET, checksum(slot, notesLength));
+      buffer.force();
+   }
+
+   /**
+    * @return the sequence of the slot or -1 if the slot is empty or corrupt
+    */
+   private long validSequence(final int slot) {
+      if (buffer.getInt(slot + MAGIC_OFFSET) != MAGIC) {
+         return -1;
+      }
+      final int notesLength = buffer.getInt(slot + NOTES_LENGTH_OFFSET);
+      if (notesLength < 0 || notesLength > MAX_NOTES_BYTES
+            || buffer.getLong(slot + CRC_OFFSET) != checksum(slot, notesLength)) {
+         return -1;
+      }
+      return buffer.getLong(slot + SEQUENCE_OFFSET);
+   }
+
+   private long checksum(final int slot, final int notesLength) {
+      checksumView.clear();
+      checksumView.position(slot);
+      checksumView.limit(slot + NOTES_OFFSET + notesLength);
+      crc.reset();
+      crc.update(checksumView);
+      return crc.getValue();
+   }
+
+   // local date times are stored as if they were UTC, as only the local values are of interest
+   private void writeTime(final int secondOffset, final int nanoOffset, final LocalDateTime time) {
+      buffer.putLong(secondOffset, time.toEpochSecond(ZoneOffset.UTC));
+      buffer.putInt(nanoOffset, time.getNano());
+   }
+
+   private LocalDateTime readTime(final int secondOffset, final int nanoOffset) {
+      return LocalDateTime.ofEpochSecond(buffer.getLong(secondOffset), buffer.getInt(nanoOffset), ZoneOffset.UTC);
+   }
+
+   /**
+    * Work item as it was recorded in the journal.
+    */
+   public static class Entry {
+      private final long workId;
+      private final LocalDateTime startTime;
+      private final LocalDateTime endTime;
+      private final long projectId;
+      private final String notes;
+
+      Entry(final long workId, final LocalDateTime startTime, final LocalDateTime endTime, final long projectId,
+            final String notes) {
+         this.workId = workId;
+         this.startTime = startTime;
+         this.endTime = endTime;
+         this.projectId = projectId;
+         this.notes = notes;
+      }
+
+      /**
+       * @return id of the work item or 0 if it was not saved to the database yet
+       */
+      public long getWorkId() {
+         return workId;
+      }
+
+      public LocalDateTime getStartTime() {
+         return startTime;
+      }
+
+      public LocalDateTime getEndTime() {
+         return endTime;
+      }
+
+      public long getProjectId() {
+         return projectId;
+      }
+
+      public String getNotes() {
+         return notes;
+      }
+
+      @Override
+      public String toString() {
+         return "Entry [workId=" + workId + ", startTime=" + startTime + ", endTime=" + endTime + ", projectId="
+               + projectId + ", notes=" + notes + "]";
+      }
+   }
+}
@@ -0,0 +1,144 @@
+// Copyright 2019 doubleSlash Net Business GmbH
+//
+// This file is part of KeepTime.
+// KeepTime is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+
+package de.doubleslash.keeptime.model;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Work of one day grouped by project, as shown in the report.
+ */
+public class DayReport {
+
+   private final LocalDate date;
+   private final List<Work> workItems;
+   private final List<ProjectEntry> projectEntries;
+   private final long totalSeconds;
+   private final long workSeconds;
+
+   private DayReport(final LocalDate date, final List<Work> workItems, final List<ProjectEntry> projectEntries,
+         final long totalSeconds, final long workSeconds) {
+      this.date = date;
+      this.workItems = workItems;
+      this.projectEntries = projectEntries;
+      this.totalSeconds = totalSeconds;
+      this.workSeconds = workSeconds;
+   }
+
+   /**
+    * Groups the given work items by the id of their project in one pass.
+    * 
+    * @param date
+    *           the day of the report
+    * @param workItems
+    *           all work items started on that day, sorted by start time
+    */
+   public static DayReport of(final LocalDate date, final List<Work> workItems) {
+      final Map<Long, ProjectEntry> projectEntriesById = new HashMap<>();
+      long totalSeconds = 0;
+      long workSeconds = 0;
+      for (final Work work : workItems) {
+         final Project project = work.getProject();
+         ProjectEntry projectEntry = projectEntriesById.get(project.getId());
+         if (projectEntry == null) {
+            projectEntry = new ProjectEntry(project);
+            projectEntriesById.put(project.getId(), projectEntry);
+         }
+
+         final long seconds = Duration.between(work.getStartTime(), work.getEndTime()).getSeconds();
+         projectEntry.add(work, seconds);
+         totalSeconds += seconds;
+         if (project.isWork()) {
+            workSeconds += seconds;
+         }
+      }
+
+      final List<ProjectEntry> projectEntries = new ArrayList<>(projectEntriesById.values());
+      projectEntries.sort(Comparator.comparingInt(projectEntry -> projectEntry.getProject().getIndex()));
+
+      return new DayReport(date, Collections.unmodifiableList(new ArrayList<>(workItems)),
+            Collections.unmodifiableList(projectEntries), totalSeconds, workSeconds);
+   }
+
+   public LocalDate getDate() {
+      return date;
+   }
+
+   /**
+    * @return all work items of the day, sorted by start time
+    */
+   public List<Work> getWorkItems() {
+      return workItems;
+   }
+
+   /**
+    * @return one entry per worked project, sorted by project index
+    */
+   public List<ProjectEntry> getProjectEntries() {
+      return projectEntries;
+   }
+
+   public long getTotalSeconds() {
+      return totalSeconds;
+   }
+
+   public long getWorkSeconds() {
+      return workSeconds;
+   }
+
+   /**
+    * Work items and summed up seconds of one project.
+    */
+   public static class ProjectEntry {
+
+      private final Project project;
+      private final List<Work> workItems = new ArrayList<>();
+      private long seconds;
+
+      private ProjectEntry(final Project project) {
+         this.project = project;
+      }
+
+      private void add(final Work work, final long workSeconds) {
+         workItems.add(work);
+         seconds += workSeconds;
+      }
+
+      public Project getProject() {
+         return project;
+      }
+
+      /**
+       * @return work items of the project, sorted by start time
+       */
+      public List<Work> getWorkItems() {
+         return Collections.unmodifiableList(workItems);
+      }
+
+      public long getSeconds() {
+         return seconds;
+      }
+   }
+
+}
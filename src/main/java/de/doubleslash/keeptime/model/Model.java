@@ -25,6 +25,7 @@ import org.springframework.stereotype.Component;
 import de.doubleslash.keeptime.model.repos.ProjectRepository;
 import de.doubleslash.keeptime.model.repos.SettingsRepository;
 import de.doubleslash.keeptime.model.repos.WorkRepository;
+import javafx.beans.InvalidationListener;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.collections.FXCollections;
@@ -45,6 +46,7 @@ public class Model {
       this.projectRepository = projectRepository;
       this.workRepository = workRepository;
       this.settingsRepository = settingsRepository;
+      sortedAvailableProjects.addListener((InvalidationListener) observable -> projectSearchIndex.invalidate());
    }
 
    public static final Color ORIGINAL_HOVER_BACKGROUND_COLOR = new Color(54 / 255., 143 / 255., 179 / 255., .7);
@@ -55,6 +57,9 @@ public class Model {
 
    public static final Color ORIGINAL_TASK_BAR_FONT_COLOR = Color.BLACK;
 
+   /** left Ctrl + left Win **/
+   public static final String ORIGINAL_POPUP_HOTKEY = "162+91";
+
    public static final Project DEFAULT_PROJECT = new Project("Idle", "", Color.ORANGE, false, 0, true);
    private Project idleProject = DEFAULT_PROJECT;
 
@@ -82,8 +87,14 @@ public class Model {
 
    public final ObjectProperty<Boolean> remindIfNotesAreEmpty = new SimpleObjectProperty<>(false);
 
+   public final ObjectProperty<String> popupHotkey = new SimpleObjectProperty<>(ORIGINAL_POPUP_HOTKEY);
+
    public final ScreenSettings screenSettings = new ScreenSettings();
 
+   private final TodaysTimeAccumulator todaysTimeAccumulator = new TodaysTimeAccumulator(this);
+
+   private final ProjectSearchIndex projectSearchIndex = new ProjectSearchIndex(sortedAvailableProjects);
+
    private ConfigurableApplicationContext springContext;
 
    public void setWorkRepository(final WorkRepository workRepository) {
@@ -104,6 +115,7 @@ public class Model {
 
    public void setAllProjects(final ObservableList<Project> allProjects) {
       this.allProjects = allProjects;
+      todaysTimeAccumulator.watchProjects(allProjects);
    }
 
    public WorkRepository getWorkRepository() {
@@ -150,4 +162,12 @@ public class Model {
       return sortedPastWorkItems;
    }
 
+   public TodaysTimeAccumulator getTodaysTimeAccumulator() {
+      return todaysTimeAccumulator;
+   }
+
+   public ProjectSearchIndex getProjectSearchIndex() {
+      return projectSearchIndex;
+   }
+
 }
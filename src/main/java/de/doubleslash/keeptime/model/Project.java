@@ -16,6 +16,7 @@
 
 package de.doubleslash.keeptime.model;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Convert;
 import javax.persistence.Entity;
@@ -23,17 +24,24 @@ import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.Lob;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import de.doubleslash.keeptime.model.persistenceconverter.ColorConverter;
 import javafx.scene.paint.Color;
 
 @Entity
 @Table(name = "Project")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Project {
 
    @Id
-   @GeneratedValue(strategy = GenerationType.IDENTITY)
+   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "project_seq")
+   @SequenceGenerator(name = "project_seq", sequenceName = "project_seq", allocationSize = 50)
    @Column(name = "id", updatable = false, nullable = false)
    private long id;
 
@@ -118,6 +126,13 @@ public class Project {
       return id;
    }
 
+   /**
+    * Takes over the id the project got when it was saved on the persistence thread.
+    */
+   public void setId(final long id) {
+      this.id = id;
+   }
+
    public int getIndex() {
       return index;
    }
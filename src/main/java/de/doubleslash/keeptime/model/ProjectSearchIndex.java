@@ -0,0 +1,369 @@
+// Copyright 2019 doubleSlash Net Business GmbH
+//
+// This file is part of KeepTime.
+// KeepTime is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+
+package de.doubleslash.keeptime.model;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import de.doubleslash.keeptime.common.LongLongMap;
+
+/**
+ * Search index over the available projects, shared by the project list, the hotkey popup and the project selection
+ * of the work editor.<br>
+ * Names and descriptions are normalised and split into tokens once after the projects changed. Every token is also
+ * registered in trigram postings, so a query only has to look at projects sharing trigrams with it. Matches are
+ * ranked by how well they fit (prefix of a name token, substring, description, typo) and then by how often the
+ * project was selected.
+ */
+public class ProjectSearchIndex {
+
+   private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+   private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+   private static final int NO_MATCH = Integer.MAX_VALUE;
+   private static final int SCORE_NAME_PREFIX = 0;
+   private static final int SCORE_NAME_SUBSTRING = 2;
+   private static final int SCORE_DESCRIPTION_PREFIX = 3;
+   private static final int SCORE_DESCRIPTION_SUBSTRING = 4;
+   private static final int SCORE_NAME_TYPO = 5;
+   private static final int SCORE_DESCRIPTION_TYPO = 8;
+
+   private static final int MIN_TRIGRAM_TOKEN_LENGTH = 3;
+   // every typo destroys at most three trigrams, so with these lengths a match shares at least one trigram
+   private static final int MIN_TYPO_TOKEN_LENGTH = 6;
+   private static final int TWO_TYPOS_TOKEN_LENGTH = 9;
+
+   // bits of the sort key, see search()
+   private static final int INDEX_BITS = 20;
+   private static final long INDEX_MASK = (1L << INDEX_BITS) - 1;
+   private static final long MAX_USES = INDEX_MASK;
+
+   private final List<Project> projects;
+   private final LongLongMap uses = new LongLongMap();
+
+   private Entry[] entries = new Entry[0];
+   private final Map<String, Postings> trigramPostings = new HashMap<>();
+   private final Map<String, int[]> previousTokenScores = new HashMap<>();
+   private boolean dirty = true;
+
+   /**
+    * @param projects
+    *           projects to search in, in the order they are shown if nothing is searched
+    */
+   ProjectSearchIndex(final List<Project> projects) {
+      this.projects = projects;
+   }
+
+   /**
+    * Marks the index to be built again before the next search, e.g. if a project was added or edited.
+    */
+   public void invalidate() {
+      dirty = true;
+   }
+
+   /**
+    * Counts a selection of the project, so it is ranked higher among equally good matches.
+    */
+   public void recordUse(final Project project) {
+      uses.add(project.getId(), 1);
+   }
+
+   /**
+    * @param searchText
+    *           text typed by the user, may be empty
+    * @return the matching projects, best match first. All projects in their original order if nothing is searched.
+    */
+   public List<Project> search(final String searchText) {
+      buildIfDirty();
+
+      final String[] queryTokens = tokenize(searchText);
+      if (queryTokens.length == 0) {
+         final List<Project> all = new ArrayList<>(entries.length);
+         for (final Entry entry : entries) {
+            all.add(entry.project);
+         }
+         return all;
+      }
+
+      final int[] totalScores = new int[entries.length];
+      final Map<String, int[]> scoresOfQuery = new HashMap<>();
+      for (final String queryToken : queryTokens) {
+         int[] tokenScores = scoresOfQuery.get(queryToken);
+         if (tokenScores == null) {
+            tokenScores = scoresOf(queryToken);
+            scoresOfQuery.put(queryToken, tokenScores);
+         }
+         for (int i = 0; i < entries.length; i++) {
+            if (totalScores[i] != NO_MATCH) {
+               totalScores[i] = tokenScores[i] == NO_MATCH ? NO_MATCH : totalScores[i] + tokenScores[i];
+            }
+         }
+      }
+
+      // score, then most used, then original position, packed into one sortable long
+      final long[] sortKeys = new long[entries.length];
+      int matches = 0;
+      for (int i = 0; i < entries.length; i++) {
+         if (totalScores[i] != NO_MATCH) {
+            final long unusedness = MAX_USES - Math.min(uses.get(entries[i].project.getId()), MAX_USES);
+            sortKeys[matches++] = ((long) totalScores[i] << 2 * INDEX_BITS) | (unusedness << INDEX_BITS) | i;
+         }
+      }
+      Arrays.sort(sortKeys, 0, matches);
+
+      // while typing, the next query mostly repeats or extends the tokens of this one
+      previousTokenScores.clear();
+      previousTokenScores.putAll(scoresOfQuery);
+
+      final List<Project> result = new ArrayList<>(matches);
+      for (int i = 0; i < matches; i++) {
+         result.add(entries[(int) (sortKeys[i] & INDEX_MASK)].project);
+      }
+      return result;
+   }
+
+   private int[] scoresOf(final String queryToken) {
+      final int[] previousScores = previousTokenScores.get(queryToken);
+      if (previousScores != null) {
+         return previousScores;
+      }
+
+      final int[] tokenScores = new int[entries.length];
+      Arrays.fill(tokenScores, NO_MATCH);
+      final String spacedQueryToken = ' ' + queryToken;
+      final int[] trigramHits = new int[entries.length];
+
+      final Set<String> queryTrigrams = trigramsOf(queryToken);
+      if (queryToken.length() < MIN_TRIGRAM_TOKEN_LENGTH) {
+         // only projects containing the shorter token typed before can contain this one
+         final int[] candidates = previousTokenScores.get(queryToken.substring(0, queryToken.length() - 1));
+         for (int i = 0; i < entries.length; i++) {
+            if (candidates == null || candidates[i] != NO_MATCH) {
+               tokenScores[i] = entries[i].textScore(queryToken, spacedQueryToken);
+            }
+         }
+      } else {
+         // a substring has to contain all trigrams of the query
+         for (final String trigram : queryTrigrams) {
+            final Postings postings = trigramPostings.get(trigram);
+            if (postings != null) {
+               for (int p = 0; p < postings.size; p++) {
+                  trigramHits[postings.entries[p]]++;
+               }
+            }
+         }
+         for (int i = 0; i < entries.length; i++) {
+            if (trigramHits[i] == queryTrigrams.size()) {
+               tokenScores[i] = entries[i].textScore(queryToken, spacedQueryToken);
+            }
+         }
+      }
+
+      if (queryToken.length() < MIN_TYPO_TOKEN_LENGTH) {
+         return tokenScores;
+      }
+      final int maxTypos = queryToken.length() >= TWO_TYPOS_TOKEN_LENGTH ? 2 : 1;
+      final int requiredHits = Math.max(1, queryTrigrams.size() - 3 * maxTypos);
+      for (int i = 0; i < entries.length; i++) {
+         if (tokenScores[i] == NO_MATCH && trigramHits[i] >= requiredHits) {
+            tokenScores[i] = entries[i].typoScore(queryToken, maxTypos);
+         }
+      }
+      return tokenScores;
+   }
+
+   private void buildIfDirty() {
+      if (!dirty) {
+         return;
+      }
+      dirty = false;
+
+      entries = new Entry[projects.size()];
+      trigramPostings.clear();
+      previousTokenScores.clear();
+      for (int i = 0; i < entries.length; i++) {
+         final Project project = projects.get(i);
+         final Entry entry = new Entry(project, tokenize(project.getName()), tokenize(project.getDescription()));
+         entries[i] = entry;
+         addPostings(entry.nameTokens, i);
+         addPostings(entry.descriptionTokens, i);
+      }
+   }
+
+   private void addPostings(final String[] tokens, final int entryIndex) {
+      for (final String token : tokens) {
+         for (final String trigram : trigramsOf(token)) {
+            trigramPostings.computeIfAbsent(trigram, t -> new Postings()).add(entryIndex);
+         }
+      }
+   }
+
+   static String[] tokenize(final String text) {
+      if (text == null || text.isEmpty()) {
+         return new String[0];
+      }
+      String normalised = text;
+      if (!isAscii(text)) {
+         normalised = COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+      }
+      normalised = normalised.toLowerCase(Locale.ROOT);
+      final List<String> tokens = new ArrayList<>();
+      for (final String token : TOKEN_SEPARATOR.split(normalised)) {
+         if (!token.isEmpty()) {
+            tokens.add(token);
+         }
+      }
+      return tokens.toArray(new String[tokens.size()]);
+   }
+
+   private static boolean isAscii(final String text) {
+      for (int i = 0; i < text.length(); i++) {
+         if (text.charAt(i) > 127) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   private static Set<String> trigramsOf(final String token) {
+      if (token.length() < MIN_TRIGRAM_TOKEN_LENGTH) {
+         return Collections.emptySet();
+      }
+      final Set<String> trigrams = new LinkedHashSet<>();
+      for (int i = 0; i + MIN_TRIGRAM_TOKEN_LENGTH <= token.length(); i++) {
+         trigrams.add(token.substring(i, i + MIN_TRIGRAM_TOKEN_LENGTH));
+      }
+      return trigrams;
+   }
+
+   /**
+    * @return edit distance between the query and the closest prefix of the token, or a value bigger than maxDistance
+    */
+   static int prefixDistance(final String query, final String token, final int maxDistance) {
+      final int columns = Math.min(token.length(), query.length() + maxDistance) + 1;
+      int[] previous = new int[columns];
+      int[] current = new int[columns];
+      for (int j = 0; j < columns; j++) {
+         previous[j] = j;
+      }
+      for (int i = 1; i <= query.length(); i++) {
+         current[0] = i;
+         int rowMinimum = i;
+         for (int j = 1; j < columns; j++) {
+            final int substitution = previous[j - 1] + (query.charAt(i - 1) == token.charAt(j - 1) ? 0 : 1);
+            current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+            rowMinimum = Math.min(rowMinimum, current[j]);
+         }
+         if (rowMinimum > maxDistance) {
+            return maxDistance + 1;
+         }
+         final int[] swap = previous;
+         previous = current;
+         current = swap;
+      }
+      int distance = previous[0];
+      for (int j = 1; j < columns; j++) {
+         distance = Math.min(distance, previous[j]);
+      }
+      return distance;
+   }
+
+   private static final class Entry {
+      private final Project project;
+      private final String[] nameTokens;
+      private final String[] descriptionTokens;
+      // tokens joined by spaces, as a query token never contains a space
+      private final String nameText;
+      private final String descriptionText;
+
+      private Entry(final Project project, final String[] nameTokens, final String[] descriptionTokens) {
+         this.project = project;
+         this.nameTokens = nameTokens;
+         this.descriptionTokens = descriptionTokens;
+         nameText = joinWithLeadingSpaces(nameTokens);
+         descriptionText = joinWithLeadingSpaces(descriptionTokens);
+      }
+
+      private static String joinWithLeadingSpaces(final String[] tokens) {
+         final StringBuilder text = new StringBuilder();
+         for (final String token : tokens) {
+            text.append(' ').append(token);
+         }
+         return text.toString();
+      }
+
+      /**
+       * @param spacedQueryToken
+       *           query token with a leading space, to find it at the beginning of a token
+       */
+      private int textScore(final String queryToken, final String spacedQueryToken) {
+         if (nameText.contains(queryToken)) {
+            return nameText.contains(spacedQueryToken) ? SCORE_NAME_PREFIX : SCORE_NAME_SUBSTRING;
+         }
+         if (descriptionText.contains(queryToken)) {
+            return descriptionText.contains(spacedQueryToken) ? SCORE_DESCRIPTION_PREFIX : SCORE_DESCRIPTION_SUBSTRING;
+         }
+         return NO_MATCH;
+      }
+
+      private int typoScore(final String queryToken, final int maxTypos) {
+         int distance = minimalDistance(nameTokens, queryToken, maxTypos);
+         if (distance <= maxTypos) {
+            return SCORE_NAME_TYPO + distance;
+         }
+         distance = minimalDistance(descriptionTokens, queryToken, maxTypos);
+         if (distance <= maxTypos) {
+            return SCORE_DESCRIPTION_TYPO + distance;
+         }
+         return NO_MATCH;
+      }
+
+      private static int minimalDistance(final String[] tokens, final String queryToken, final int maxTypos) {
+         int distance = maxTypos + 1;
+         for (final String token : tokens) {
+            distance = Math.min(distance, prefixDistance(queryToken, token, maxTypos));
+         }
+         return distance;
+      }
+   }
+
+   /** Ascending indices of the entries containing a trigram. */
+   private static final class Postings {
+      private int[] entries = new int[4];
+      private int size;
+
+      private void add(final int entryIndex) {
+         if (size > 0 && entries[size - 1] == entryIndex) {
+            return;
+         }
+         if (size == entries.length) {
+            entries = Arrays.copyOf(entries, size * 2);
+         }
+         entries[size++] = entryIndex;
+      }
+   }
+}
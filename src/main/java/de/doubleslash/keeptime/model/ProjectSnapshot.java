@@ -0,0 +1,78 @@
+// Copyright 2019 doubleSlash Net Business GmbH
+//
+// This file is part of KeepTime.
+// KeepTime is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+package de.doubleslash.keeptime.model;
+
+import javafx.scene.paint.Color;
+
+/**
+ * State of one project at the time it was taken. The FX thread edits the {@link Project} entity, so saves running on
+ * the persistence thread get this copy instead of the entity.
+ */
+public class ProjectSnapshot {
+
+   private final long id;
+   private final String name;
+   private final String description;
+   private final Color color;
+   private final boolean isWork;
+   private final boolean isDefault;
+   private final boolean isEnabled;
+   private final int index;
+
+   private ProjectSnapshot(final long id, final String name, final String description, final Color color,
+         final boolean isWork, final boolean isDefault, final boolean isEnabled, final int index) {
+      this.id = id;
+      this.name = name;
+      this.description = description;
+      this.color = color;
+      this.isWork = isWork;
+      this.isDefault = isDefault;
+      this.isEnabled = isEnabled;
+      this.index = index;
+   }
+
+   public static ProjectSnapshot of(final Project project) {
+      return new ProjectSnapshot(project.getId(), project.getName(), project.getDescription(), project.getColor(),
+            project.isWork(), project.isDefault(), project.isEnabled(), project.getIndex());
+   }
+
+   /**
+    * @return a new entity with the values of this snapshot and the given id. A new project is inserted if the id is 0.
+    */
+   public Project toProject(final long projectId) {
+      final Project project = new Project(name, description, color, isWork, index, isDefault);
+      project.setEnabled(isEnabled);
+      project.setId(projectId);
+      return project;
+   }
+
+   public long getId() {
+      return id;
+   }
+
+   public String getName() {
+      return name;
+   }
+
+   @Override
+   public String toString() {
+      return "ProjectSnapshot [id=" + id + ", name=" + name + ", description=" + description + ", color=" + color
+            + ", isWork=" + isWork + ", isDefault=" + isDefault + ", isEnabled=" + isEnabled + ", index=" + index
+            + "]";
+   }
+
+}
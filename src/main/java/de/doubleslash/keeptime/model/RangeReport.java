@@ -0,0 +1,179 @@
+// Copyright 2019 doubleSlash Net Business GmbH
+//
+// This file is part of KeepTime.
+// KeepTime is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+
+package de.doubleslash.keeptime.model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Seconds per project and day of a date range, as shown in the report. It is built from the daily summary, so no
+ * work item has to be loaded. Work items crossing midnight count for each day they cover.
+ */
+public class RangeReport {
+
+   private final LocalDate firstDay;
+   private final LocalDate lastDay;
+   private final List<ProjectTotal> projectTotals;
+   private final List<WorkDailySummary> dailySummaries;
+   private final Map<Long, Project> projectsById;
+   private final long totalSeconds;
+   private final long workSeconds;
+
+   private RangeReport(final LocalDate firstDay, final LocalDate lastDay, final List<ProjectTotal> projectTotals,
+         final List<WorkDailySummary> dailySummaries, final Map<Long, Project> projectsById, final long totalSeconds,
+         final long workSeconds) {
+      this.firstDay = firstDay;
+      this.lastDay = lastDay;
+      this.projectTotals = projectTotals;
+      this.dailySummaries = dailySummaries;
+      this.projectsById = projectsById;
+      this.totalSeconds = totalSeconds;
+      this.workSeconds = workSeconds;
+   }
+
+   /**
+    * Sums up the given daily summaries per project in one pass.
+    * 
+    * @param firstDay
+    *           first day of the range
+    * @param lastDay
+    *           last day of the range (inclusive)
+    * @param dailySummaries
+    *           summaries of the range, sorted by day
+    * @param projects
+    *           all projects, including disabled ones. Summaries of unknown projects are ignored
+    */
+   public static RangeReport of(final LocalDate firstDay, final LocalDate lastDay,
+         final List<WorkDailySummary> dailySummaries, final Collection<Project> projects) {
+      final Map<Long, Project> projectsById = new HashMap<>(projects.size() * 2);
+      for (final Project project : projects) {
+         projectsById.put(project.getId(), project);
+      }
+
+      final Map<Long, ProjectTotal> projectTotalsById = new HashMap<>();
+      final List<WorkDailySummary> knownSummaries = new ArrayList<>(dailySummaries.size());
+      long totalSeconds = 0;
+      long workSeconds = 0;
+      for (final WorkDailySummary summary : dailySummaries) {
+         final Project project = projectsById.get(summary.getProjectId());
+         if (project == null) {
+            continue;
+         }
+
+         ProjectTotal projectTotal = projectTotalsById.get(project.getId());
+         if (projectTotal == null) {
+            projectTotal = new ProjectTotal(project);
+            projectTotalsById.put(project.getId(), projectTotal);
+         }
+         projectTotal.add(summary);
+         knownSummaries.add(summary);
+         totalSeconds += summary.getTotalSeconds();
+         workSeconds += summary.getWorkSeconds();
+      }
+
+      final List<ProjectTotal> projectTotals = new ArrayList<>(projectTotalsById.values());
+      projectTotals.sort(Comparator.comparingInt(projectTotal -> projectTotal.getProject().getIndex()));
+      // projects in the same order on every day
+      knownSummaries.sort(Comparator.comparing(WorkDailySummary::getWorkDate)
+            .thenComparingInt(summary -> projectsById.get(summary.getProjectId()).getIndex()));
+
+      return new RangeReport(firstDay, lastDay, Collections.unmodifiableList(projectTotals),
+            Collections.unmodifiableList(knownSummaries), projectsById, totalSeconds, workSeconds);
+   }
+
+   public LocalDate getFirstDay() {
+      return firstDay;
+   }
+
+   public LocalDate getLastDay() {
+      return lastDay;
+   }
+
+   /**
+    * @return one total per worked project, sorted by project index
+    */
+   public List<ProjectTotal> getProjectTotals() {
+      return projectTotals;
+   }
+
+   /**
+    * @return all summaries of the range, sorted by day and project index
+    */
+   public List<WorkDailySummary> getDailySummaries() {
+      return dailySummaries;
+   }
+
+   public Project getProject(final WorkDailySummary summary) {
+      return projectsById.get(summary.getProjectId());
+   }
+
+   public long getTotalSeconds() {
+      return totalSeconds;
+   }
+
+   public long getWorkSeconds() {
+      return workSeconds;
+   }
+
+   /**
+    * Summed up seconds and worked days of one project.
+    */
+   public static class ProjectTotal {
+
+      private final Project project;
+      private final List<WorkDailySummary> dailySummaries = new ArrayList<>();
+      private long totalSeconds;
+      private long workSeconds;
+
+      private ProjectTotal(final Project project) {
+         this.project = project;
+      }
+
+      private void add(final WorkDailySummary summary) {
+         dailySummaries.add(summary);
+         totalSeconds += summary.getTotalSeconds();
+         workSeconds += summary.getWorkSeconds();
+      }
+
+      public Project getProject() {
+         return project;
+      }
+
+      /**
+       * @return one summary per worked day, sorted by day
+       */
+      public List<WorkDailySummary> getDailySummaries() {
+         return Collections.unmodifiableList(dailySummaries);
+      }
+
+      public long getTotalSeconds() {
+         return totalSeconds;
+      }
+
+      public long getWorkSeconds() {
+         return workSeconds;
+      }
+   }
+
+}
@@ -69,6 +69,9 @@ public class Settings {
 
    private boolean remindIfNotesAreEmpty;
 
+   /** key chords opening the popup, raw key codes joined by '+' and separated by ',' **/
+   private String popupHotkey;
+
    public Settings() {
    }
 
@@ -76,7 +79,7 @@ public class Settings {
          final Color defaultFontColor, final Color taskBarColor, final boolean useHotkey,
          final boolean displayProjectsRight, final boolean hideProjectsOnMouseExit, final double windowPositionX,
          final double windowPositionY, final int screenHash, final boolean saveWindowPosition,
-         final boolean remindIfNotesAreEmpty) {
+         final boolean remindIfNotesAreEmpty, final String popupHotkey) {
       this.hoverBackgroundColor = hoverBackgroundColor;
       this.hoverFontColor = hoverFontColor;
       this.defaultBackgroundColor = defaultBackgroundColor;
@@ -90,7 +93,7 @@ public class Settings {
       this.windowScreenhash = screenHash;
       this.saveWindowPosition = saveWindowPosition;
       this.remindIfNotesAreEmpty = remindIfNotesAreEmpty;
-
+      this.popupHotkey = popupHotkey;
    }
 
    public long getId() {
@@ -201,4 +204,12 @@ public class Settings {
       this.remindIfNotesAreEmpty = emptyNoteReminder;
    }
 
+   public String getPopupHotkey() {
+      return popupHotkey;
+   }
+
+   public void setPopupHotkey(final String popupHotkey) {
+      this.popupHotkey = popupHotkey;
+   }
+
 }
@@ -0,0 +1,205 @@
+// Copyright 2019 doubleSlash Net Business GmbH
+//
+// This file is part of KeepTime.
+// KeepTime is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+
+package de.doubleslash.keeptime.model;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import de.doubleslash.keeptime.common.LongLongMap;
+import javafx.beans.InvalidationListener;
+import javafx.collections.ObservableList;
+
+/**
+ * Sums up the seconds of todays work items. The totals of all finished work items are kept per project id and are
+ * only calculated again if the work items or projects change. Only the seconds of the active work item are added
+ * live, so reading the totals every second does not depend on the number of work items or projects.
+ */
+public class TodaysTimeAccumulator {
+
+   private final Model model;
+
+   private final LongLongMap closedSecondsPerProject = new LongLongMap();
+   private long closedSeconds;
+   private long closedWorkSeconds;
+
+   private Work activeWork;
+   private boolean activeIsWork;
+
+   private Totals totals;
+
+   private boolean dirty = true;
+   private long version = 0;
+
+   private final InvalidationListener invalidationListener = observable -> invalidate();
+
+   TodaysTimeAccumulator(final Model model) {
+      this.model = model;
+
+      model.getPastWorkItems().addListener(invalidationListener);
+      model.activeWorkItem.addListener(invalidationListener);
+      watchProjects(model.getAllProjects());
+   }
+
+   void watchProjects(final ObservableList<Project> allProjects) {
+      allProjects.addListener(invalidationListener);
+      invalidate();
+   }
+
+   /**
+    * Marks the totals to be calculated again, e.g. if the work flag of a project was changed.
+    */
+   public void invalidate() {
+      dirty = true;
+   }
+
+   /**
+    * @return todays present seconds (work+nonWork)
+    */
+   public long getTodaysSeconds() {
+      recomputeIfDirty();
+      return closedSeconds + activeSeconds();
+   }
+
+   /**
+    * @return todays seconds counted as work
+    */
+   public long getTodaysWorkSeconds() {
+      recomputeIfDirty();
+      return closedWorkSeconds + (activeIsWork ? activeSeconds() : 0);
+   }
+
+   /**
+    * @return todays seconds spent on the project with the given id
+    */
+   public long getTodaysSeconds(final long projectId) {
+      recomputeIfDirty();
+      final long seconds = closedSecondsPerProject.get(projectId);
+      if (activeWork != null && activeWork.getProject().getId() == projectId) {
+         return seconds + activeSeconds();
+      }
+      return seconds;
+   }
+
+   /**
+    * @return the active work item the totals were calculated for, or null if it is not part of todays work items
+    */
+   public Work getActiveWork() {
+      recomputeIfDirty();
+      return activeWork;
+   }
+
+   /**
+    * @return the totals of the finished work items, which stay the same until they are calculated again
+    */
+   public Totals getTotals() {
+      recomputeIfDirty();
+      return totals;
+   }
+
+   /**
+    * @return number which changes whenever the totals of the finished work items were calculated again
+    */
+   public long getVersion() {
+      recomputeIfDirty();
+      return version;
+   }
+
+   private long activeSeconds() {
+      if (activeWork == null) {
+         return 0;
+      }
+      return Duration.between(activeWork.getStartTime(), activeWork.getEndTime()).getSeconds();
+   }
+
+   private void recomputeIfDirty() {
+      if (!dirty) {
+         return;
+      }
+
+      // work items may reference other project instances, so the work flag is looked up by id
+      final Map<Long, Project> projectsById = new HashMap<>();
+      for (final Project project : model.getAllProjects()) {
+         projectsById.put(project.getId(), project);
+      }
+
+      final Work currentWork = model.activeWorkItem.get();
+      activeWork = null;
+      activeIsWork = false;
+
+      closedSecondsPerProject.clear();
+      closedSeconds = 0;
+      closedWorkSeconds = 0;
+      for (final Work work : model.getPastWorkItems()) {
+         if (work == currentWork) {
+            // only counted if it is part of todays work items
+            activeWork = work;
+            activeIsWork = isWork(projectsById, work.getProject());
+            continue;
+         }
+         final long seconds = Duration.between(work.getStartTime(), work.getEndTime()).getSeconds();
+         closedSecondsPerProject.add(work.getProject().getId(), seconds);
+         closedSeconds += seconds;
+         if (isWork(projectsById, work.getProject())) {
+            closedWorkSeconds += seconds;
+         }
+      }
+
+      totals = new Totals(closedSeconds, closedWorkSeconds, activeWork != null, activeIsWork);
+      dirty = false;
+      version++;
+   }
+
+   private boolean isWork(final Map<Long, Project> projectsById, final Project project) {
+      final Project knownProject = projectsById.get(project.getId());
+      return knownProject != null && knownProject.isWork();
+   }
+
+   /**
+    * Immutable totals of the finished work items. They can be read on any thread, to add the seconds of the active
+    * work item without reading the model.
+    */
+   public static class Totals {
+      private final long closedSeconds;
+      private final long closedWorkSeconds;
+      private final boolean activeCounted;
+      private final boolean activeIsWork;
+
+      Totals(final long closedSeconds, final long closedWorkSeconds, final boolean activeCounted,
+            final boolean activeIsWork) {
+         this.closedSeconds = closedSeconds;
+         this.closedWorkSeconds = closedWorkSeconds;
+         this.activeCounted = activeCounted;
+         this.activeIsWork = activeIsWork;
+      }
+
+      /**
+       * @return todays present seconds (work+nonWork), if the active work item lasts the given seconds
+       */
+      public long getTodaysSeconds(final long activeSeconds) {
+         return closedSeconds + (activeCounted ? activeSeconds : 0);
+      }
+
+      /**
+       * @return todays seconds counted as work, if the active work item lasts the given seconds
+       */
+      public long getTodaysWorkSeconds(final long activeSeconds) {
+         return closedWorkSeconds + (activeIsWork ? activeSeconds : 0);
+      }
+   }
+}
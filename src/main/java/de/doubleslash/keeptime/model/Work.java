@@ -25,13 +25,15 @@ import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.Lob;
 import javax.persistence.ManyToOne;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 
 @Entity
 @Table(name = "Work")
 public class Work {
    @Id
-   @GeneratedValue(strategy = GenerationType.IDENTITY)
+   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "work_seq")
+   @SequenceGenerator(name = "work_seq", sequenceName = "work_seq", allocationSize = 50)
    @Column(name = "id", updatable = false, nullable = false)
    private long id;
 
@@ -58,6 +60,13 @@ public class Work {
       return id;
    }
 
+   /**
+    * Takes over the id the work got when it was saved on the persistence thread.
+    */
+   public void setId(final long id) {
+      this.id = id;
+   }
+
    public LocalDateTime getStartTime() {
       return startTime;
    }
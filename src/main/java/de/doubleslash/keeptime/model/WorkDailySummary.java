@@ -0,0 +1,128 @@
+// Copyright 2019 doubleSlash Net Business GmbH
+//
+// This file is part of KeepTime.
+// KeepTime is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+
+package de.doubleslash.keeptime.model;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Table;
+
+/**
+ * Seconds spent on one project on one day. Work items crossing midnight are split across the days.
+ */
+@Entity
+@Table(name = "WorkDailySummary")
+@IdClass(WorkDailySummary.Key.class)
+public class WorkDailySummary {
+
+   @Id
+   private LocalDate workDate;
+
+   @Id
+   private long projectId;
+
+   private long totalSeconds;
+
+   private long workSeconds;
+
+   public WorkDailySummary() {
+      // Needed for jpa
+   }
+
+   public WorkDailySummary(final LocalDate workDate, final long projectId) {
+      this.workDate = workDate;
+      this.projectId = projectId;
+   }
+
+   public LocalDate getWorkDate() {
+      return workDate;
+   }
+
+   public long getProjectId() {
+      return projectId;
+   }
+
+   public long getTotalSeconds() {
+      return totalSeconds;
+   }
+
+   public long getWorkSeconds() {
+      return workSeconds;
+   }
+
+   public void addSeconds(final long seconds, final boolean isWork) {
+      totalSeconds += seconds;
+      if (isWork) {
+         workSeconds += seconds;
+      }
+   }
+
+   @Override
+   public String toString() {
+      return "WorkDailySummary [workDate=" + workDate + ", projectId=" + projectId + ", totalSeconds=" + totalSeconds
+            + ", workSeconds=" + workSeconds + "]";
+   }
+
+   public static class Key implements Serializable {
+
+      private static final long serialVersionUID = 1L;
+
+      private LocalDate workDate;
+
+      private long projectId;
+
+      public Key() {
+         // Needed for jpa
+      }
+
+      public Key(final LocalDate workDate, final long projectId) {
+         this.workDate = workDate;
+         this.projectId = projectId;
+      }
+
+      public LocalDate getWorkDate() {
+         return workDate;
+      }
+
+      public long getProjectId() {
+         return projectId;
+      }
+
+      @Override
+      public int hashCode() {
+         return Objects.hash(workDate, projectId);
+      }
+
+      @Override
+      public boolean equals(final Object obj) {
+         if (this == obj) {
+            return true;
+         }
+         if (!(obj instanceof Key)) {
+            return false;
+         }
+         final Key other = (Key) obj;
+         return projectId == other.projectId && Objects.equals(workDate, other.workDate);
+      }
+   }
+
+}
@@ -0,0 +1,87 @@
+// Copyright 2019 doubleSlash Net Business GmbH
+//
+// This file is part of KeepTime.
+// KeepTime is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+package de.doubleslash.keeptime.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * State of one work item at the time it was taken. The FX thread keeps changing the {@link Work} entity (e.g. its end
+ * time every second), so saves running on the persistence thread get this copy instead of the entity.
+ */
+public class WorkSnapshot {
+
+   private final long id;
+   private final LocalDateTime startTime;
+   private final LocalDateTime endTime;
+   private final long projectId;
+   private final String notes;
+
+   public WorkSnapshot(final long id, final LocalDateTime startTime, final LocalDateTime endTime, final long projectId,
+         final String notes) {
+      this.id = id;
+      this.startTime = startTime;
+      this.endTime = endTime;
+      this.projectId = projectId;
+      this.notes = notes;
+   }
+
+   public static WorkSnapshot of(final Work work) {
+      return new WorkSnapshot(work.getId(), work.getStartTime(), work.getEndTime(), work.getProject().getId(),
+            work.getNotes());
+   }
+
+   /**
+    * @return copy of this snapshot with the given id, e.g. the id the work got when it was saved the first time
+    */
+   public WorkSnapshot withId(final long newId) {
+      return new WorkSnapshot(newId, startTime, endTime, projectId, notes);
+   }
+
+   /**
+    * @return copy of this snapshot with the given project id, e.g. the id a new project got when it was saved
+    */
+   public WorkSnapshot withProjectId(final long newProjectId) {
+      return new WorkSnapshot(id, startTime, endTime, newProjectId, notes);
+   }
+
+   public long getId() {
+      return id;
+   }
+
+   public LocalDateTime getStartTime() {
+      return startTime;
+   }
+
+   public LocalDateTime getEndTime() {
+      return endTime;
+   }
+
+   public long getProjectId() {
+      return projectId;
+   }
+
+   public String getNotes() {
+      return notes;
+   }
+
+   @Override
+   public String toString() {
+      return "WorkSnapshot [id=" + id + ", startTime=" + startTime + ", endTime=" + endTime + ", projectId="
+            + projectId + ", notes=" + notes + "]";
+   }
+
+}
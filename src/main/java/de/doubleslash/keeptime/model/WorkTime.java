@@ -0,0 +1,71 @@
+// Copyright 2019 doubleSlash Net Business GmbH
+//
+// This file is part of KeepTime.
+// KeepTime is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+
+package de.doubleslash.keeptime.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Times of one work item without its notes and project entity. Read paths which only sum up durations load this
+ * instead of {@link Work}, so the notes do not have to be read from the database.
+ */
+public class WorkTime {
+
+   private final long id;
+   private final LocalDateTime startTime;
+   private final LocalDateTime endTime;
+   private final long projectId;
+   private final boolean isWork;
+
+   public WorkTime(final long id, final LocalDateTime startTime, final LocalDateTime endTime, final long projectId,
+         final boolean isWork) {
+      this.id = id;
+      this.startTime = startTime;
+      this.endTime = endTime;
+      this.projectId = projectId;
+      this.isWork = isWork;
+   }
+
+   public static WorkTime of(final Work work) {
+      return new WorkTime(work.getId(), work.getStartTime(), work.getEndTime(), work.getProject().getId(),
+            work.getProject().isWork());
+   }
+
+   public long getId() {
+      return id;
+   }
+
+   public LocalDateTime getStartTime() {
+      return startTime;
+   }
+
+   public LocalDateTime getEndTime() {
+      return endTime;
+   }
+
+   public long getProjectId() {
+      return projectId;
+   }
+
+   /**
+    * @return true if the project of the work counts as work
+    */
+   public boolean isWork() {
+      return isWork;
+   }
+
+}
@@ -16,16 +16,29 @@
 
 package de.doubleslash.keeptime.model.persistenceconverter;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import javax.persistence.AttributeConverter;
 
 import javafx.scene.paint.Color;
 
 public class ColorConverter implements AttributeConverter<Color, String> {
 
+   /** parsed colors by their string, there are only as many as there are projects and settings **/
+   private static final Map<String, Color> PARSED_COLORS = new ConcurrentHashMap<>();
+
    @Override
    public Color convertToEntityAttribute(final String arg0) {
+      if (arg0 == null) {
+         return Color.BLACK;
+      }
+      return PARSED_COLORS.computeIfAbsent(arg0, ColorConverter::parse);
+   }
+
+   private static Color parse(final String color) {
       try {
-         return Color.valueOf(arg0);
+         return Color.valueOf(color);
       } catch (final Exception e) {
          return Color.BLACK;
       }
@@ -0,0 +1,33 @@
+// Copyright 2019 doubleSlash Net Business GmbH
+//
+// This file is part of KeepTime.
+// KeepTime is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+
+package de.doubleslash.keeptime.model.repos;
+
+import java.util.Collection;
+
+/**
+ * Inserts many new entities at once. Together with sequence based ids and JDBC batching, the inserts are sent to the
+ * database in batches instead of one statement per entity.
+ */
+public interface BulkInsertRepository<T> {
+
+   /**
+    * Inserts all given entities, which must not be persisted yet. Afterwards they are detached but have their ids.
+    */
+   void insertAll(Collection<T> entities);
+
+}
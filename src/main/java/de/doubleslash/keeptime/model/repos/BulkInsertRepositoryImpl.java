@@ -0,0 +1,62 @@
+// Copyright 2019 doubleSlash Net Business GmbH
+//
+// This file is part of KeepTime.
+// KeepTime is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+
+package de.doubleslash.keeptime.model.repos;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Persists the entities in chunks of the JDBC batch size. Each chunk is flushed and detached afterwards, so the
+ * persistence context does not grow with the number of inserted entities.
+ */
+public class BulkInsertRepositoryImpl<T> implements BulkInsertRepository<T> {
+
+   /** has to match hibernate.jdbc.batch_size **/
+   static final int BATCH_SIZE = 50;
+
+   @PersistenceContext
+   private EntityManager entityManager;
+
+   @Override
+   @Transactional
+   public void insertAll(final Collection<T> entities) {
+      final List<T> chunk = new ArrayList<>(BATCH_SIZE);
+      for (final T entity : entities) {
+         entityManager.persist(entity);
+         chunk.add(entity);
+         if (chunk.size() == BATCH_SIZE) {
+            flush(chunk);
+         }
+      }
+      flush(chunk);
+   }
+
+   private void flush(final List<T> chunk) {
+      entityManager.flush();
+      // only detach what was inserted here, entities of the surrounding transaction stay managed
+      chunk.forEach(entityManager::detach);
+      chunk.clear();
+   }
+
+}
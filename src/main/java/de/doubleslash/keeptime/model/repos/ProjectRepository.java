@@ -22,6 +22,6 @@ import org.springframework.stereotype.Repository;
 import de.doubleslash.keeptime.model.Project;
 
 @Repository
-public interface ProjectRepository extends JpaRepository<Project, Long> {
+public interface ProjectRepository extends JpaRepository<Project, Long>, BulkInsertRepository<Project> {
 
 }
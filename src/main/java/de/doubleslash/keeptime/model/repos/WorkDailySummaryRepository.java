@@ -0,0 +1,48 @@
+// Copyright 2019 doubleSlash Net Business GmbH
+//
+// This file is part of KeepTime.
+// KeepTime is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+
+package de.doubleslash.keeptime.model.repos;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import de.doubleslash.keeptime.model.WorkDailySummary;
+
+@Repository
+public interface WorkDailySummaryRepository
+      extends JpaRepository<WorkDailySummary, WorkDailySummary.Key>, BulkInsertRepository<WorkDailySummary> {
+
+   List<WorkDailySummary> findByWorkDateBetweenOrderByWorkDateAsc(LocalDate firstDay, LocalDate lastDay);
+
+   @Modifying
+   @Query("DELETE FROM WorkDailySummary s WHERE s.workDate = ?1")
+   void deleteByWorkDate(LocalDate workDate);
+
+   @Modifying
+   @Query("UPDATE WorkDailySummary s SET s.workSeconds = s.totalSeconds WHERE s.projectId = ?1")
+   void countAsWork(long projectId);
+
+   @Modifying
+   @Query("UPDATE WorkDailySummary s SET s.workSeconds = 0 WHERE s.projectId = ?1")
+   void countAsNonWork(long projectId);
+
+}
@@ -17,17 +17,85 @@
 package de.doubleslash.keeptime.model.repos;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import de.doubleslash.keeptime.model.Work;
+import de.doubleslash.keeptime.model.WorkTime;
 
 @Repository
-public interface WorkRepository extends JpaRepository<Work, Long> {
+public interface WorkRepository extends JpaRepository<Work, Long>, BulkInsertRepository<Work> {
 
-   @Query(value = "SELECT * FROM work WHERE CAST(start_time AS DATE) = ?1 ORDER BY start_time ASC", nativeQuery = true)
-   List<Work> findByStartDateOrderByStartTimeAsc(LocalDate creationDate);
+   /**
+    * Finds all work items which started within the half-open range [rangeStart, rangeEnd).
+    */
+   @Query("SELECT w FROM Work w WHERE w.startTime >= ?1 AND w.startTime < ?2 ORDER BY w.startTime ASC")
+   List<Work> findByStartTimeInRange(LocalDateTime rangeStart, LocalDateTime rangeEnd);
+
+   /**
+    * Finds all work items which overlap the half-open range [rangeStart, rangeEnd). This includes items which started
+    * before the range (e.g. on the day before and crossed midnight) or end after the range.
+    */
+   @Query("SELECT w FROM Work w WHERE w.endTime > ?1 AND w.startTime < ?2 ORDER BY w.startTime ASC")
+   List<Work> findOverlappingRange(LocalDateTime rangeStart, LocalDateTime rangeEnd);
+
+   /**
+    * Like {@link #findOverlappingRange(LocalDateTime, LocalDateTime)}, but only loads the times of the work items.
+    */
+   @Query("SELECT new de.doubleslash.keeptime.model.WorkTime(w.id, w.startTime, w.endTime, w.project.id, "
+         + "w.project.isWork) FROM Work w WHERE w.endTime > ?1 AND w.startTime < ?2 ORDER BY w.startTime ASC")
+   List<WorkTime> findTimesOverlappingRange(LocalDateTime rangeStart, LocalDateTime rangeEnd);
+
+   /**
+    * Loads the times of the next work items with an id greater than the given one. Meant to go through all work items
+    * page by page, without the offset of the page having to be skipped by the database.
+    * 
+    * @param lastId
+    *           greatest id of the previous page, or 0 for the first page
+    * @param pageable
+    *           only its size is used
+    */
+   @Query("SELECT new de.doubleslash.keeptime.model.WorkTime(w.id, w.startTime, w.endTime, w.project.id, "
+         + "w.project.isWork) FROM Work w WHERE w.id > ?1 ORDER BY w.id ASC")
+   List<WorkTime> findTimesAfterId(long lastId, Pageable pageable);
+
+   /**
+    * Sums up the seconds of all work items started within the half-open range [rangeStart, rangeEnd) grouped by their
+    * start day.
+    * 
+    * @return one row per worked day with the day ({@link java.sql.Date}) and its seconds ({@link Number})
+    */
+   @Query(value = "SELECT CAST(start_time AS DATE) AS work_day, "
+         + "SUM(DATEDIFF('SECOND', start_time, end_time)) AS work_seconds FROM work "
+         + "WHERE start_time >= ?1 AND start_time < ?2 GROUP BY work_day", nativeQuery = true)
+   List<Object[]> sumSecondsPerStartDay(LocalDateTime rangeStart, LocalDateTime rangeEnd);
+
+   /**
+    * Finds all work items which were started on the given day.
+    */
+   default List<Work> findStartedOn(final LocalDate day) {
+      return findByStartTimeInRange(day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+   }
+
+   /**
+    * Finds all worked days between firstDay and lastDay (both inclusive) with one grouped query.
+    * 
+    * @return map of all worked days to their worked seconds. Days without work are not contained.
+    */
+   default Map<LocalDate, Long> findWorkedSecondsPerDay(final LocalDate firstDay, final LocalDate lastDay) {
+      final List<Object[]> rows = sumSecondsPerStartDay(firstDay.atStartOfDay(), lastDay.plusDays(1).atStartOfDay());
+      final Map<LocalDate, Long> workedSecondsPerDay = new HashMap<>(rows.size() * 2);
+      for (final Object[] row : rows) {
+         final LocalDate day = ((java.sql.Date) row[0]).toLocalDate();
+         workedSecondsPerDay.put(day, ((Number) row[1]).longValue());
+      }
+      return workedSecondsPerDay;
+   }
 }
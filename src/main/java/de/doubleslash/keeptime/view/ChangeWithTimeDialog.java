@@ -104,6 +104,8 @@ public class ChangeWithTimeDialog {
       final Label newProjectTimeLabel = new Label(TIME_ZERO);
       grid.add(newProjectTimeLabel, 1, gridRow);
 
+      final DateFormatter.HHMMSSFormatter currentProjectTimeFormatter = new DateFormatter.HHMMSSFormatter();
+      final DateFormatter.HHMMSSFormatter newProjectTimeFormatter = new DateFormatter.HHMMSSFormatter();
       final Runnable updateLabelsRunnable = () -> {
          final long minutesOffset = slider.valueProperty().longValue();
          final long secondsOffset = minutesOffset * 60;
@@ -111,8 +113,8 @@ public class ChangeWithTimeDialog {
          final long secondsActiveWork = activeWorkSecondsProperty.get() - secondsOffset;
          final long secondsNewWork = 0 + secondsOffset;
          minutesToTransferLabel.setText(minutesOffset + " minute(s)");
-         currentProjectTimeLabel.setText(DateFormatter.secondsToHHMMSS(secondsActiveWork));
-         newProjectTimeLabel.setText(DateFormatter.secondsToHHMMSS(secondsNewWork));
+         currentProjectTimeLabel.setText(currentProjectTimeFormatter.format(secondsActiveWork));
+         newProjectTimeLabel.setText(newProjectTimeFormatter.format(secondsNewWork));
          newEndTimeLabel.setText(
                DateFormatter.toTimeString(model.activeWorkItem.get().getEndTime().minusSeconds(secondsOffset)));
       };
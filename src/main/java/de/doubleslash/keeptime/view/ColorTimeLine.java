@@ -17,39 +17,167 @@
 package de.doubleslash.keeptime.view;
 
 import java.time.Duration;
+import java.util.Arrays;
 import java.util.List;
 
+import de.doubleslash.keeptime.model.RangeReport;
 import de.doubleslash.keeptime.model.Work;
+import de.doubleslash.keeptime.model.WorkDailySummary;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Color;
 
+/**
+ * Draws work items as colored segments, proportional to their duration.<br>
+ * The canvas keeps what was drawn before. As long as the pixel edges of all segments but the last one stay the same,
+ * only the last (growing) segment is drawn again. Segments are passed as primitive arrays, so updating does not
+ * allocate.
+ */
 public class ColorTimeLine {
 
+   private static final Color BACKGROUND_COLOR = new Color(.3, .3, .3, .3);
+
    private final Canvas canvas;
 
+   private final Segments workItemSegments = new Segments();
+
+   private int[] drawnEdges = new int[Segments.INITIAL_CAPACITY];
+   private Color[] drawnColors = new Color[Segments.INITIAL_CAPACITY];
+   private int drawnSize = -1;
+   private double drawnWidth;
+   private double drawnHeight;
+
+   private int[] edges = new int[Segments.INITIAL_CAPACITY];
+
    public ColorTimeLine(final Canvas canvas) {
       this.canvas = canvas;
    }
 
    public void update(final List<Work> workItems, final long seconds) {
+      workItemSegments.clear();
+      for (final Work w : workItems) {
+         workItemSegments.add(Duration.between(w.getStartTime(), w.getEndTime()).getSeconds(),
+               w.getProject().getColor());
+      }
+      update(workItemSegments, seconds);
+   }
+
+   /**
+    * Draws one segment per day and project of the given range.
+    */
+   public void update(final RangeReport rangeReport) {
+      workItemSegments.clear();
+      for (final WorkDailySummary summary : rangeReport.getDailySummaries()) {
+         workItemSegments.add(summary.getTotalSeconds(), rangeReport.getProject(summary).getColor());
+      }
+      update(workItemSegments, rangeReport.getTotalSeconds());
+   }
+
+   /**
+    * @param segments
+    *           the segments to draw in order
+    * @param seconds
+    *           the seconds which fill the whole width of the canvas
+    */
+   public void update(final Segments segments, final long seconds) {
+      final int size = segments.size();
+      final double width = canvas.getWidth();
+      final double height = canvas.getHeight();
+      if (edges.length < size) {
+         edges = new int[segments.seconds.length];
+      }
+
+      long elapsedSeconds = 0;
+      for (int i = 0; i < size; i++) {
+         elapsedSeconds += segments.seconds[i];
+         edges[i] = seconds <= 0 ? 0 : (int) Math.round((double) elapsedSeconds / seconds * width);
+      }
+
       final GraphicsContext gc = canvas.getGraphicsContext2D();
+      final int firstChangedSegment = firstChangedSegment(segments, width, height);
+      final int fromX = firstChangedSegment == 0 ? 0 : edges[firstChangedSegment - 1];
 
-      gc.setFill(new Color(.3, .3, .3, .3));
-      gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
-      gc.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
-      double currentX = 0;
-      for (final Work w : workItems) {
-         final long workedSeconds = Duration.between(w.getStartTime(), w.getEndTime()).getSeconds();
-         final double width = (double) workedSeconds / seconds * canvas.getWidth();
-         final Color fill = w.getProject().getColor();
+      gc.clearRect(fromX, 0, width - fromX, height);
+      gc.setFill(BACKGROUND_COLOR);
+      gc.fillRect(fromX, 0, width - fromX, height);
+      int currentX = fromX;
+      for (int i = firstChangedSegment; i < size; i++) {
+         gc.setFill(segments.colors[i]);
+         gc.fillRect(currentX, 0, edges[i] - currentX, height);
+         currentX = edges[i];
+      }
 
-         gc.setFill(fill);
-         gc.fillRect(currentX, 0, width, canvas.getHeight());
+      remember(segments, width, height);
+   }
+
+   /**
+    * @return index of the first segment which has to be drawn again
+    */
+   private int firstChangedSegment(final Segments segments, final double width, final double height) {
+      final int size = segments.size();
+      if (size != drawnSize || width != drawnWidth || height != drawnHeight) {
+         return 0;
+      }
+      for (int i = 0; i < size - 1; i++) {
+         if (edges[i] != drawnEdges[i] || !segments.colors[i].equals(drawnColors[i])) {
+            return 0;
+         }
+      }
+      return Math.max(0, size - 1);
+   }
 
-         currentX += width;
+   private void remember(final Segments segments, final double width, final double height) {
+      final int size = segments.size();
+      if (drawnEdges.length < size) {
+         drawnEdges = new int[edges.length];
+         drawnColors = new Color[edges.length];
       }
+      System.arraycopy(edges, 0, drawnEdges, 0, size);
+      System.arraycopy(segments.colors, 0, drawnColors, 0, size);
+      drawnSize = size;
+      drawnWidth = width;
+      drawnHeight = height;
+   }
+
+   /**
+    * Forces the next update to draw everything again.
+    */
+   public void invalidate() {
+      drawnSize = -1;
+   }
+
+   /**
+    * Reusable list of segments, each with its seconds and color.
+    */
+   public static class Segments {
+      private static final int INITIAL_CAPACITY = 16;
 
+      private long[] seconds = new long[INITIAL_CAPACITY];
+      private Color[] colors = new Color[INITIAL_CAPACITY];
+      private int size = 0;
+
+      public void add(final long segmentSeconds, final Color color) {
+         if (size == seconds.length) {
+            seconds = Arrays.copyOf(seconds, size * 2);
+            colors = Arrays.copyOf(colors, size * 2);
+         }
+         seconds[size] = segmentSeconds;
+         colors[size] = color;
+         size++;
+      }
+
+      public void setSeconds(final int index, final long segmentSeconds) {
+         seconds[index] = segmentSeconds;
+      }
+
+      public int size() {
+         return size;
+      }
+
+      public void clear() {
+         Arrays.fill(colors, 0, size, null);
+         size = 0;
+      }
    }
 
 }
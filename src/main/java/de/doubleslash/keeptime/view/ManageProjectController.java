@@ -76,7 +76,8 @@ public class ManageProjectController {
       descriptionTextArea.setText(project.getDescription());
       textFillColorPicker.setValue(project.getColor());
       isWorkCheckBox.setSelected(project.isWork());
-      sortIndexSpinner.getValueFactory().setValue(project.getIndex());
+      // the index is only an ordering key, the user chooses the position in the list
+      sortIndexSpinner.getValueFactory().setValue(model.getSortedAvailableProjects().indexOf(project));
    }
 
    public Project getProjectFromUserInput() {
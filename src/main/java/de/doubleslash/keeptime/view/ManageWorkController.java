@@ -39,7 +39,8 @@ import javafx.beans.property.SimpleBooleanProperty;
 import javafx.beans.property.StringProperty;
 import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
-import javafx.collections.transformation.FilteredList;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.Node;
 import javafx.scene.control.ComboBox;
@@ -92,12 +93,12 @@ public class ManageWorkController {
    private Project selectedProject;
    private BooleanProperty isValidProperty = new SimpleBooleanProperty();
 
-   private FilteredList<Project> filteredList;
+   private final ObservableList<Project> shownProjects = FXCollections.observableArrayList();
 
    public void setModel(final Model model) {
       this.model = model;
-      filteredList = new FilteredList<>(model.getSortedAvailableProjects());
-      projectComboBox.setItems(filteredList);
+      shownProjects.setAll(model.getProjectSearchIndex().search(""));
+      projectComboBox.setItems(shownProjects);
    }
 
    @FXML
@@ -277,8 +278,7 @@ public class ManageWorkController {
                projectComboBox.hide();
 
                final String searchText = projectComboBox.getEditor().getText();
-               filteredList.setPredicate(
-                     project -> ProjectsListViewController.doesProjectMatchSearchFilter(searchText, project));
+               shownProjects.setAll(model.getProjectSearchIndex().search(searchText));
 
                if (projectComboBox.getEditor().focusedProperty().get()) {
                   projectComboBox.show();
@@ -0,0 +1,141 @@
+// Copyright 2019 doubleSlash Net Business GmbH
+//
+// This file is part of KeepTime.
+// KeepTime is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+
+package de.doubleslash.keeptime.view;
+
+import java.util.function.Function;
+
+import de.doubleslash.keeptime.common.FontProvider;
+import de.doubleslash.keeptime.model.Project;
+import javafx.beans.binding.Bindings;
+import javafx.scene.control.ContextMenu;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.MenuItem;
+import javafx.scene.control.Tooltip;
+import javafx.scene.effect.Bloom;
+import javafx.scene.input.MouseButton;
+import javafx.scene.layout.Pane;
+
+/**
+ * Recycled cell of the project list. The nodes are built once per cell and rebound to the {@link ProjectRowModel} of
+ * whatever project the list view currently assigns to the cell.
+ */
+class ProjectListCell extends ListCell<Project> {
+
+   /**
+    * Actions triggered from a cell.
+    */
+   interface Actions {
+      void changeProject(Project project);
+
+      void changeProjectWithTime(Project project);
+
+      void editProject(Project project);
+
+      void deleteProject(Project project);
+   }
+
+   private final Function<Project, ProjectRowModel> rowModelProvider;
+
+   private final Pane pane = new Pane();
+   private final Label projectNameLabel = new Label();
+   private final Label elapsedTimeLabel = new Label();
+   private final Tooltip tooltip = new Tooltip();
+   private final MenuItem deleteMenuItem = new MenuItem("Delete");
+
+   private ProjectRowModel boundRowModel;
+
+   ProjectListCell(final Function<Project, ProjectRowModel> rowModelProvider, final Actions actions) {
+      this.rowModelProvider = rowModelProvider;
+
+      projectNameLabel.setPrefWidth(72);
+      projectNameLabel.setFont(FontProvider.getDefaultFont());
+      projectNameLabel.setTooltip(tooltip);
+      elapsedTimeLabel.setLayoutX(75);
+      elapsedTimeLabel.setPrefSize(52, 17);
+      elapsedTimeLabel.setFont(FontProvider.getDefaultFont());
+      elapsedTimeLabel.textFillProperty().bind(ViewController.fontColorProperty);
+      pane.setMinHeight(Pane.USE_PREF_SIZE);
+      pane.setPrefSize(130, 14);
+      pane.getChildren().addAll(projectNameLabel, elapsedTimeLabel);
+
+      final Bloom bloom = new Bloom();
+      bloom.setThreshold(0.3);
+      projectNameLabel.hoverProperty()
+            .addListener((obs, oldValue, hover) -> projectNameLabel.setEffect(hover ? bloom : null));
+
+      projectNameLabel.setOnMouseClicked(event -> {
+         if (event.getButton() == MouseButton.PRIMARY && getItem() != null) {
+            actions.changeProject(getItem());
+         }
+      });
+
+      final MenuItem changeWithTimeMenuItem = new MenuItem("Change with time");
+      changeWithTimeMenuItem.setOnAction(e -> actions.changeProjectWithTime(getItem()));
+      final MenuItem editMenuItem = new MenuItem("Edit");
+      editMenuItem.setOnAction(e -> actions.editProject(getItem()));
+      deleteMenuItem.setOnAction(e -> actions.deleteProject(getItem()));
+      final ContextMenu contextMenu = new ContextMenu(changeWithTimeMenuItem, editMenuItem, deleteMenuItem);
+      projectNameLabel.setOnContextMenuRequested(
+            event -> contextMenu.show(projectNameLabel, event.getScreenX(), event.getScreenY()));
+
+      setText("");
+   }
+
+   @Override
+   protected void updateItem(final Project item, final boolean empty) {
+      super.updateItem(item, empty);
+
+      if (item == null || empty) {
+         unbind();
+         setGraphic(null);
+         return;
+      }
+
+      final ProjectRowModel rowModel = rowModelProvider.apply(item);
+      if (rowModel != boundRowModel) {
+         unbind();
+         bind(rowModel);
+      }
+      deleteMenuItem.setDisable(item.isDefault());
+      setGraphic(pane);
+   }
+
+   private void bind(final ProjectRowModel rowModel) {
+      projectNameLabel.textProperty().bind(rowModel.nameProperty());
+      projectNameLabel.underlineProperty().bind(rowModel.workProperty());
+      projectNameLabel.textFillProperty().bind(Bindings.when(projectNameLabel.hoverProperty())
+            .then(rowModel.colorProperty()).otherwise(rowModel.dimmedColorProperty()));
+      tooltip.textProperty().bind(rowModel.tooltipTextProperty());
+      elapsedTimeLabel.textProperty().bind(rowModel.elapsedTimeProperty());
+      boundRowModel = rowModel;
+   }
+
+   private void unbind() {
+      if (boundRowModel == null) {
+         return;
+      }
+      projectNameLabel.textProperty().unbind();
+      projectNameLabel.underlineProperty().unbind();
+      projectNameLabel.textFillProperty().unbind();
+      tooltip.textProperty().unbind();
+      elapsedTimeLabel.textProperty().unbind();
+      boundRowModel = null;
+   }
+
+}
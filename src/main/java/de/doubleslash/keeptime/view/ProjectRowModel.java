@@ -0,0 +1,101 @@
+// Copyright 2019 doubleSlash Net Business GmbH
+//
+// This file is part of KeepTime.
+// KeepTime is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+
+package de.doubleslash.keeptime.view;
+
+import de.doubleslash.keeptime.model.Project;
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
+import javafx.scene.paint.Color;
+
+/**
+ * View model of one entry in the project list, shared by the main view and the popup through {@link ProjectTimeModel}.
+ * The {@link ProjectListCell} currently showing the project binds to it, so the lists only hold nodes for the visible
+ * rows.
+ */
+class ProjectRowModel {
+
+   private static final double DIM_FACTOR = .6;
+
+   private final Project project;
+
+   private final StringProperty name = new SimpleStringProperty();
+   private final StringProperty tooltipText = new SimpleStringProperty();
+   private final ObjectProperty<Color> color = new SimpleObjectProperty<>();
+   private final ObjectProperty<Color> dimmedColor = new SimpleObjectProperty<>();
+   private final BooleanProperty work = new SimpleBooleanProperty();
+   private final StringProperty elapsedTime = new SimpleStringProperty("");
+
+   ProjectRowModel(final Project project) {
+      this.project = project;
+      update();
+   }
+
+   /**
+    * Takes over the current values of the project, e.g. after it was edited.
+    */
+   void update() {
+      name.set(project.getName());
+      tooltipText.set(createTooltipText(project));
+      final Color projectColor = project.getColor();
+      color.set(projectColor);
+      dimmedColor.set(new Color(projectColor.getRed() * DIM_FACTOR, projectColor.getGreen() * DIM_FACTOR,
+            projectColor.getBlue() * DIM_FACTOR, 1));
+      work.set(project.isWork());
+   }
+
+   private static String createTooltipText(final Project p) {
+      if (p.getDescription() == null || p.getDescription().isEmpty()) {
+         return p.getName();
+      } else {
+         return String.format("%s%n%s", p.getName(), p.getDescription());
+      }
+   }
+
+   Project getProject() {
+      return project;
+   }
+
+   StringProperty nameProperty() {
+      return name;
+   }
+
+   StringProperty tooltipTextProperty() {
+      return tooltipText;
+   }
+
+   ObjectProperty<Color> colorProperty() {
+      return color;
+   }
+
+   ObjectProperty<Color> dimmedColorProperty() {
+      return dimmedColor;
+   }
+
+   BooleanProperty workProperty() {
+      return work;
+   }
+
+   StringProperty elapsedTimeProperty() {
+      return elapsedTime;
+   }
+
+}
@@ -0,0 +1,146 @@
+// Copyright 2019 doubleSlash Net Business GmbH
+//
+// This file is part of KeepTime.
+// KeepTime is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+
+package de.doubleslash.keeptime.view;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import de.doubleslash.keeptime.common.DateFormatter;
+import de.doubleslash.keeptime.model.Model;
+import de.doubleslash.keeptime.model.Project;
+import de.doubleslash.keeptime.model.TodaysTimeAccumulator;
+import de.doubleslash.keeptime.model.Work;
+
+/**
+ * Elapsed time of today per project, shared by the project lists of the main view and the popup. Both bind their
+ * cells to the same {@link ProjectRowModel}s, which are updated once per tick, and only while at least one of the
+ * lists is visible and subscribed.
+ */
+@Component
+public class ProjectTimeModel {
+
+   private static final Logger LOG = LoggerFactory.getLogger(ProjectTimeModel.class);
+
+   private final Model model;
+
+   private final Map<Project, ProjectRowModel> rowModels = new HashMap<>();
+
+   private int subscribers = 0;
+
+   private long labelsVersion = -1;
+   private int labelsCount = -1;
+   private long activeProjectId = -1;
+   private ProjectRowModel activeRowModel;
+   private final DateFormatter.HHMMSSFormatter activeProjectTimeFormatter = new DateFormatter.HHMMSSFormatter();
+
+   @Autowired
+   public ProjectTimeModel(final Model model) {
+      this.model = model;
+   }
+
+   /**
+    * Starts updating the times, e.g. when a project list is shown. The times are updated right away.
+    *
+    * @return subscription to cancel when the project list is hidden again
+    */
+   public Subscription subscribe() {
+      subscribers++;
+      LOG.debug("Subscribed to project times, '{}' subscriber(s).", subscribers);
+      if (subscribers == 1) {
+         // times were not updated while nobody was subscribed
+         labelsVersion = -1;
+      }
+      tick();
+      return new Subscription();
+   }
+
+   /**
+    * Updates the times, if anyone is subscribed. Called each second.
+    */
+   public void tick() {
+      if (subscribers == 0) {
+         return;
+      }
+
+      final TodaysTimeAccumulator accumulator = model.getTodaysTimeAccumulator();
+      if (accumulator.getVersion() == labelsVersion && rowModels.size() == labelsCount) {
+         // only the time of the active project changed
+         if (activeRowModel != null) {
+            final long seconds = accumulator.getTodaysSeconds(activeProjectId);
+            activeRowModel.elapsedTimeProperty().set(activeProjectTimeFormatter.format(seconds));
+         }
+         return;
+      }
+
+      final Work activeWork = accumulator.getActiveWork();
+      activeProjectId = activeWork == null ? -1 : activeWork.getProject().getId();
+      activeRowModel = null;
+      for (final ProjectRowModel rowModel : rowModels.values()) {
+         final long projectId = rowModel.getProject().getId();
+         if (projectId == activeProjectId) {
+            activeRowModel = rowModel;
+         }
+         rowModel.elapsedTimeProperty().set(DateFormatter.secondsToHHMMSS(accumulator.getTodaysSeconds(projectId)));
+      }
+      labelsVersion = accumulator.getVersion();
+      labelsCount = rowModels.size();
+   }
+
+   /**
+    * Row models are only created for projects which were shown at least once. A new row model is filled with the
+    * current time right away, as the cell binds to it immediately.
+    */
+   ProjectRowModel getRowModel(final Project project) {
+      ProjectRowModel rowModel = rowModels.get(project);
+      if (rowModel == null) {
+         rowModel = new ProjectRowModel(project);
+         final long seconds = model.getTodaysTimeAccumulator().getTodaysSeconds(project.getId());
+         rowModel.elapsedTimeProperty().set(DateFormatter.secondsToHHMMSS(seconds));
+         rowModels.put(project, rowModel);
+      }
+      return rowModel;
+   }
+
+   void removeRowModel(final Project project) {
+      rowModels.remove(project);
+   }
+
+   /**
+    * Subscription of a visible project list.
+    */
+   public class Subscription {
+      private boolean cancelled = false;
+
+      /**
+       * Stops updating the times for this subscriber. Calling it again has no effect.
+       */
+      public void cancel() {
+         if (cancelled) {
+            return;
+         }
+         cancelled = true;
+         subscribers--;
+         LOG.debug("Unsubscribed from project times, '{}' subscriber(s).", subscribers);
+      }
+   }
+}
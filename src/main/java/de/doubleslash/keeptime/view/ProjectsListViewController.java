@@ -17,17 +17,12 @@
 package de.doubleslash.keeptime.view;
 
 import java.io.IOException;
-import java.time.Duration;
 import java.util.Comparator;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Optional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import de.doubleslash.keeptime.common.DateFormatter;
 import de.doubleslash.keeptime.common.Resources;
 import de.doubleslash.keeptime.common.Resources.RESOURCE;
 import de.doubleslash.keeptime.controller.Controller;
@@ -35,28 +30,20 @@ import de.doubleslash.keeptime.exceptions.FXMLLoaderException;
 import de.doubleslash.keeptime.model.Model;
 import de.doubleslash.keeptime.model.Project;
 import de.doubleslash.keeptime.model.Work;
-import javafx.collections.transformation.FilteredList;
+import javafx.beans.InvalidationListener;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.fxml.FXMLLoader;
-import javafx.scene.Node;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.ButtonType;
-import javafx.scene.control.ContextMenu;
 import javafx.scene.control.Dialog;
-import javafx.scene.control.Label;
-import javafx.scene.control.ListCell;
 import javafx.scene.control.ListView;
-import javafx.scene.control.MenuItem;
 import javafx.scene.control.MultipleSelectionModel;
 import javafx.scene.control.SelectionMode;
 import javafx.scene.control.TextField;
 import javafx.scene.control.TextInputDialog;
-import javafx.scene.control.Tooltip;
-import javafx.scene.effect.Bloom;
-import javafx.scene.input.MouseButton;
 import javafx.scene.layout.GridPane;
-import javafx.scene.layout.Pane;
-import javafx.scene.paint.Color;
 import javafx.stage.Stage;
 
 public class ProjectsListViewController {
@@ -66,30 +53,34 @@ public class ProjectsListViewController {
    private final Model model;
    private final Controller controller;
    private final Stage mainStage;
-   private final Map<Project, Label> elapsedProjectTimeLabelMap = new HashMap<>();
-   private final Map<Project, Node> projectSelectionNodeMap;
-   private final FilteredList<Project> filteredData;
+   private final ProjectTimeModel projectTimeModel;
+   private final ObservableList<Project> shownProjects = FXCollections.observableArrayList();
 
    private final boolean hideable;
 
-   public ProjectsListViewController(final Model model, final Controller controller, final Stage mainStage,
+   public ProjectsListViewController(final Model model, final Controller controller,
+         final ProjectTimeModel projectTimeModel, final Stage mainStage,
          final ListView<Project> availableProjectsListView, final TextField searchTextField, final boolean hideable) {
       this.model = model;
+      this.projectTimeModel = projectTimeModel;
       this.controller = controller;
       this.hideable = hideable;
       this.mainStage = mainStage;
-      availableProjectsListView.setCellFactory(listView -> returnListCellOfProject());
+      final ProjectListCell.Actions cellActions = createCellActions();
+      availableProjectsListView
+            .setCellFactory(listView -> new ProjectListCell(projectTimeModel::getRowModel, cellActions));
 
-      filteredData = new FilteredList<>(model.getSortedAvailableProjects(), p -> true);
-      availableProjectsListView.setItems(filteredData);
+      availableProjectsListView.setItems(shownProjects);
+      shownProjects.setAll(model.getProjectSearchIndex().search(""));
 
-      projectSelectionNodeMap = new HashMap<>(model.getAvailableProjects().size());
+      // search again if projects were added, removed or reordered
+      model.getSortedAvailableProjects().addListener((InvalidationListener) observable -> shownProjects
+            .setAll(model.getProjectSearchIndex().search(searchTextField.getText())));
 
       searchTextField.textProperty().addListener((a, b, newValue) -> {
          LOG.info("New filter value: " + newValue);
-         // TODO do i always have to create a new predicate?
-         filteredData.setPredicate(project -> doesProjectMatchSearchFilter(newValue, project));
-         LOG.debug("Amount of projects to show '{}'.", filteredData.size());
+         shownProjects.setAll(model.getProjectSearchIndex().search(newValue));
+         LOG.debug("Amount of projects to show '{}'.", shownProjects.size());
          availableProjectsListView.getSelectionModel().selectFirst();
          availableProjectsListView.scrollTo(0);
       });
@@ -133,36 +124,6 @@ public class ProjectsListViewController {
       availableProjectsListView.getSelectionModel().selectFirst();
    }
 
-   static boolean doesProjectMatchSearchFilter(final String searchText, final Project project) {
-      // If filter text is empty, display all data.
-      if (searchText == null || searchText.isEmpty()) {
-         return true;
-      }
-
-      final String lowerCaseFilter = searchText.toLowerCase();
-
-      if (project.getName().toLowerCase().contains(lowerCaseFilter)
-            || project.getDescription().toLowerCase().contains(lowerCaseFilter)) {
-         return true;
-      }
-
-      return false;
-   }
-
-   /**
-    * Update UI
-    */
-   public void tick() {
-      for (final Entry<Project, Label> entry : elapsedProjectTimeLabelMap.entrySet()) {
-         final Project p = entry.getKey();
-         final Label label = entry.getValue();
-
-         final long seconds = model.getPastWorkItems().stream().filter(work -> work.getProject().getId() == p.getId())
-               .mapToLong(work -> Duration.between(work.getStartTime(), work.getEndTime()).getSeconds()).sum();
-         label.setText(DateFormatter.secondsToHHMMSS(seconds));
-      }
-   }
-
    private void changeProject(final Project newProject, final long minusSeconds) {
       if (hideable) {
          mainStage.hide();
@@ -190,12 +151,6 @@ public class ProjectsListViewController {
 
    }
 
-   private void addProjectToProjectSelectionNodeMap(final Project project) {
-      final Node projectElement = createListEntryForProject(project);
-      projectSelectionNodeMap.put(project, projectElement);
-      updateTooltip(project);
-   }
-
    private void realignProjectList() {
       LOG.debug("Sorting project view");
       // TODO changing the model is not ok from here, but the list is not resorted
@@ -204,138 +159,67 @@ public class ProjectsListViewController {
       model.getSortedAvailableProjects().setComparator(comparator);
    }
 
-   private Node createListEntryForProject(final Project p) {
-      final ContextMenu contextMenu = new ContextMenu();
-
-      final FXMLLoader loader = new FXMLLoader();
-      loader.setLocation(Resources.getResource(RESOURCE.FXML_PROJECT_LAYOUT));
-      loader.setControllerFactory(model.getSpringContext()::getBean);
-      Pane projectElement;
-      try {
-         projectElement = loader.load();
-      } catch (final IOException e1) {
-         LOG.error("Could not load '{}'.", loader.getLocation());
-         throw new FXMLLoaderException(e1);
-      }
-
-      final Label projectNameLabel = (Label) projectElement.getChildren().get(0);
-      final Label elapsedTimeLabel = (Label) projectElement.getChildren().get(1);
-      elapsedTimeLabel.textFillProperty().bind(ViewController.fontColorProperty);
-      elapsedProjectTimeLabelMap.put(p, elapsedTimeLabel);
-
-      projectNameLabel.setText(p.getName());
-      projectNameLabel.setUnderline(p.isWork());
-      final Color color = p.getColor();
-      final double dimFactor = .6;
-      final Color dimmedColor = new Color(color.getRed() * dimFactor, color.getGreen() * dimFactor,
-            color.getBlue() * dimFactor, 1);
-      projectNameLabel.setTextFill(dimmedColor);
+   private ProjectListCell.Actions createCellActions() {
+      return new ProjectListCell.Actions() {
 
-      projectNameLabel.setUserData(p);
-      projectNameLabel.setOnContextMenuRequested(
-            event -> contextMenu.show(projectNameLabel, event.getScreenX(), event.getScreenY()));
-
-      projectNameLabel.setOnMouseClicked(a -> {
-
-         final MouseButton button = a.getButton();
-         if (button == MouseButton.PRIMARY) {
-            changeProject(p, 0);
+         @Override
+         public void changeProject(final Project project) {
+            ProjectsListViewController.this.changeProject(project, 0);
          }
 
-      });
-      projectNameLabel.setOnMouseEntered(ae -> {
-         projectNameLabel.setTextFill(p.getColor());
-         final Bloom bloom = new Bloom();
-         bloom.setThreshold(0.3);
-         projectNameLabel.setEffect(bloom);
-      });
-
-      projectNameLabel.setOnMouseExited(ae -> {
-         projectNameLabel.setTextFill(new Color(p.getColor().getRed() * dimFactor, p.getColor().getGreen() * dimFactor,
-               p.getColor().getBlue() * dimFactor, 1));
-         projectNameLabel.setEffect(null);
-      });
-
-      final MenuItem changeWithTimeMenuItem = new MenuItem("Change with time");
-      changeWithTimeMenuItem.setOnAction(e -> {
-         final ChangeWithTimeDialog changeWithTimeDialog = new ChangeWithTimeDialog(model,
-               ViewController.activeWorkSecondsProperty, p);
-         mainStage.setAlwaysOnTop(false);
-         final Optional<Integer> result = changeWithTimeDialog.showAndWait();
-         result.ifPresent(minusSeconds -> changeProject(p, minusSeconds));
-         mainStage.setAlwaysOnTop(true);
-      });
-      final MenuItem deleteMenuItem = new MenuItem("Delete");
-      deleteMenuItem.setDisable(p.isDefault());
-      deleteMenuItem.setOnAction(e -> {
-         LOG.info("Delete");
-
-         final Alert alert = new Alert(AlertType.CONFIRMATION);
-         alert.setTitle("Delete project");
-         alert.setHeaderText("Delete project '" + p.getName() + "'.");
-         alert.setContentText(
-               "The project will just be hidden from display, as there may be work references to this project.");
-
-         mainStage.setAlwaysOnTop(false);
-         final Optional<ButtonType> result = alert.showAndWait();
-         mainStage.setAlwaysOnTop(true);
-
-         result.ifPresent(res -> {
-            if (result.get() == ButtonType.OK) {
-               controller.deleteProject(p);
-               realignProjectList();
-            }
-         });
-      });
+         @Override
+         public void changeProjectWithTime(final Project project) {
+            final ChangeWithTimeDialog changeWithTimeDialog = new ChangeWithTimeDialog(model,
+                  ViewController.activeWorkSecondsProperty, project);
+            mainStage.setAlwaysOnTop(false);
+            final Optional<Integer> result = changeWithTimeDialog.showAndWait();
+            result.ifPresent(minusSeconds -> ProjectsListViewController.this.changeProject(project, minusSeconds));
+            mainStage.setAlwaysOnTop(true);
+         }
 
-      final MenuItem editMenuItem = new MenuItem("Edit");
-      editMenuItem.setOnAction(e -> {
-         // TODO refactor to use "add project" controls
-         LOG.info("Edit project");
-         final Dialog<Project> dialog = setupEditProjectDialog("Edit project", "Edit project '" + p.getName() + "'", p);
-
-         mainStage.setAlwaysOnTop(false);
-         final Optional<Project> result = dialog.showAndWait();
-         mainStage.setAlwaysOnTop(true);
-
-         result.ifPresent(editedProject -> {
-            controller.editProject(p, editedProject);
-
-            projectNameLabel.setText(p.getName());
-            projectNameLabel.setTextFill(new Color(p.getColor().getRed() * dimFactor,
-                  p.getColor().getGreen() * dimFactor, p.getColor().getBlue() * dimFactor, 1));
-            projectNameLabel.setUnderline(p.isWork());
-            projectNameLabel.getTooltip().setText(p.getName());
-
-            // TODO how to update currentProjectLabel when active project was edited?
-            realignProjectList();
-            updateTooltip(p);
-         });
-      });
+         @Override
+         public void editProject(final Project project) {
+            // TODO refactor to use "add project" controls
+            LOG.info("Edit project");
+            final Dialog<Project> dialog = setupEditProjectDialog("Edit project",
+                  "Edit project '" + project.getName() + "'", project);
 
-      // Add MenuItem to ContextMenu
-      contextMenu.getItems().addAll(changeWithTimeMenuItem, editMenuItem, deleteMenuItem);
+            mainStage.setAlwaysOnTop(false);
+            final Optional<Project> result = dialog.showAndWait();
+            mainStage.setAlwaysOnTop(true);
 
-      return projectElement;
-   }
+            result.ifPresent(editedProject -> {
+               controller.editProject(project, editedProject);
+               projectTimeModel.getRowModel(project).update();
 
-   private void updateTooltip(final Project p) {
-      final Pane pane = (Pane) projectSelectionNodeMap.get(p);
-      final Label projectNameLabel = (Label) pane.getChildren().get(0);
-      final String tooltipText = createTooltipTextForProject(p);
-      final Tooltip projectTooltip = projectNameLabel.getTooltip();
-      if (projectTooltip == null) {
-         projectNameLabel.setTooltip(new Tooltip());
-      }
-      projectNameLabel.getTooltip().setText(tooltipText);
-   }
+               // TODO how to update currentProjectLabel when active project was edited?
+               realignProjectList();
+            });
+         }
 
-   private String createTooltipTextForProject(final Project p) {
-      if (p.getDescription() == null || p.getDescription().isEmpty()) {
-         return p.getName();
-      } else {
-         return String.format("%s%n%s", p.getName(), p.getDescription());
-      }
+         @Override
+         public void deleteProject(final Project project) {
+            LOG.info("Delete");
+
+            final Alert alert = new Alert(AlertType.CONFIRMATION);
+            alert.setTitle("Delete project");
+            alert.setHeaderText("Delete project '" + project.getName() + "'.");
+            alert.setContentText(
+                  "The project will just be hidden from display, as there may be work references to this project.");
+
+            mainStage.setAlwaysOnTop(false);
+            final Optional<ButtonType> result = alert.showAndWait();
+            mainStage.setAlwaysOnTop(true);
+
+            result.ifPresent(res -> {
+               if (result.get() == ButtonType.OK) {
+                  controller.deleteProject(project);
+                  projectTimeModel.removeRowModel(project);
+                  realignProjectList();
+               }
+            });
+         }
+      };
    }
 
    private Dialog<Project> setupEditProjectDialog(final String title, final String headerText, final Project project) {
@@ -374,29 +258,4 @@ public class ProjectsListViewController {
       return grid;
    }
 
-   private ListCell<Project> returnListCellOfProject() {
-      return new ListCell<Project>() {
-
-         @Override
-         protected void updateItem(final Project item, final boolean empty) {
-            super.updateItem(item, empty);
-
-            setText("");
-            if (item == null || empty) {
-               setGraphic(null);
-            } else {
-               Node graphic = projectSelectionNodeMap.get(item);
-               if (graphic == null) {
-                  final Project addedProject = item;
-                  addProjectToProjectSelectionNodeMap(addedProject);
-                  graphic = projectSelectionNodeMap.get(item);
-               }
-               LOG.trace("Item: '{}' -> '{}'", item.getName(), graphic);
-               setGraphic(graphic);
-            }
-         }
-
-      };
-   }
-
 }
@@ -18,12 +18,17 @@ package de.doubleslash.keeptime.view;
 
 import java.io.IOException;
 import java.time.LocalDate;
-import java.util.Comparator;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.TemporalAdjusters;
+import java.time.temporal.WeekFields;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
-import java.util.SortedSet;
-import java.util.TreeSet;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,33 +41,38 @@ import de.doubleslash.keeptime.common.DateFormatter;
 import de.doubleslash.keeptime.common.Resources;
 import de.doubleslash.keeptime.common.Resources.RESOURCE;
 import de.doubleslash.keeptime.controller.Controller;
+import de.doubleslash.keeptime.controller.DayReportCache;
+import de.doubleslash.keeptime.controller.PersistenceExecutor;
+import de.doubleslash.keeptime.controller.WorkDailySummaryService;
 import de.doubleslash.keeptime.exceptions.FXMLLoaderException;
+import de.doubleslash.keeptime.model.DayReport;
+import de.doubleslash.keeptime.model.DayReport.ProjectEntry;
 import de.doubleslash.keeptime.model.Model;
 import de.doubleslash.keeptime.model.Project;
+import de.doubleslash.keeptime.model.RangeReport;
+import de.doubleslash.keeptime.model.RangeReport.ProjectTotal;
 import de.doubleslash.keeptime.model.Work;
+import de.doubleslash.keeptime.model.WorkDailySummary;
+import de.doubleslash.keeptime.view.worktable.DayTableRow;
 import de.doubleslash.keeptime.view.worktable.ProjectTableRow;
 import de.doubleslash.keeptime.view.worktable.TableRow;
 import de.doubleslash.keeptime.view.worktable.WorkTableRow;
-import de.jensd.fx.glyphs.fontawesome.FontAwesomeIcon;
-import de.jensd.fx.glyphs.fontawesome.FontAwesomeIconView;
+import javafx.application.Platform;
 import javafx.beans.property.ReadOnlyObjectWrapper;
-import javafx.event.ActionEvent;
-import javafx.event.EventHandler;
+import javafx.beans.value.ChangeListener;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Alert.AlertType;
-import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
+import javafx.scene.control.ChoiceBox;
 import javafx.scene.control.DateCell;
 import javafx.scene.control.DatePicker;
 import javafx.scene.control.Dialog;
 import javafx.scene.control.Label;
-import javafx.scene.control.Tooltip;
 import javafx.scene.control.TreeItem;
-import javafx.scene.control.TreeTableCell;
 import javafx.scene.control.TreeTableColumn;
 import javafx.scene.control.TreeTableView;
 import javafx.scene.control.cell.TreeItemPropertyValueFactory;
@@ -79,6 +89,27 @@ import javafx.util.Callback;
 @Component
 public class ReportController {
 
+   /**
+    * Time span shown by the report.
+    */
+   private enum ReportMode {
+      DAY("Daily report"),
+      WEEK("Weekly report"),
+      MONTH("Monthly report"),
+      RANGE("Custom range");
+
+      private final String text;
+
+      ReportMode(final String text) {
+         this.text = text;
+      }
+
+      @Override
+      public String toString() {
+         return text;
+      }
+   }
+
    public static final String NOTE_DELIMETER = "; ";
 
    public static final String EMPTY_NOTE = "- No notes -";
@@ -92,6 +123,16 @@ public class ReportController {
    @FXML
    private BorderPane topBorderPane;
 
+   @FXML
+   private ChoiceBox<ReportMode> reportModeChoiceBox;
+
+   @FXML
+   private HBox rangeBox;
+   @FXML
+   private DatePicker rangeFromDatePicker;
+   @FXML
+   private DatePicker rangeToDatePicker;
+
    @FXML
    private Label currentDayLabel;
    @FXML
@@ -114,18 +155,48 @@ public class ReportController {
 
    private final Controller controller;
 
+   private final DayReportCache dayReportCache;
+
+   private final WorkDailySummaryService workDailySummaryService;
+
+   private final PersistenceExecutor persistenceExecutor;
+
    private Stage stage;
 
    private ColorTimeLine colorTimeLine;
 
    private LocalDate currentReportDate;
 
+   private ReportMode reportMode = ReportMode.DAY;
+
+   private TreeTableColumn<TableRow, TableRow> controlsColumn;
+
+   private DatePicker datePicker;
+
    private final TreeItem<TableRow> rootItem = new TreeItem<>();
 
+   private Label loadingPlaceholder;
+
+   /** increased for every shown report, so reports loaded in the background are only shown if still selected **/
+   private long reportRequest;
+
+   /** rows of the shown projects by project id **/
+   private final Map<Long, TreeItem<TableRow>> projectRowsById = new HashMap<>();
+
+   /** work items of the shown day, sorted by start time **/
+   private final List<Work> currentWorkItems = new ArrayList<>();
+
+   /** worked seconds per day, loaded once per month for the calendar cells **/
+   private final Map<YearMonth, Map<LocalDate, Long>> workedSecondsPerMonth = new HashMap<>();
+
    @Autowired
-   public ReportController(final Model model, final Controller controller) {
+   public ReportController(final Model model, final Controller controller, final DayReportCache dayReportCache,
+         final WorkDailySummaryService workDailySummaryService, final PersistenceExecutor persistenceExecutor) {
       this.model = model;
       this.controller = controller;
+      this.dayReportCache = dayReportCache;
+      this.workDailySummaryService = workDailySummaryService;
+      this.persistenceExecutor = persistenceExecutor;
    }
 
    @FXML
@@ -135,32 +206,13 @@ public class ReportController {
 
       colorTimeLine = new ColorTimeLine(colorTimeLineCanvas);
       initTableView();
+      initCalenderWidget();
+      initReportModes();
    }
 
    private void initTableView() {
       final TreeTableColumn<TableRow, TableRow> noteColumn = new TreeTableColumn<>("Notes");
-      noteColumn.setCellFactory(new Callback<TreeTableColumn<TableRow, TableRow>, TreeTableCell<TableRow, TableRow>>() {
-         @Override
-         public TreeTableCell<TableRow, TableRow> call(final TreeTableColumn<TableRow, TableRow> column) {
-            return new TreeTableCell<TableRow, TableRow>() {
-               @Override
-               protected void updateItem(final TableRow item, final boolean empty) {
-                  super.updateItem(item, empty);
-                  if (item == null || empty) {
-                     setGraphic(null);
-                     setText(null);
-                  } else {
-                     final String notes = item.getNotes();
-                     final Label label = new Label(notes.isEmpty() ? EMPTY_NOTE : notes);
-                     label.setUnderline(item.isUnderlined());
-                     label.setTooltip(new Tooltip(notes));
-                     this.setGraphic(label);
-                  }
-               }
-            };
-         }
-
-      });
+      noteColumn.setCellFactory(column -> new ReportNotesCell());
       noteColumn.setCellValueFactory(
             (final TreeTableColumn.CellDataFeatures<TableRow, TableRow> entry) -> new ReadOnlyObjectWrapper<>(
                   entry.getValue().getValue()));
@@ -180,14 +232,20 @@ public class ReportController {
       timeSumColumn.impl_setReorderable(false);
       this.workTableTreeView.getColumns().add(timeSumColumn);
 
-      final TreeTableColumn<TableRow, Button> buttonColumn = new TreeTableColumn<>("Controls");
-      buttonColumn.setCellValueFactory(new TreeItemPropertyValueFactory<TableRow, Button>("buttonBox"));
+      final TreeTableColumn<TableRow, TableRow> buttonColumn = new TreeTableColumn<>("Controls");
+      controlsColumn = buttonColumn;
+      final ReportControlsCell.Actions cellActions = createCellActions();
+      buttonColumn.setCellFactory(column -> new ReportControlsCell(cellActions));
+      buttonColumn.setCellValueFactory(
+            (final TreeTableColumn.CellDataFeatures<TableRow, TableRow> entry) -> new ReadOnlyObjectWrapper<>(
+                  entry.getValue().getValue()));
       buttonColumn.setMinWidth(100);
       buttonColumn.setSortable(false);
       buttonColumn.impl_setReorderable(false);
       this.workTableTreeView.getColumns().add(buttonColumn);
 
       workTableTreeView.setShowRoot(false);
+      loadingPlaceholder = new Label("Loading report...");
 
       workTableTreeView.setRoot(rootItem);
       rootItem.setExpanded(true);
@@ -195,76 +253,308 @@ public class ReportController {
 
    private void updateReport(final LocalDate dateToShow) {
       this.currentReportDate = dateToShow;
-      rootItem.getChildren().clear();
+      // does nothing if the date was selected in the calendar
+      datePicker.setValue(dateToShow);
       reportRoot.requestFocus();
 
+      controlsColumn.setVisible(reportMode == ReportMode.DAY);
+      if (reportMode == ReportMode.DAY) {
+         showDayReport();
+      } else {
+         showRangeReport();
+      }
+   }
+
+   private void showDayReport() {
+      final long request = ++reportRequest;
       this.currentDayLabel.setText(DateFormatter.toDayDateString(this.currentReportDate));
-      final List<Work> currentWorkItems = model.getWorkRepository()
-            .findByStartDateOrderByStartTimeAsc(this.currentReportDate);
+      final CompletableFuture<DayReport> dayReport = dayReportCache.get(this.currentReportDate);
+      final DayReport cachedReport = dayReport.getNow(null);
+      if (cachedReport != null) {
+         showDayReport(cachedReport);
+      } else {
+         showLoadingReport();
+         dayReport.thenAccept(loadedReport -> Platform.runLater(() -> {
+            // another report may have been selected while loading
+            if (request == reportRequest) {
+               showDayReport(loadedReport);
+            }
+         }));
+      }
 
-      colorTimeLine.update(currentWorkItems, controller.calcSeconds(currentWorkItems));
+      // the neighbours are most likely shown next
+      dayReportCache.prefetch(this.currentReportDate.minusDays(1));
+      dayReportCache.prefetch(this.currentReportDate.plusDays(1));
+   }
 
-      final SortedSet<Project> workedProjectsSet = currentWorkItems.stream().map(Work::getProject)
-            .collect(Collectors.toCollection(() -> new TreeSet<>(Comparator.comparing(Project::getIndex))));
+   private void showDayReport(final DayReport dayReport) {
+      workTableTreeView.setPlaceholder(null);
+      currentWorkItems.clear();
+      currentWorkItems.addAll(dayReport.getWorkItems());
+      colorTimeLine.update(currentWorkItems, dayReport.getTotalSeconds());
+
+      final List<TreeItem<TableRow>> projectRows = new ArrayList<>(dayReport.getProjectEntries().size());
+      projectRowsById.clear();
+      for (final ProjectEntry projectEntry : dayReport.getProjectEntries()) {
+         final Project project = projectEntry.getProject();
+         final TreeItem<TableRow> projectRow = createProjectRow(project, projectEntry.getSeconds());
+         for (final Work w : projectEntry.getWorkItems()) {
+            projectRow.getChildren().add(createWorkRow(w));
+         }
+         projectRowsById.put(project.getId(), projectRow);
+         projectRows.add(projectRow);
+      }
+      rootItem.getChildren().setAll(projectRows);
 
-      long currentWorkSeconds = 0;
-      long currentSeconds = 0;
+      this.currentDayTimeLabel.setText(DateFormatter.secondsToHHMMSS(dayReport.getTotalSeconds()));
+      this.currentDayWorkTimeLabel.setText(DateFormatter.secondsToHHMMSS(dayReport.getWorkSeconds()));
+   }
+
+   /**
+    * Empties the report until the report to show is loaded in the background.
+    */
+   private void showLoadingReport() {
+      currentWorkItems.clear();
+      projectRowsById.clear();
+      colorTimeLine.update(currentWorkItems, 0);
+      rootItem.getChildren().clear();
+      workTableTreeView.setPlaceholder(loadingPlaceholder);
+      this.currentDayTimeLabel.setText("");
+      this.currentDayWorkTimeLabel.setText("");
+   }
+
+   private void showRangeReport() {
+      final long request = ++reportRequest;
+      LocalDate firstDay;
+      LocalDate lastDay;
+      switch (reportMode) {
+      case WEEK:
+         firstDay = currentReportDate.with(WeekFields.of(Locale.getDefault()).dayOfWeek(), 1);
+         lastDay = firstDay.plusDays(6);
+         break;
+      case MONTH:
+         firstDay = currentReportDate.withDayOfMonth(1);
+         lastDay = currentReportDate.with(TemporalAdjusters.lastDayOfMonth());
+         break;
+      default:
+         firstDay = rangeFromDatePicker.getValue();
+         lastDay = rangeToDatePicker.getValue();
+         if (firstDay.isAfter(lastDay)) {
+            final LocalDate swap = firstDay;
+            firstDay = lastDay;
+            lastDay = swap;
+         }
+         break;
+      }
+
+      this.currentDayLabel.setText(DateFormatter.toDateString(firstDay) + " - " + DateFormatter.toDateString(lastDay));
+      showLoadingReport();
+
+      final Work activeWork = model.activeWorkItem.get();
+      if (activeWork != null && !lastDay.isBefore(activeWork.getStartTime().toLocalDate())) {
+         // the summary only contains the active work up to its last save. The query is queued behind this save
+         controller.saveCurrentWork(LocalDateTime.now());
+      }
+
+      final LocalDate rangeStart = firstDay;
+      final LocalDate rangeEnd = lastDay;
+      persistenceExecutor
+            .query("load summary from " + rangeStart + " to " + rangeEnd,
+                  () -> workDailySummaryService.findDailySummaries(rangeStart, rangeEnd))
+            .thenAccept(dailySummaries -> Platform.runLater(() -> {
+               // another report may have been selected while loading
+               if (request == reportRequest) {
+                  showRangeReport(RangeReport.of(rangeStart, rangeEnd, dailySummaries, model.getAllProjects()));
+               }
+            }));
+   }
+
+   private void showRangeReport(final RangeReport rangeReport) {
+      workTableTreeView.setPlaceholder(null);
+      currentWorkItems.clear();
+      projectRowsById.clear();
+      colorTimeLine.update(rangeReport);
+
+      final List<TreeItem<TableRow>> projectRows = new ArrayList<>(rangeReport.getProjectTotals().size());
+      for (final ProjectTotal projectTotal : rangeReport.getProjectTotals()) {
+         final TreeItem<TableRow> projectRow = createProjectRow(projectTotal.getProject(),
+               projectTotal.getTotalSeconds());
+         for (final WorkDailySummary summary : projectTotal.getDailySummaries()) {
+            projectRow.getChildren()
+                  .add(new TreeItem<>(new DayTableRow(summary.getWorkDate(), summary.getTotalSeconds())));
+         }
+         // days are only shown on demand
+         projectRow.setExpanded(false);
+         projectRows.add(projectRow);
+      }
+      rootItem.getChildren().setAll(projectRows);
 
-      for (final Project project : workedProjectsSet) {
-         final List<Work> onlyCurrentProjectWork = currentWorkItems.stream().filter(w -> w.getProject() == project)
-               .collect(Collectors.toList());
+      this.currentDayTimeLabel.setText(DateFormatter.secondsToHHMMSS(rangeReport.getTotalSeconds()));
+      this.currentDayWorkTimeLabel.setText(DateFormatter.secondsToHHMMSS(rangeReport.getWorkSeconds()));
+   }
 
-         final long projectWorkSeconds = controller.calcSeconds(onlyCurrentProjectWork);
+   private void initReportModes() {
+      reportModeChoiceBox.getItems().setAll(ReportMode.values());
+      reportModeChoiceBox.setValue(reportMode);
+      reportModeChoiceBox.valueProperty().addListener((observable, oldMode, newMode) -> {
+         LOG.info("Report mode changed to {}", newMode);
+         if (newMode == ReportMode.RANGE && rangeFromDatePicker.getValue() == null) {
+            // before switching the mode, so the range listener does not show a half set range
+            rangeFromDatePicker.setValue(currentReportDate.withDayOfMonth(1));
+            rangeToDatePicker.setValue(currentReportDate);
+         }
+         reportMode = newMode;
+         rangeBox.setVisible(newMode == ReportMode.RANGE);
+         updateReport(currentReportDate);
+      });
 
-         currentSeconds += projectWorkSeconds;
-         if (project.isWork()) {
-            currentWorkSeconds += projectWorkSeconds;
+      rangeBox.managedProperty().bind(rangeBox.visibleProperty());
+      rangeBox.setVisible(false);
+      final ChangeListener<LocalDate> rangeListener = (observable, oldDay, newDay) -> {
+         if (reportMode == ReportMode.RANGE && newDay != null) {
+            updateReport(currentReportDate);
          }
+      };
+      rangeFromDatePicker.valueProperty().addListener(rangeListener);
+      rangeToDatePicker.valueProperty().addListener(rangeListener);
+   }
 
-         final HBox projectButtonBox = new HBox();
-         projectButtonBox.getChildren().add(createCopyProjectButton(onlyCurrentProjectWork));
+   private TreeItem<TableRow> createProjectRow(final Project project, final long projectWorkSeconds) {
+      final TreeItem<TableRow> projectRow = new TreeItem<>(new ProjectTableRow(project, projectWorkSeconds),
+            new Circle(6, project.getColor()));
+      projectRow.setExpanded(true);
+      return projectRow;
+   }
 
-         final Circle circle = new Circle(6, project.getColor());
+   private TreeItem<TableRow> createWorkRow(final Work w) {
+      return new TreeItem<>(new WorkTableRow(w));
+   }
 
-         final TreeItem<TableRow> projectRow = new TreeItem<>(
-               new ProjectTableRow(project, projectWorkSeconds, projectButtonBox), circle);
+   /**
+    * Removes the row of the given work and updates the sum of its project. The project row is removed if it has no
+    * work left.
+    */
+   private void removeWorkRow(final Work work) {
+      currentWorkItems.removeIf(w -> w == work);
+
+      // the project of the work may already be changed, so search all projects
+      for (final TreeItem<TableRow> projectRow : projectRowsById.values()) {
+         if (projectRow.getChildren().removeIf(workRow -> workOf(workRow) == work)) {
+            final Project project = projectOf(projectRow);
+            if (projectRow.getChildren().isEmpty()) {
+               projectRowsById.remove(project.getId());
+               rootItem.getChildren().remove(projectRow);
+            } else {
+               updateProjectRowSum(projectRow);
+            }
+            return;
+         }
+      }
+   }
 
-         for (final Work w : onlyCurrentProjectWork) {
-            final HBox workButtonBox = new HBox(5.0);
-            workButtonBox.getChildren().add(createCopyWorkButton(w));
-            workButtonBox.getChildren().add(createEditWorkButton(w));
-            workButtonBox.getChildren().add(createDeleteWorkButton(w));
-            final TreeItem<TableRow> workRow = new TreeItem<>(new WorkTableRow(w, workButtonBox));
-            projectRow.getChildren().add(workRow);
+   /**
+    * Adds a row for the given work, sorted by start time, and updates the sum of its project.
+    */
+   private void addWorkRow(final Work work) {
+      currentWorkItems.add(indexByStartTime(currentWorkItems, work), work);
+
+      final Project project = work.getProject();
+      TreeItem<TableRow> projectRow = projectRowsById.get(project.getId());
+      if (projectRow == null) {
+         projectRow = createProjectRow(project, 0);
+         projectRowsById.put(project.getId(), projectRow);
+         int index = 0;
+         while (index < rootItem.getChildren().size()
+               && projectOf(rootItem.getChildren().get(index)).getIndex() < project.getIndex()) {
+            index++;
          }
+         rootItem.getChildren().add(index, projectRow);
+      }
 
-         projectRow.setExpanded(true);
-         rootItem.getChildren().add(projectRow);
+      final List<Work> projectWorkItems = workItemsOf(projectRow);
+      projectRow.getChildren().add(indexByStartTime(projectWorkItems, work), createWorkRow(work));
+      updateProjectRowSum(projectRow);
+   }
 
+   private void updateProjectRowSum(final TreeItem<TableRow> projectRow) {
+      final ProjectTableRow oldValue = (ProjectTableRow) projectRow.getValue();
+      projectRow
+            .setValue(new ProjectTableRow(oldValue.getProject(), controller.calcSeconds(workItemsOf(projectRow))));
+   }
+
+   /**
+    * Updates labels and time line after rows were patched.
+    */
+   private void updateDaySums() {
+      long currentSeconds = 0;
+      long currentWorkSeconds = 0;
+      for (final Work work : currentWorkItems) {
+         final long seconds = DateFormatter.getSecondsBewtween(work.getStartTime(), work.getEndTime());
+         currentSeconds += seconds;
+         if (work.getProject().isWork()) {
+            currentWorkSeconds += seconds;
+         }
       }
 
+      colorTimeLine.update(currentWorkItems, currentSeconds);
       this.currentDayTimeLabel.setText(DateFormatter.secondsToHHMMSS(currentSeconds));
       this.currentDayWorkTimeLabel.setText(DateFormatter.secondsToHHMMSS(currentWorkSeconds));
+   }
+
+   /**
+    * The given days may have become (not) worked days, so the calendar has to ask for them again.
+    */
+   private void updateWorkedDays(final LocalDate... days) {
+      for (final LocalDate day : days) {
+         workedSecondsPerMonth.remove(YearMonth.from(day));
+      }
+      refreshCalenderWidget();
+   }
+
+   private static int indexByStartTime(final List<Work> sortedWorkItems, final Work work) {
+      int index = 0;
+      while (index < sortedWorkItems.size()
+            && !sortedWorkItems.get(index).getStartTime().isAfter(work.getStartTime())) {
+         index++;
+      }
+      return index;
+   }
 
-      loadCalenderWidget();
+   private static Project projectOf(final TreeItem<TableRow> projectRow) {
+      return ((ProjectTableRow) projectRow.getValue()).getProject();
+   }
+
+   private static Work workOf(final TreeItem<TableRow> workRow) {
+      return ((WorkTableRow) workRow.getValue()).getWork();
+   }
 
+   private static List<Work> workItemsOf(final TreeItem<TableRow> projectRow) {
+      final List<Work> workItems = new ArrayList<>(projectRow.getChildren().size());
+      for (final TreeItem<TableRow> workRow : projectRow.getChildren()) {
+         workItems.add(workOf(workRow));
+      }
+      return workItems;
    }
 
-   private void loadCalenderWidget() {
-      final DatePicker myDatePicker = new DatePicker(this.currentReportDate);
-      myDatePicker.valueProperty().addListener((observable, oldvalue, newvalue) -> {
+   private void initCalenderWidget() {
+      datePicker = new DatePicker(this.currentReportDate);
+      datePicker.valueProperty().addListener((observable, oldvalue, newvalue) -> {
+         // value is only null while the calendar is refreshed
+         if (newvalue == null || newvalue.equals(currentReportDate)) {
+            return;
+         }
          LOG.info("Datepicker selected value changed to {}", newvalue);
          updateReport(newvalue);
       });
 
       // HACK to show calendar from datepicker
       // https://stackoverflow.com/questions/34681975/javafx-extract-calendar-popup-from-datepicker-only-show-popup
-      final DatePickerSkin datePickerSkin = new DatePickerSkin(myDatePicker);
+      final DatePickerSkin datePickerSkin = new DatePickerSkin(datePicker);
       final Callback<DatePicker, DateCell> dayCellFactory = callback -> new DateCell() {
          @Override
          public void updateItem(final LocalDate item, final boolean empty) {
             super.updateItem(item, empty);
-            if (model.getWorkRepository().findByStartDateOrderByStartTimeAsc(item).isEmpty()) {
+            if (!isWorkedDay(item)) {
                setDisable(true);
                setStyle(FX_BACKGROUND_COLOR_NOT_WORKED);
             } else {
@@ -275,49 +565,89 @@ public class ReportController {
 
       };
 
-      myDatePicker.setDayCellFactory(dayCellFactory);
+      datePicker.setDayCellFactory(dayCellFactory);
       final Node popupContent = datePickerSkin.getPopupContent();
       this.topBorderPane.setRight(popupContent);
+   }
 
+   /**
+    * Lets the calendar ask again which days were worked. The cells are only updated when the value changes.
+    */
+   private void refreshCalenderWidget() {
+      datePicker.setValue(null);
+      datePicker.setValue(currentReportDate);
    }
 
-   private Button createDeleteWorkButton(final Work w) {
-      final Button deleteButton = new Button("", new FontAwesomeIconView(FontAwesomeIcon.TRASH));
-      deleteButton.setOnAction(e -> {
-         LOG.info("Delete work clicked.");
-         final Alert alert = new Alert(AlertType.CONFIRMATION);
-         alert.setTitle("Delete Work");
-         alert.setHeaderText("Delete work item");
-         alert.setContentText(w.toString());
-         alert.initOwner(stage);
-
-         final Optional<ButtonType> result = alert.showAndWait();
-
-         result.ifPresent(buType -> {
-            if (buType.equals(ButtonType.OK)) {
-               controller.deleteWork(w);
-               this.update();
-            }
-         });
-      });
-      return deleteButton;
+   private boolean isWorkedDay(final LocalDate day) {
+      final Map<LocalDate, Long> workedSecondsOfMonth = workedSecondsPerMonth.computeIfAbsent(YearMonth.from(day),
+            month -> model.getWorkRepository().findWorkedSecondsPerDay(month.atDay(1), month.atEndOfMonth()));
+      return workedSecondsOfMonth.containsKey(day);
    }
 
-   private Button createEditWorkButton(final Work work) {
-      final Button editButton = new Button("", new FontAwesomeIconView(FontAwesomeIcon.PENCIL));
-      editButton.setOnAction(e -> {
-         LOG.info("Edit work clicked.");
-         final Dialog<Work> dialog = setupEditWorkDialog(work);
+   private ReportControlsCell.Actions createCellActions() {
+      return new ReportControlsCell.Actions() {
 
-         final Optional<Work> result = dialog.showAndWait();
+         @Override
+         public void copyProjectNotes(final TreeItem<TableRow> projectRow) {
+            LOG.debug("Copy to Clipboard clicked.");
+            final List<Work> projectWork = workItemsOf(projectRow);
+            final ProjectReport pr = new ProjectReport(projectWork.size());
+            for (int j = 0; j < projectWork.size(); j++) {
+               final Work work = projectWork.get(j);
+               final String currentWorkNote = work.getNotes();
+               pr.appendToWorkNotes(currentWorkNote);
+            }
+            copyToClipboard(pr.getNotes(true));
+         }
 
-         result.ifPresent(editedWork -> {
-            controller.editWork(work, editedWork);
+         @Override
+         public void copyWorkNotes(final Work work) {
+            LOG.debug("Copy to Clipboard clicked.");
+            copyToClipboard(work.getNotes());
+         }
 
-            this.update();
-         });
-      });
-      return editButton;
+         @Override
+         public void editWork(final Work work) {
+            LOG.info("Edit work clicked.");
+            final Dialog<Work> dialog = setupEditWorkDialog(work);
+
+            final Optional<Work> result = dialog.showAndWait();
+
+            result.ifPresent(editedWork -> {
+               final LocalDate previousStartDay = work.getStartTime().toLocalDate();
+               controller.editWork(work, editedWork);
+
+               removeWorkRow(work);
+               final LocalDate startDay = work.getStartTime().toLocalDate();
+               if (startDay.equals(currentReportDate)) {
+                  addWorkRow(work);
+               }
+               updateDaySums();
+               updateWorkedDays(previousStartDay, startDay);
+            });
+         }
+
+         @Override
+         public void deleteWork(final Work work) {
+            LOG.info("Delete work clicked.");
+            final Alert alert = new Alert(AlertType.CONFIRMATION);
+            alert.setTitle("Delete Work");
+            alert.setHeaderText("Delete work item");
+            alert.setContentText(work.toString());
+            alert.initOwner(stage);
+
+            final Optional<ButtonType> result = alert.showAndWait();
+
+            result.ifPresent(buType -> {
+               if (buType.equals(ButtonType.OK)) {
+                  controller.deleteWork(work);
+                  removeWorkRow(work);
+                  updateDaySums();
+                  updateWorkedDays(work.getStartTime().toLocalDate());
+               }
+            });
+         }
+      };
    }
 
    private Dialog<Work> setupEditWorkDialog(final Work work) {
@@ -360,41 +690,17 @@ public class ReportController {
       return grid;
    }
 
-   private Button createCopyProjectButton(final List<Work> projectWork) {
-      final Button copyButton = new Button("", new FontAwesomeIconView(FontAwesomeIcon.CLIPBOARD));
-      final EventHandler<ActionEvent> eventListener = actionEvent -> {
-         LOG.debug("Copy to Clipboard clicked.");
-         final ProjectReport pr = new ProjectReport(projectWork.size());
-         for (int j = 0; j < projectWork.size(); j++) {
-            final Work work = projectWork.get(j);
-            final String currentWorkNote = work.getNotes();
-            pr.appendToWorkNotes(currentWorkNote);
-         }
-         final Clipboard clipboard = Clipboard.getSystemClipboard();
-         final ClipboardContent content = new ClipboardContent();
-         content.putString(pr.getNotes(true));
-         clipboard.setContent(content);
-      };
-
-      copyButton.setOnAction(eventListener);
-      return copyButton;
-   }
-
-   private Node createCopyWorkButton(final Work w) {
-      final Button copyButton = new Button("", new FontAwesomeIconView(FontAwesomeIcon.CLIPBOARD));
-      final EventHandler<ActionEvent> eventListener = actionEvent -> {
-         LOG.debug("Copy to Clipboard clicked.");
-         final Clipboard clipboard = Clipboard.getSystemClipboard();
-         final ClipboardContent content = new ClipboardContent();
-         content.putString(w.getNotes());
-         clipboard.setContent(content);
-      };
-
-      copyButton.setOnAction(eventListener);
-      return copyButton;
+   private void copyToClipboard(final String text) {
+      final Clipboard clipboard = Clipboard.getSystemClipboard();
+      final ClipboardContent content = new ClipboardContent();
+      content.putString(text);
+      clipboard.setContent(content);
    }
 
    public void update() {
+      // work may have changed since the calendar was loaded
+      workedSecondsPerMonth.clear();
+      refreshCalenderWidget();
       updateReport(this.currentReportDate);
    }
 
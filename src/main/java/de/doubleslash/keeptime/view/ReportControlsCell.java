@@ -0,0 +1,89 @@
+// Copyright 2019 doubleSlash Net Business GmbH
+//
+// This file is part of KeepTime.
+// KeepTime is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+
+package de.doubleslash.keeptime.view;
+
+import de.doubleslash.keeptime.model.Work;
+import de.doubleslash.keeptime.view.worktable.TableRow;
+import de.doubleslash.keeptime.view.worktable.WorkTableRow;
+import de.jensd.fx.glyphs.fontawesome.FontAwesomeIcon;
+import de.jensd.fx.glyphs.fontawesome.FontAwesomeIconView;
+import javafx.scene.control.Button;
+import javafx.scene.control.TreeItem;
+import javafx.scene.control.TreeTableCell;
+import javafx.scene.layout.HBox;
+
+/**
+ * Recycled controls cell of the report. The buttons are built once per cell and act on whatever row the table
+ * currently assigns to the cell.
+ */
+class ReportControlsCell extends TreeTableCell<TableRow, TableRow> {
+
+   /**
+    * Actions triggered from a cell.
+    */
+   interface Actions {
+      void copyProjectNotes(TreeItem<TableRow> projectRow);
+
+      void copyWorkNotes(Work work);
+
+      void editWork(Work work);
+
+      void deleteWork(Work work);
+   }
+
+   private final HBox projectButtonBox;
+
+   private final HBox workButtonBox;
+
+   ReportControlsCell(final Actions actions) {
+      final Button copyProjectButton = createButton(FontAwesomeIcon.CLIPBOARD);
+      copyProjectButton.setOnAction(e -> actions.copyProjectNotes(getTreeTableRow().getTreeItem()));
+      projectButtonBox = new HBox(copyProjectButton);
+
+      final Button copyWorkButton = createButton(FontAwesomeIcon.CLIPBOARD);
+      copyWorkButton.setOnAction(e -> actions.copyWorkNotes(getWork()));
+      final Button editButton = createButton(FontAwesomeIcon.PENCIL);
+      editButton.setOnAction(e -> actions.editWork(getWork()));
+      final Button deleteButton = createButton(FontAwesomeIcon.TRASH);
+      deleteButton.setOnAction(e -> actions.deleteWork(getWork()));
+      workButtonBox = new HBox(5.0, copyWorkButton, editButton, deleteButton);
+   }
+
+   @Override
+   protected void updateItem(final TableRow item, final boolean empty) {
+      super.updateItem(item, empty);
+      setText(null);
+
+      if (item == null || empty) {
+         setGraphic(null);
+      } else if (item instanceof WorkTableRow) {
+         setGraphic(workButtonBox);
+      } else {
+         setGraphic(projectButtonBox);
+      }
+   }
+
+   private Work getWork() {
+      return ((WorkTableRow) getItem()).getWork();
+   }
+
+   private static Button createButton(final FontAwesomeIcon icon) {
+      return new Button("", new FontAwesomeIconView(icon));
+   }
+
+}
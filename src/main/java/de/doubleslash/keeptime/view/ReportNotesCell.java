@@ -0,0 +1,70 @@
+// Copyright 2019 doubleSlash Net Business GmbH
+//
+// This file is part of KeepTime.
+// KeepTime is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+
+package de.doubleslash.keeptime.view;
+
+import de.doubleslash.keeptime.view.worktable.TableRow;
+import javafx.scene.control.Label;
+import javafx.scene.control.Tooltip;
+import javafx.scene.control.TreeTableCell;
+
+/**
+ * Recycled notes cell of the report. The label is built once per cell, the tooltip only when the mouse enters a cell
+ * with notes.
+ */
+class ReportNotesCell extends TreeTableCell<TableRow, TableRow> {
+
+   private final Label label = new Label();
+
+   private Tooltip tooltip;
+
+   ReportNotesCell() {
+      setOnMouseEntered(event -> installTooltip());
+   }
+
+   @Override
+   protected void updateItem(final TableRow item, final boolean empty) {
+      super.updateItem(item, empty);
+      setText(null);
+      // installed again on hover, with the notes of the new item
+      setTooltip(null);
+
+      if (item == null || empty) {
+         setGraphic(null);
+         return;
+      }
+
+      final String notes = item.getNotes();
+      label.setText(notes.isEmpty() ? ReportController.EMPTY_NOTE : notes);
+      label.setUnderline(item.isUnderlined());
+      setGraphic(label);
+   }
+
+   private void installTooltip() {
+      final TableRow item = getItem();
+      if (item == null || isEmpty() || getTooltip() != null || item.getNotes().isEmpty()) {
+         return;
+      }
+
+      if (tooltip == null) {
+         tooltip = new Tooltip();
+      }
+      tooltip.setText(item.getNotes());
+      setTooltip(tooltip);
+   }
+
+}
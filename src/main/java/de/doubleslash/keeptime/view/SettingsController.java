@@ -19,9 +19,7 @@ package de.doubleslash.keeptime.view;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Paths;
-import java.sql.SQLException;
 
-import org.h2.tools.Script;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -32,9 +30,12 @@ import de.doubleslash.keeptime.common.OS;
 import de.doubleslash.keeptime.common.Resources;
 import de.doubleslash.keeptime.common.Resources.RESOURCE;
 import de.doubleslash.keeptime.controller.Controller;
+import de.doubleslash.keeptime.controller.DatabaseExporter;
 import de.doubleslash.keeptime.exceptions.FXMLLoaderException;
 import de.doubleslash.keeptime.model.Model;
 import de.doubleslash.keeptime.model.Settings;
+import de.doubleslash.keeptime.viewpopup.ChordMatcher;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -42,9 +43,13 @@ import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.Button;
+import javafx.scene.control.ButtonType;
 import javafx.scene.control.CheckBox;
 import javafx.scene.control.ColorPicker;
+import javafx.scene.control.Dialog;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.control.TextField;
 import javafx.scene.layout.AnchorPane;
 import javafx.scene.layout.Region;
 import javafx.scene.paint.Color;
@@ -83,6 +88,10 @@ public class SettingsController {
    @FXML
    private CheckBox useHotkeyCheckBox;
    @FXML
+   private Label popupHotkeyLabel;
+   @FXML
+   private TextField popupHotkeyTextField;
+   @FXML
    private CheckBox displayProjectsRightCheckBox;
    @FXML
    private CheckBox hideProjectsOnMouseExitCheckBox;
@@ -117,6 +126,7 @@ public class SettingsController {
    private final Controller controller;
    private final Model model;
    private final ApplicationProperties applicationProperties;
+   private final DatabaseExporter databaseExporter;
 
    private Stage thisStage;
 
@@ -127,10 +137,11 @@ public class SettingsController {
 
    @Autowired
    public SettingsController(final Model model, final Controller controller,
-         ApplicationProperties applicationProperties) {
+         ApplicationProperties applicationProperties, final DatabaseExporter databaseExporter) {
       this.model = model;
       this.controller = controller;
       this.applicationProperties = applicationProperties;
+      this.databaseExporter = databaseExporter;
    }
 
    @FXML
@@ -145,6 +156,8 @@ public class SettingsController {
       if (OS.isLinux()) {
          LOG.info("Disabling unsupported settings for Linux.");
          useHotkeyCheckBox.setDisable(true);
+         popupHotkeyLabel.setDisable(true);
+         popupHotkeyTextField.setDisable(true);
          hotkeyLabel.setDisable(true);
          globalKeyloggerLabel.setDisable(true);
       }
@@ -194,6 +207,17 @@ public class SettingsController {
             }
          }
 
+         final String popupHotkey = popupHotkeyTextField.getText().trim();
+         if (!ChordMatcher.isValid(popupHotkey)) {
+            final Alert alert = new Alert(AlertType.ERROR);
+            alert.setTitle("Invalid hotkey");
+            alert.setHeaderText("The hotkey '" + popupHotkey + "' is invalid.");
+            alert.setContentText(
+                  "Please enter raw key codes joined by '+', e.g. '162+91'. Separate alternative hotkeys by ','.");
+            alert.showAndWait();
+            return;
+         }
+
          if (saveWindowPositionCheckBox.isSelected()) {
             // UPDATE POSITION
             mainscreen.savePosition();
@@ -204,7 +228,7 @@ public class SettingsController {
                useHotkeyCheckBox.isSelected(), displayProjectsRightCheckBox.isSelected(),
                hideProjectsOnMouseExitCheckBox.isSelected(), model.screenSettings.proportionalX.get(),
                model.screenSettings.proportionalY.get(), model.screenSettings.screenHash.get(),
-               saveWindowPositionCheckBox.isSelected(), emptyNoteReminderCheckBox.isSelected()));
+               saveWindowPositionCheckBox.isSelected(), emptyNoteReminderCheckBox.isSelected(), popupHotkey));
          thisStage.close();
 
       });
@@ -238,44 +262,89 @@ public class SettingsController {
       exportButton.setOnAction(actionEvent -> {
          LOG.info("Button pressed: exportButton");
 
-         try {
-            final String h2Version = applicationProperties.getH2Version();
-
-            final FileChooser fileChooser = new FileChooser();
-            fileChooser.setInitialDirectory(Paths.get(".").toFile());
-            fileChooser.setInitialFileName(String.format("KeepTime_database-export_H2-version-%s.sql", h2Version));
-            fileChooser.getExtensionFilters().add(new ExtensionFilter("SQL script files.", "*.sql"));
-            final File fileToSave = fileChooser.showSaveDialog(thisStage);
-            if (fileToSave == null) {
-               LOG.info("User canceled export.");
-               return;
-            }
+         final String h2Version = applicationProperties.getH2Version();
+
+         final FileChooser fileChooser = new FileChooser();
+         fileChooser.setInitialDirectory(Paths.get(".").toFile());
+         fileChooser.setInitialFileName(String.format("KeepTime_database-export_H2-version-%s.sql.gz", h2Version));
+         fileChooser.getExtensionFilters().add(new ExtensionFilter("Compressed SQL script files.", "*.sql.gz"));
+         final File fileToSave = fileChooser.showSaveDialog(thisStage);
+         if (fileToSave == null) {
+            LOG.info("User canceled export.");
+            return;
+         }
+
+         exportDatabase(fileToSave);
+      });
+   }
 
-            final String url = applicationProperties.getSpringDataSourceUrl();
-            final String username = applicationProperties.getSpringDataSourceUserName();
-            final String password = applicationProperties.getSpringDataSourcePassword();
+   private void exportDatabase(final File fileToSave) {
+      LOG.info("Exporting database to '{}'.", fileToSave);
+      final Task<Void> exportTask = new Task<Void>() {
+         @Override
+         protected Void call() throws Exception {
+            final Task<Void> task = this;
+            databaseExporter.export(fileToSave, new DatabaseExporter.Progress() {
+               @Override
+               public void update(final long exportedStatements, final long totalStatements) {
+                  updateProgress(exportedStatements, totalStatements);
+               }
+
+               @Override
+               public boolean isCancelled() {
+                  return task.isCancelled();
+               }
+            });
+            return null;
+         }
+      };
+
+      final ProgressBar progressBar = new ProgressBar();
+      progressBar.setPrefWidth(300);
+      progressBar.progressProperty().bind(exportTask.progressProperty());
+
+      final Dialog<ButtonType> progressDialog = new Dialog<>();
+      progressDialog.initOwner(thisStage);
+      progressDialog.setTitle("Export");
+      progressDialog.setHeaderText("Exporting the current data to '" + fileToSave + "'.");
+      progressDialog.getDialogPane().setContent(progressBar);
+      progressDialog.getDialogPane().getButtonTypes().add(ButtonType.CANCEL);
+      progressDialog.setOnHidden(e -> {
+         if (exportTask.isRunning()) {
+            LOG.info("User canceled running export.");
+            exportTask.cancel();
+         }
+      });
 
-            LOG.info("Exporting database to '{}'.", fileToSave);
-            Script.process(url, username, password, fileToSave.getAbsolutePath(), "DROP", "");
-            LOG.info("Export done.");
+      exportTask.setOnSucceeded(e -> {
+         LOG.info("Export done.");
+         progressDialog.close();
 
-            Alert informationDialog = new Alert(AlertType.INFORMATION);
-            informationDialog.setTitle("Export done");
-            informationDialog.setHeaderText("The current data was exported.");
-            informationDialog.setContentText("The data was exported to '" + fileToSave + "'.");
+         final Alert informationDialog = new Alert(AlertType.INFORMATION);
+         informationDialog.setTitle("Export done");
+         informationDialog.setHeaderText("The current data was exported.");
+         informationDialog.setContentText("The data was exported to '" + fileToSave + "'.");
 
-            informationDialog.showAndWait();
-         } catch (final SQLException e) {
-            LOG.error("Could not export db to script file.", e);
+         informationDialog.showAndWait();
+      });
+      exportTask.setOnFailed(e -> {
+         LOG.error("Could not export db to script file.", exportTask.getException());
+         progressDialog.close();
 
-            Alert errorDialog = new Alert(AlertType.ERROR);
-            errorDialog.setTitle("Export failed");
-            errorDialog.setHeaderText("The current data could not be exported.");
-            errorDialog.setContentText("Please inform a developer and provide your log file.");
+         final Alert errorDialog = new Alert(AlertType.ERROR);
+         errorDialog.setTitle("Export failed");
+         errorDialog.setHeaderText("The current data could not be exported.");
+         errorDialog.setContentText("Please inform a developer and provide your log file.");
 
-            errorDialog.showAndWait();
-         }
+         errorDialog.showAndWait();
       });
+      exportTask.setOnCancelled(e -> LOG.info("Export canceled."));
+
+      exportButton.disableProperty().bind(exportTask.runningProperty());
+      final Thread exportThread = new Thread(exportTask, "database-export");
+      exportThread.setDaemon(true);
+      exportThread.start();
+      progressDialog.show();
    }
 
    void update() {
@@ -291,6 +360,7 @@ public class SettingsController {
       taskBarColor.setValue(model.taskBarColor.get());
 
       useHotkeyCheckBox.setSelected(model.useHotkey.get());
+      popupHotkeyTextField.setText(model.popupHotkey.get());
       displayProjectsRightCheckBox.setSelected(model.displayProjectsRight.get());
       hideProjectsOnMouseExitCheckBox.setSelected(model.hideProjectsOnMouseExit.get());
       saveWindowPositionCheckBox.setSelected(model.screenSettings.saveWindowPosition.get());
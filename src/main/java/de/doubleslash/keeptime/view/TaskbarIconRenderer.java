@@ -0,0 +1,264 @@
+// Copyright 2019 doubleSlash Net Business GmbH
+//
+// This file is part of KeepTime.
+// KeepTime is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+
+package de.doubleslash.keeptime.view;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+import javafx.geometry.VPos;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+import javafx.scene.text.TextAlignment;
+
+/**
+ * Renders the taskbar icon, which shows the time of the active work item above a bar in the color of its project.<br>
+ * The digits are drawn once into an atlas and then copied into a reused pixel buffer. The buffer is written alternately
+ * into one of two images, as the stage only takes over an icon if the icon list changes. A new icon is only rendered
+ * if the shown text or one of the colors changed.
+ */
+public class TaskbarIconRenderer {
+
+   static final int SIZE = 32;
+
+   private static final String GLYPHS = "0123456789:";
+   private static final int COLON = 10;
+
+   private static final int FIRST_BASELINE_Y = SIZE / 2 - 5;
+   private static final int BAR_X = 1;
+   private static final int BAR_Y = 27;
+   private static final int BAR_HEIGHT = 5;
+
+   private static final int MAX_LINE_LENGTH = 8;
+   private static final long MAX_SHOWN_HOURS = 999_999;
+
+   private final PixelFormat<IntBuffer> pixelFormat = PixelFormat.getIntArgbInstance();
+
+   private final int[] pixels = new int[SIZE * SIZE];
+   private final WritableImage[] images = { new WritableImage(SIZE, SIZE), new WritableImage(SIZE, SIZE) };
+   private int backImage = 0;
+
+   // glyph atlas, drawn with the text color
+   private Color atlasColor;
+   private int[] atlasPixels;
+   private int atlasWidth;
+   private int atlasHeight;
+   private int ascent;
+   private final int[] glyphX = new int[GLYPHS.length()];
+   private final int[] glyphWidth = new int[GLYPHS.length()];
+
+   // glyph indexes of the text lines
+   private final int[] firstLine = new int[MAX_LINE_LENGTH];
+   private final int[] secondLine = new int[MAX_LINE_LENGTH];
+   private int firstLineLength;
+   private int secondLineLength;
+
+   // what the current icon shows
+   private long renderedSeconds = -1;
+   private boolean renderedWithSeconds;
+   private Color renderedProjectColor;
+   private Color renderedTextColor;
+
+   /**
+    * Has to be called on the FX thread.
+    *
+    * @return the new icon or null if the icon did not change
+    */
+   public Image render(final long seconds, final boolean showSeconds, final Color projectColor,
+         final Color textColor) {
+      final long shownSeconds = showSeconds ? seconds : seconds - seconds % 60;
+      if (shownSeconds == renderedSeconds && showSeconds == renderedWithSeconds
+            && projectColor.equals(renderedProjectColor) && textColor.equals(renderedTextColor)) {
+         return null;
+      }
+
+      if (!textColor.equals(atlasColor)) {
+         drawAtlas(textColor);
+      }
+
+      layoutText(seconds, showSeconds);
+
+      Arrays.fill(pixels, 0);
+      fillBar(toArgb(projectColor));
+      final int firstLineTop = FIRST_BASELINE_Y - ascent;
+      drawLine(firstLine, firstLineLength, firstLineTop);
+      drawLine(secondLine, secondLineLength, firstLineTop + atlasHeight);
+
+      final WritableImage image = images[backImage];
+      image.getPixelWriter().setPixels(0, 0, SIZE, SIZE, pixelFormat, pixels, 0, SIZE);
+      backImage = 1 - backImage;
+
+      renderedSeconds = shownSeconds;
+      renderedWithSeconds = showSeconds;
+      renderedProjectColor = projectColor;
+      renderedTextColor = textColor;
+      return image;
+   }
+
+   private void drawAtlas(final Color textColor) {
+      final Font font = Font.getDefault();
+      final Text measuringText = new Text();
+      measuringText.setFont(font);
+
+      // one pixel space around each glyph, as the stroke may be wider than the glyph
+      int x = 0;
+      for (int i = 0; i < GLYPHS.length(); i++) {
+         measuringText.setText(GLYPHS.substring(i, i + 1));
+         glyphX[i] = x;
+         glyphWidth[i] = (int) Math.ceil(measuringText.getLayoutBounds().getWidth()) + 2;
+         x += glyphWidth[i];
+      }
+      atlasWidth = x;
+      measuringText.setText(GLYPHS);
+      ascent = (int) Math.ceil(measuringText.getBaselineOffset());
+      atlasHeight = (int) Math.ceil(measuringText.getLayoutBounds().getHeight());
+
+      final Canvas atlasCanvas = new Canvas(atlasWidth, atlasHeight);
+      final GraphicsContext gc = atlasCanvas.getGraphicsContext2D();
+      gc.setFont(font);
+      gc.setStroke(textColor);
+      gc.setTextAlign(TextAlignment.LEFT);
+      gc.setTextBaseline(VPos.BASELINE);
+      for (int i = 0; i < GLYPHS.length(); i++) {
+         gc.strokeText(GLYPHS.substring(i, i + 1), glyphX[i] + 1.0, ascent);
+      }
+
+      final SnapshotParameters snapshotParameters = new SnapshotParameters();
+      snapshotParameters.setFill(Color.TRANSPARENT);
+      final WritableImage atlasImage = atlasCanvas.snapshot(snapshotParameters, null);
+      atlasPixels = new int[atlasWidth * atlasHeight];
+      atlasImage.getPixelReader().getPixels(0, 0, atlasWidth, atlasHeight, pixelFormat, atlasPixels, 0, atlasWidth);
+      atlasColor = textColor;
+   }
+
+   /**
+    * Splits the time into "HH:" and "MM:SS" (or "MM") as glyph indexes.
+    */
+   private void layoutText(final long seconds, final boolean showSeconds) {
+      final long hours = seconds / 3600;
+      final int minutes = (int) (seconds % 3600 / 60);
+
+      firstLineLength = 0;
+      if (hours < 10) {
+         firstLine[firstLineLength++] = 0;
+      }
+      firstLineLength = appendDigits(firstLine, firstLineLength, hours);
+      firstLine[firstLineLength++] = COLON;
+
+      secondLine[0] = minutes / 10;
+      secondLine[1] = minutes % 10;
+      secondLineLength = 2;
+      if (showSeconds) {
+         final int sec = (int) (seconds % 60);
+         secondLine[2] = COLON;
+         secondLine[3] = sec / 10;
+         secondLine[4] = sec % 10;
+         secondLineLength = 5;
+      }
+   }
+
+   private static int appendDigits(final int[] line, final int length, final long value) {
+      // leave space for the colon
+      final long shownValue = Math.min(value, MAX_SHOWN_HOURS);
+      int digits = 1;
+      for (long rest = shownValue / 10; rest > 0; rest /= 10) {
+         digits++;
+      }
+      long rest = shownValue;
+      for (int i = length + digits - 1; i >= length; i--) {
+         line[i] = (int) (rest % 10);
+         rest /= 10;
+      }
+      return length + digits;
+   }
+
+   private void fillBar(final int argb) {
+      for (int y = BAR_Y; y < BAR_Y + BAR_HEIGHT; y++) {
+         Arrays.fill(pixels, y * SIZE + BAR_X, (y + 1) * SIZE, argb);
+      }
+   }
+
+   /**
+    * Copies the glyphs of the line horizontally centered into the pixel buffer.
+    */
+   private void drawLine(final int[] line, final int length, final int top) {
+      int lineWidth = 0;
+      for (int i = 0; i < length; i++) {
+         lineWidth += glyphWidth[line[i]];
+      }
+
+      int x = (SIZE - lineWidth) / 2;
+      for (int i = 0; i < length; i++) {
+         final int glyph = line[i];
+         drawGlyph(glyphX[glyph], glyphWidth[glyph], x, top);
+         x += glyphWidth[glyph];
+      }
+   }
+
+   private void drawGlyph(final int atlasX, final int width, final int targetX, final int targetY) {
+      for (int y = 0; y < atlasHeight; y++) {
+         final int pixelY = targetY + y;
+         if (pixelY < 0 || pixelY >= SIZE) {
+            continue;
+         }
+         for (int x = 0; x < width; x++) {
+            final int pixelX = targetX + x;
+            if (pixelX < 0 || pixelX >= SIZE) {
+               continue;
+            }
+            final int index = pixelY * SIZE + pixelX;
+            pixels[index] = blend(atlasPixels[y * atlasWidth + atlasX + x], pixels[index]);
+         }
+      }
+   }
+
+   /**
+    * Draws the source pixel over the destination pixel (non premultiplied ARGB).
+    */
+   static int blend(final int source, final int destination) {
+      final int sourceAlpha = source >>> 24;
+      if (sourceAlpha == 0) {
+         return destination;
+      }
+      if (sourceAlpha == 255) {
+         return source;
+      }
+
+      final int destinationWeight = (destination >>> 24) * (255 - sourceAlpha) / 255;
+      final int alpha = sourceAlpha + destinationWeight;
+      int result = alpha << 24;
+      for (int shift = 0; shift <= 16; shift += 8) {
+         final int sourceChannel = (source >> shift) & 0xFF;
+         final int destinationChannel = (destination >> shift) & 0xFF;
+         final int channel = (sourceChannel * sourceAlpha + destinationChannel * destinationWeight) / alpha;
+         result |= channel << shift;
+      }
+      return result;
+   }
+
+   static int toArgb(final Color color) {
+      return (int) Math.round(color.getOpacity() * 255) << 24 | (int) Math.round(color.getRed() * 255) << 16
+            | (int) Math.round(color.getGreen() * 255) << 8 | (int) Math.round(color.getBlue() * 255);
+   }
+}
@@ -16,7 +16,6 @@
 
 package de.doubleslash.keeptime.view;
 
-import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.time.Duration;
 import java.time.LocalDateTime;
@@ -33,11 +32,14 @@ import de.doubleslash.keeptime.common.Resources;
 import de.doubleslash.keeptime.common.Resources.RESOURCE;
 import de.doubleslash.keeptime.common.ScreenPosHelper;
 import de.doubleslash.keeptime.common.StyleUtils;
-import de.doubleslash.keeptime.common.time.Interval;
+import de.doubleslash.keeptime.common.time.TickScheduler;
 import de.doubleslash.keeptime.controller.Controller;
+import de.doubleslash.keeptime.controller.PersistenceExecutor;
 import de.doubleslash.keeptime.exceptions.FXMLLoaderException;
 import de.doubleslash.keeptime.model.Model;
 import de.doubleslash.keeptime.model.Project;
+import de.doubleslash.keeptime.model.TodaysTimeAccumulator;
+import de.doubleslash.keeptime.model.Work;
 import de.jensd.fx.glyphs.fontawesome.FontAwesomeIconView;
 import javafx.application.Platform;
 import javafx.beans.binding.Bindings;
@@ -49,16 +51,14 @@ import javafx.beans.property.SimpleLongProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
-import javafx.collections.ObservableList;
-import javafx.embed.swing.SwingFXUtils;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
-import javafx.scene.SnapshotParameters;
 import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
 import javafx.scene.control.Dialog;
@@ -67,17 +67,13 @@ import javafx.scene.control.ListView;
 import javafx.scene.control.TextArea;
 import javafx.scene.control.TextField;
 import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
-import javafx.scene.image.WritableImage;
 import javafx.scene.input.KeyCode;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.Pane;
-import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Circle;
-import javafx.scene.text.TextAlignment;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 
@@ -143,6 +139,10 @@ public class ViewController {
 
    private ColorTimeLine mainColorTimeLine;
 
+   private final ColorTimeLine.Segments timeLineSegments = new ColorTimeLine.Segments();
+   private long timeLineVersion = -1;
+   private int timeLineActiveSegment = -1;
+
    private class Delta {
       double x;
       double y;
@@ -156,7 +156,29 @@ public class ViewController {
 
    private final Model model;
 
-   private final Canvas taskbarCanvas = new Canvas(32, 32);
+   private final TickScheduler tickScheduler;
+
+   private final ProjectTimeModel projectTimeModel;
+
+   private final PersistenceExecutor persistenceExecutor;
+
+   /** shown while a database operation failed, so further failures do not open more alerts **/
+   private Alert persistenceFailureAlert;
+
+   /** subscription of the project list while the main stage is visible **/
+   private ProjectTimeModel.Subscription projectTimeSubscription;
+
+   private final TaskbarIconRenderer taskbarIconRenderer = new TaskbarIconRenderer();
+
+   private final DateFormatter.HHMMSSFormatter bigTimeFormatter = new DateFormatter.HHMMSSFormatter();
+   private final DateFormatter.HHMMSSFormatter allTimeFormatter = new DateFormatter.HHMMSSFormatter();
+   private final DateFormatter.HHMMSSFormatter todayAllFormatter = new DateFormatter.HHMMSSFormatter();
+
+   /** minutes shown in the taskbar icon while minimised, -1 if it shows seconds **/
+   private long taskbarIconMinutes = -1;
+
+   /** state of the model the times of each second are calculated from, published by the FX thread **/
+   private volatile TickInput tickInput;
 
    private final BooleanProperty mouseHoveringProperty = new SimpleBooleanProperty(false);
    public static final LongProperty activeWorkSecondsProperty = new SimpleLongProperty(0);
@@ -171,9 +193,13 @@ public class ViewController {
    private ProjectsListViewController projectsListViewController;
 
    @Autowired
-   public ViewController(final Model model, final Controller controller) {
+   public ViewController(final Model model, final Controller controller, final TickScheduler tickScheduler,
+         final ProjectTimeModel projectTimeModel, final PersistenceExecutor persistenceExecutor) {
       this.model = model;
       this.controller = controller;
+      this.tickScheduler = tickScheduler;
+      this.projectTimeModel = projectTimeModel;
+      this.persistenceExecutor = persistenceExecutor;
    }
 
    @FXML
@@ -185,6 +211,8 @@ public class ViewController {
 
       setUpTextArea();
 
+      persistenceExecutor.setFailureListener(this::showPersistenceFailure);
+
       // reposition window if projects are hidden (as anchor is top left)
       mouseHoveringProperty.addListener((a, b, c) -> {
          if (!model.hideProjectsOnMouseExit.get()) {
@@ -284,30 +312,10 @@ public class ViewController {
       });
 
       bigTimeLabel.textProperty().bind(Bindings.createStringBinding(
-            () -> DateFormatter.secondsToHHMMSS(activeWorkSecondsProperty.get()), activeWorkSecondsProperty));
+            () -> bigTimeFormatter.format(activeWorkSecondsProperty.get()), activeWorkSecondsProperty));
 
       // update ui each second
-      new Interval(1).registerCallBack(() -> {
-         final LocalDateTime now = LocalDateTime.now();
-         model.activeWorkItem.get().setEndTime(now); // FIXME not good to change model
-
-         final long currentWorkSeconds = Duration
-               .between(model.activeWorkItem.get().getStartTime(), model.activeWorkItem.get().getEndTime())
-               .getSeconds();
-         activeWorkSecondsProperty.set(currentWorkSeconds);
-         final long todayWorkingSeconds = controller.calcTodaysWorkSeconds();
-         final long todaySeconds = controller.calcTodaysSeconds();
-
-         // update all ui labels
-         allTimeLabel.setText(DateFormatter.secondsToHHMMSS(todayWorkingSeconds));
-         todayAllSeconds.setText(DateFormatter.secondsToHHMMSS(todaySeconds));
-
-         projectsListViewController.tick();
-
-         mainColorTimeLine.update(model.getSortedPastWorkItems(), controller.calcTodaysSeconds());
-         updateTaskbarIcon(currentWorkSeconds);
-
-      });
+      tickScheduler.scheduleWithFxUpdate(Duration.ofSeconds(1), this::computeTick);
 
       mainColorTimeLine = new ColorTimeLine(canvas);
 
@@ -474,32 +482,148 @@ public class ViewController {
       return grid;
    }
 
-   private void updateTaskbarIcon(final long currentWorkSeconds) {
-      final GraphicsContext gcIcon = taskbarCanvas.getGraphicsContext2D();
+   /**
+    * Tells the user that a change could not be saved, as the database operations run in the background.
+    */
+   private void showPersistenceFailure(final String description) {
+      if (persistenceFailureAlert != null && persistenceFailureAlert.isShowing()) {
+         return;
+      }
+
+      persistenceFailureAlert = new Alert(AlertType.ERROR);
+      persistenceFailureAlert.initOwner(mainStage);
+      persistenceFailureAlert.setTitle("Saving failed");
+      persistenceFailureAlert.setHeaderText("Could not " + description + ".");
+      persistenceFailureAlert
+            .setContentText("The change is not stored. Please inform a developer and provide your log file.");
+      persistenceFailureAlert.show();
+   }
+
+   /**
+    * Calculates the times of the current second on the scheduler thread, from the state of the model the FX thread
+    * published last.
+    *
+    * @return the update of the ui
+    */
+   private Runnable computeTick() {
+      final TickInput input = tickInput;
+      if (input == null) {
+         return this::tick;
+      }
+
+      final LocalDateTime now = LocalDateTime.now();
+      final long currentWorkSeconds = Duration.between(input.activeStartTime, now).getSeconds();
+      final long todaySeconds = input.totals.getTodaysSeconds(currentWorkSeconds);
+      final long todayWorkingSeconds = input.totals.getTodaysWorkSeconds(currentWorkSeconds);
+      return () -> applyTick(input, now, currentWorkSeconds, todaySeconds, todayWorkingSeconds);
+   }
+
+   /**
+    * Calculates and applies the times on the FX thread, e.g. if the main stage is visible again.
+    */
+   private void tick() {
+      tickInput = new TickInput(model.activeWorkItem.get(), model.getTodaysTimeAccumulator().getTotals());
+      computeTick().run();
+   }
+
+   private void applyTick(final TickInput input, final LocalDateTime now, final long currentWorkSeconds,
+         final long todaySeconds, final long todayWorkingSeconds) {
+      if (!input.isCurrent(model)) {
+         // the work items changed after the times were calculated
+         tick();
+         return;
+      }
+
+      input.activeWork.setEndTime(now); // FIXME not good to change model
+      activeWorkSecondsProperty.set(currentWorkSeconds);
+
+      // project times of the main view and the popup, if any of them is visible
+      projectTimeModel.tick();
+
+      if (mainStage != null && !mainStage.isShowing()) {
+         // nothing of the main ui is visible
+         return;
+      }
+
+      if (mainStage != null && mainStage.isIconified()) {
+         // only the taskbar icon is visible, which shows minutes while minimised
+         final long currentWorkMinutes = currentWorkSeconds / 60;
+         if (currentWorkMinutes != taskbarIconMinutes) {
+            taskbarIconMinutes = currentWorkMinutes;
+            updateTaskbarIcon(currentWorkSeconds, false);
+         }
+         return;
+      }
 
-      gcIcon.clearRect(0, 0, taskbarCanvas.getWidth(), taskbarCanvas.getHeight());
-      gcIcon.setFill(model.activeWorkItem.get().getProject().getColor());
-      gcIcon.fillRect(1, 27, 31, 5);
+      // update all ui labels
+      allTimeLabel.setText(allTimeFormatter.format(todayWorkingSeconds));
+      todayAllSeconds.setText(todayAllFormatter.format(todaySeconds));
 
-      gcIcon.setStroke(model.taskBarColor.get());
-      gcIcon.setTextAlign(TextAlignment.CENTER);
-      gcIcon.strokeText(DateFormatter.secondsToHHMMSS(currentWorkSeconds).replaceFirst(":", ":\n"),
-            Math.round(taskbarCanvas.getWidth() / 2), Math.round(taskbarCanvas.getHeight() / 2) - 5.0);
+      updateColorTimeLine(currentWorkSeconds, todaySeconds);
+      updateTaskbarIcon(currentWorkSeconds, true);
+      taskbarIconMinutes = -1;
+   }
+
+   /**
+    * Collects the segments of the time line again only if the work items changed. Otherwise only the seconds of the
+    * active work item are updated.
+    */
+   private void updateColorTimeLine(final long currentWorkSeconds, final long todaySeconds) {
+      final TodaysTimeAccumulator accumulator = model.getTodaysTimeAccumulator();
+      if (accumulator.getVersion() != timeLineVersion) {
+         final Work activeWork = model.activeWorkItem.get();
+         timeLineSegments.clear();
+         timeLineActiveSegment = -1;
+         for (final Work work : model.getSortedPastWorkItems()) {
+            if (work == activeWork) {
+               timeLineActiveSegment = timeLineSegments.size();
+            }
+            timeLineSegments.add(Duration.between(work.getStartTime(), work.getEndTime()).getSeconds(),
+                  work.getProject().getColor());
+         }
+         timeLineVersion = accumulator.getVersion();
+      } else if (timeLineActiveSegment >= 0) {
+         timeLineSegments.setSeconds(timeLineActiveSegment, currentWorkSeconds);
+      }
 
-      final SnapshotParameters snapshotParameters = new SnapshotParameters();
-      snapshotParameters.setFill(Color.TRANSPARENT);
-      final WritableImage image = taskbarCanvas.snapshot(snapshotParameters, null);
+      mainColorTimeLine.update(timeLineSegments, todaySeconds);
+   }
 
-      final StackPane layout = new StackPane();
-      layout.getChildren().addAll(new ImageView(image));
+   /**
+    * Suspends rendering while the stage is minimised or hidden and brings the ui up to date once it is visible again.
+    */
+   private void registerRenderSuspension() {
+      final ChangeListener<Boolean> visibilityListener = (observable, oldValue, newValue) -> {
+         if (mainStage.isShowing() && !mainStage.isIconified()) {
+            LOG.debug("Main stage is visible again. Resuming rendering.");
+            subscribeProjectTimes();
+            tick();
+         } else {
+            LOG.debug("Main stage is not visible. Suspending rendering.");
+            if (projectTimeSubscription != null) {
+               projectTimeSubscription.cancel();
+               projectTimeSubscription = null;
+            }
+         }
+      };
+      mainStage.iconifiedProperty().addListener(visibilityListener);
+      mainStage.showingProperty().addListener(visibilityListener);
+      if (mainStage.isShowing() && !mainStage.isIconified()) {
+         subscribeProjectTimes();
+      }
+   }
 
-      final BufferedImage bi = SwingFXUtils.fromFXImage(image, null);
-      final Image icon = SwingFXUtils.toFXImage(bi, null);
+   private void subscribeProjectTimes() {
+      if (projectTimeSubscription == null) {
+         projectTimeSubscription = projectTimeModel.subscribe();
+      }
+   }
 
-      final ObservableList<Image> icons = mainStage.getIcons();
-      icons.addAll(icon);
-      if (icons.size() > 1) {
-         icons.remove(0);
+   private void updateTaskbarIcon(final long currentWorkSeconds, final boolean showSeconds) {
+      final Image icon = taskbarIconRenderer.render(currentWorkSeconds, showSeconds,
+            model.activeWorkItem.get().getProject().getColor(), model.taskBarColor.get());
+      if (icon != null) {
+         mainStage.getIcons().setAll(icon);
       }
    }
 
@@ -514,9 +638,10 @@ public class ViewController {
 
    public void setStage(final Stage primaryStage) {
       this.mainStage = primaryStage;
-      this.projectsListViewController = new ProjectsListViewController(model, controller, mainStage,
-            availableProjectsListView, searchTextField, false);
+      this.projectsListViewController = new ProjectsListViewController(model, controller, projectTimeModel,
+            mainStage, availableProjectsListView, searchTextField, false);
       setupStagePositioning();
+      registerRenderSuspension();
    }
 
    @FXML
@@ -570,4 +695,28 @@ public class ViewController {
 
    }
 
+   /**
+    * State of the model the times of each second are calculated from. Taken on the FX thread, so the scheduler thread
+    * does not have to read the model.
+    */
+   private static class TickInput {
+      private final Work activeWork;
+      private final LocalDateTime activeStartTime;
+      private final TodaysTimeAccumulator.Totals totals;
+
+      TickInput(final Work activeWork, final TodaysTimeAccumulator.Totals totals) {
+         this.activeWork = activeWork;
+         this.activeStartTime = activeWork.getStartTime();
+         this.totals = totals;
+      }
+
+      /**
+       * Has to be called on the FX thread.
+       */
+      boolean isCurrent(final Model model) {
+         return activeWork == model.activeWorkItem.get() && activeStartTime.equals(activeWork.getStartTime())
+               && totals == model.getTodaysTimeAccumulator().getTotals();
+      }
+   }
+
 }
@@ -0,0 +1,37 @@
+package de.doubleslash.keeptime.view.worktable;
+
+import java.time.LocalDate;
+
+import de.doubleslash.keeptime.common.DateFormatter;
+
+public class DayTableRow implements TableRow {
+
+   private final LocalDate day;
+   private final String timeSum;
+
+   public DayTableRow(final LocalDate day, final long seconds) {
+      this.day = day;
+      this.timeSum = DateFormatter.secondsToHHMMSS(seconds);
+   }
+
+   @Override
+   public String getNotes() {
+      return DateFormatter.toDayDateString(day);
+   }
+
+   @Override
+   public String getTimeRange() {
+      return null;
+   }
+
+   @Override
+   public String getTimeSum() {
+      return timeSum;
+   }
+
+   @Override
+   public boolean isUnderlined() {
+      return false;
+   }
+
+}
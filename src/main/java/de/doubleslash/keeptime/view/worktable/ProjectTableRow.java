@@ -2,18 +2,19 @@ package de.doubleslash.keeptime.view.worktable;
 
 import de.doubleslash.keeptime.common.DateFormatter;
 import de.doubleslash.keeptime.model.Project;
-import javafx.scene.layout.HBox;
 
 public class ProjectTableRow implements TableRow {
 
    private final Project project;
-   private final long projectWorkSeconds;
-   private final HBox buttonBox;
+   private final String timeSum;
 
-   public ProjectTableRow(final Project project, final long projectWorkSeconds, final HBox buttonBox) {
-      this.projectWorkSeconds = projectWorkSeconds;
+   public ProjectTableRow(final Project project, final long projectWorkSeconds) {
+      this.timeSum = DateFormatter.secondsToHHMMSS(projectWorkSeconds);
       this.project = project;
-      this.buttonBox = buttonBox;
+   }
+
+   public Project getProject() {
+      return project;
    }
 
    @Override
@@ -29,15 +30,10 @@ public class ProjectTableRow implements TableRow {
 
    @Override
    public String getTimeSum() {
-      return DateFormatter.secondsToHHMMSS(projectWorkSeconds);
+      return timeSum;
 
    }
 
-   @Override
-   public HBox getButtonBox() {
-      return buttonBox;
-   }
-
    @Override
    public boolean isUnderlined() {
       return project.isWork();
@@ -1,7 +1,5 @@
 package de.doubleslash.keeptime.view.worktable;
 
-import javafx.scene.layout.HBox;
-
 public interface TableRow {
 
    public String getNotes();
@@ -10,8 +8,6 @@ public interface TableRow {
 
    public String getTimeSum();
 
-   public HBox getButtonBox();
-
    public boolean isUnderlined();
 
 }
@@ -3,15 +3,16 @@ package de.doubleslash.keeptime.view.worktable;
 
 import de.doubleslash.keeptime.common.DateFormatter;
 import de.doubleslash.keeptime.model.Work;
-import javafx.scene.layout.HBox;
 
 public class WorkTableRow implements TableRow {
    private final Work work;
-   private final HBox buttonBox;
 
-   public WorkTableRow(final Work work, final HBox buttonBox) {
+   public WorkTableRow(final Work work) {
       this.work = work;
-      this.buttonBox = buttonBox;
+   }
+
+   public Work getWork() {
+      return work;
    }
 
    @Override
@@ -31,11 +32,6 @@ public class WorkTableRow implements TableRow {
 
    }
 
-   @Override
-   public HBox getButtonBox() {
-      return buttonBox;
-   }
-
    @Override
    public boolean isUnderlined() {
       return false;
@@ -0,0 +1,164 @@
+// Copyright 2019 doubleSlash Net Business GmbH
+//
+// This file is part of KeepTime.
+// KeepTime is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+
+package de.doubleslash.keeptime.viewpopup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recognises key chords like Ctrl+Win from native key events. Bindings are given as raw key codes joined by '+',
+ * several alternative chords are separated by ','. E.g. "162+91" for left Ctrl and left Win on Windows.<br>
+ * Pressed keys are kept in a bitset, so handling a key event does not allocate anything. If no key of a binding was
+ * pressed for {@link #RESET_NANOS}, the pressed keys are forgotten, as release events get lost e.g. when Win+L locks
+ * the screen.<br>
+ * Key events have to come from one thread, the bindings may be changed from any thread.
+ */
+public class ChordMatcher {
+
+   static final int MAX_KEY_CODE = 1023;
+   static final long RESET_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+   private static final int WORDS = (MAX_KEY_CODE >> 6) + 1;
+
+   private final long[] pressed = new long[WORDS];
+   private long lastPressNanos;
+
+   private volatile Bindings bindings;
+
+   /**
+    * @throws IllegalArgumentException
+    *            if the bindings can not be parsed
+    */
+   public ChordMatcher(final String bindings) {
+      setBindings(bindings);
+   }
+
+   /**
+    * @throws IllegalArgumentException
+    *            if the bindings can not be parsed
+    */
+   public void setBindings(final String bindings) {
+      this.bindings = Bindings.parse(bindings);
+   }
+
+   /**
+    * @return true if the text describes at least one chord of valid key codes
+    */
+   public static boolean isValid(final String bindings) {
+      try {
+         Bindings.parse(bindings);
+         return true;
+      } catch (final IllegalArgumentException e) {
+         return false;
+      }
+   }
+
+   /**
+    * @param nowNanos
+    *           {@link System#nanoTime()} of the event
+    * @return true if the key completed a chord
+    */
+   public boolean keyPressed(final int rawCode, final long nowNanos) {
+      final Bindings current = bindings;
+      if (!isSet(current.relevantKeys, rawCode)) {
+         return false;
+      }
+
+      if (nowNanos - lastPressNanos > RESET_NANOS) {
+         Arrays.fill(pressed, 0);
+      }
+      lastPressNanos = nowNanos;
+      pressed[rawCode >> 6] |= 1L << rawCode;
+
+      for (final long[] chord : current.chords) {
+         if (containsAll(pressed, chord)) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   public void keyReleased(final int rawCode) {
+      if (rawCode >= 0 && rawCode <= MAX_KEY_CODE) {
+         pressed[rawCode >> 6] &= ~(1L << rawCode);
+      }
+   }
+
+   private static boolean isSet(final long[] keys, final int rawCode) {
+      return rawCode >= 0 && rawCode <= MAX_KEY_CODE && (keys[rawCode >> 6] & 1L << rawCode) != 0;
+   }
+
+   private static boolean containsAll(final long[] keys, final long[] chord) {
+      for (int i = 0; i < WORDS; i++) {
+         if ((keys[i] & chord[i]) != chord[i]) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   private static final class Bindings {
+      private final long[][] chords;
+      /** keys of any chord, all others are ignored **/
+      private final long[] relevantKeys = new long[WORDS];
+
+      private Bindings(final List<long[]> chords) {
+         this.chords = chords.toArray(new long[chords.size()][]);
+         for (final long[] chord : this.chords) {
+            for (int i = 0; i < WORDS; i++) {
+               relevantKeys[i] |= chord[i];
+            }
+         }
+      }
+
+      private static Bindings parse(final String text) {
+         if (text == null || text.trim().isEmpty()) {
+            throw new IllegalArgumentException("No key binding given.");
+         }
+         final List<long[]> chords = new ArrayList<>();
+         for (final String chordText : text.split(",")) {
+            final long[] chord = new long[WORDS];
+            for (final String keyText : chordText.split("\\+")) {
+               final int rawCode = parseKeyCode(keyText.trim());
+               chord[rawCode >> 6] |= 1L << rawCode;
+            }
+            chords.add(chord);
+         }
+         if (chords.isEmpty()) {
+            throw new IllegalArgumentException("No key binding given in '" + text + "'.");
+         }
+         return new Bindings(chords);
+      }
+
+      private static int parseKeyCode(final String keyText) {
+         final int rawCode;
+         try {
+            rawCode = Integer.parseInt(keyText);
+         } catch (final NumberFormatException e) {
+            throw new IllegalArgumentException("Key code '" + keyText + "' is not a number.", e);
+         }
+         if (rawCode < 0 || rawCode > MAX_KEY_CODE) {
+            throw new IllegalArgumentException(
+                  "Key code '" + rawCode + "' is not between 0 and " + MAX_KEY_CODE + ".");
+         }
+         return rawCode;
+      }
+   }
+}
@@ -16,11 +16,9 @@
 
 package de.doubleslash.keeptime.viewpopup;
 
+import java.awt.MouseInfo;
 import java.awt.Point;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
+import java.awt.PointerInfo;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -28,10 +26,9 @@ import org.jnativehook.GlobalScreen;
 import org.jnativehook.NativeHookException;
 import org.jnativehook.keyboard.NativeKeyEvent;
 import org.jnativehook.keyboard.NativeKeyListener;
-import org.jnativehook.mouse.NativeMouseEvent;
-import org.jnativehook.mouse.NativeMouseMotionListener;
 import org.slf4j.LoggerFactory;
 
+import de.doubleslash.keeptime.model.Model;
 import javafx.application.Platform;
 
 /**
@@ -39,37 +36,19 @@ import javafx.application.Platform;
  * 
  * @author nmutter
  */
-public class GlobalScreenListener implements NativeKeyListener, NativeMouseMotionListener {
-   private static final int LEFT_WINDOWS_CODE = 91;
-
-   private static final int LEFT_CTRL_CODE = 162;
+public class GlobalScreenListener implements NativeKeyListener {
 
    private final org.slf4j.Logger LOG = LoggerFactory.getLogger(this.getClass());
 
    private ViewControllerPopup viewController;
 
-   private final ScheduledExecutorService executor = Executors.newScheduledThreadPool(1);
-
-   private ScheduledFuture<?> resetKeyPressesFuture;
-
-   private final Runnable resetPressedKeysRunnable = () -> {
-      LOG.debug("Resetting pressed keys");
-      controllPressed = false;
-      windowsPressed = false;
-   };
-
-   // TODO find better hotkey - maybe configurable?
-   private boolean controllPressed = false;
-   private boolean windowsPressed = false;
-
-   private Point mouseLocation = new Point(0, 0);
+   private final ChordMatcher chordMatcher = new ChordMatcher(Model.ORIGINAL_POPUP_HOTKEY);
 
    public GlobalScreenListener() {
 
       disableJNativeHookLogger();
 
       GlobalScreen.addNativeKeyListener(this);
-      GlobalScreen.addNativeMouseMotionListener(this);
    }
 
    public void register(final boolean register) {
@@ -86,6 +65,20 @@ public class GlobalScreenListener implements NativeKeyListener, NativeMouseMotio
       }
    }
 
+   /**
+    * @param bindings
+    *           key chords opening the popup, see {@link ChordMatcher}. The default is used if they are invalid.
+    */
+   public void setBindings(final String bindings) {
+      try {
+         chordMatcher.setBindings(bindings);
+         LOG.info("Hotkey bindings set to '{}'.", bindings);
+      } catch (final IllegalArgumentException e) {
+         LOG.warn("Invalid hotkey bindings '{}'. Using '{}'.", bindings, Model.ORIGINAL_POPUP_HOTKEY, e);
+         chordMatcher.setBindings(Model.ORIGINAL_POPUP_HOTKEY);
+      }
+   }
+
    private void disableJNativeHookLogger() {
       // Get the logger for "org.jnativehook" and set the level to off.
       final Logger logger = Logger.getLogger(GlobalScreen.class.getPackage().getName());
@@ -102,48 +95,20 @@ public class GlobalScreenListener implements NativeKeyListener, NativeMouseMotio
 
    @Override
    public void nativeKeyPressed(final NativeKeyEvent e) {
-      switch (e.getRawCode()) {
-      case LEFT_CTRL_CODE:
-         controllPressed = true;
-         break;
-      case LEFT_WINDOWS_CODE:
-         windowsPressed = true;
-         break;
-      default:
+      final long hotkeyNanos = System.nanoTime();
+      if (!chordMatcher.keyPressed(e.getRawCode(), hotkeyNanos)) {
          return;
       }
 
-      if (controllPressed && windowsPressed) {
-         Platform.runLater(() -> {
-            viewController.show(mouseLocation);
-         });
-      }
-
-      // Logic to reset key presses if no input for n seconds
-      // if u win+l (lock) windows, the key release events are not received
-      if (resetKeyPressesFuture != null) {
-         resetKeyPressesFuture.cancel(false);
-      }
-      resetKeyPressesFuture = executor.schedule(resetPressedKeysRunnable, 1, TimeUnit.SECONDS);
+      // the mouse position is only needed when the popup opens, so it is not tracked all the time
+      final PointerInfo pointerInfo = MouseInfo.getPointerInfo();
+      final Point mouseLocation = pointerInfo == null ? new Point(0, 0) : pointerInfo.getLocation();
+      Platform.runLater(() -> viewController.show(mouseLocation, hotkeyNanos));
    }
 
    @Override
    public void nativeKeyReleased(final NativeKeyEvent e) {
-      switch (e.getRawCode()) {
-      case LEFT_CTRL_CODE:
-         controllPressed = false;
-         break;
-      case LEFT_WINDOWS_CODE:
-         windowsPressed = false;
-         break;
-      default:
-         return;
-      }
-
-      if (!controllPressed && !windowsPressed && resetKeyPressesFuture != null) {
-         // nothing to reset so we can cancel
-         resetKeyPressesFuture.cancel(false);
-      }
+      chordMatcher.keyReleased(e.getRawCode());
    }
 
    @Override
@@ -151,21 +116,10 @@ public class GlobalScreenListener implements NativeKeyListener, NativeMouseMotio
       // Not needed
    }
 
-   @Override
-   public void nativeMouseMoved(final NativeMouseEvent nativeEvent) {
-      mouseLocation = nativeEvent.getPoint();
-   }
-
-   @Override
-   public void nativeMouseDragged(final NativeMouseEvent nativeEvent) {
-      // Not needed
-   }
-
    /**
-    * Shuts down the threads and listeners. Instance is not usable anymore after calling this.
+    * Shuts down the listeners. Instance is not usable anymore after calling this.
     */
    public void shutdown() {
-      executor.shutdown();
       register(false);
    }
-}
\ No newline at end of file
+}
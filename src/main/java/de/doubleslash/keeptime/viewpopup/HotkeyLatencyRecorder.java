@@ -0,0 +1,104 @@
+// Copyright 2019 doubleSlash Net Business GmbH
+//
+// This file is part of KeepTime.
+// KeepTime is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+
+package de.doubleslash.keeptime.viewpopup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Records how long it takes from the native hotkey event until the popup is rendered. Every show is logged on debug
+ * level split into its stages. After every {@link #SUMMARY_INTERVAL} shows the percentiles of the last
+ * {@link #CAPACITY} shows are logged, with a warning if the 99th percentile exceeds {@link #TARGET_MILLIS}.
+ */
+class HotkeyLatencyRecorder {
+
+   private static final Logger LOG = LoggerFactory.getLogger(HotkeyLatencyRecorder.class);
+
+   static final int CAPACITY = 256;
+   static final int SUMMARY_INTERVAL = 20;
+   static final long TARGET_MILLIS = 50;
+
+   /** latency of the last shows, oldest is overwritten first **/
+   private final long[] totalNanos = new long[CAPACITY];
+   private int size = 0;
+   private int next = 0;
+   private long shows = 0;
+
+   /**
+    * @param hotkeyNanos
+    *           {@link System#nanoTime()} when the native key event was received
+    * @param fxNanos
+    *           when the show started on the FX thread
+    * @param shownNanos
+    *           when the stage was shown
+    * @param pulseNanos
+    *           of the first pulse rendering the shown stage
+    */
+   void record(final long hotkeyNanos, final long fxNanos, final long shownNanos, final long pulseNanos) {
+      final long total = pulseNanos - hotkeyNanos;
+      totalNanos[next] = total;
+      next = (next + 1) % CAPACITY;
+      size = Math.min(size + 1, CAPACITY);
+      shows++;
+
+      if (shows == 1) {
+         LOG.info("First popup show took '{}' ms from hotkey to render.", toMillis(total));
+      }
+      if (LOG.isDebugEnabled()) {
+         LOG.debug("Hotkey to rendered popup: {} ms (waiting for fx thread {} ms, show {} ms, until pulse {} ms).",
+               toMillis(total), toMillis(fxNanos - hotkeyNanos), toMillis(shownNanos - fxNanos),
+               toMillis(pulseNanos - shownNanos));
+      }
+      if (shows % SUMMARY_INTERVAL == 0) {
+         logSummary();
+      }
+   }
+
+   private void logSummary() {
+      final long p99 = percentileMillis(99);
+      final String message = "Hotkey to rendered popup over the last {} shows: "
+            + "p50 {} ms, p90 {} ms, p99 {} ms, max {} ms.";
+      final Object[] arguments = { size, percentileMillis(50), percentileMillis(90), p99, percentileMillis(100) };
+      if (p99 > TARGET_MILLIS) {
+         LOG.warn(message, arguments);
+      } else {
+         LOG.info(message, arguments);
+      }
+   }
+
+   /**
+    * @return the given percentile of the recorded latencies in milliseconds, 0 if nothing was recorded
+    */
+   long percentileMillis(final int percentile) {
+      if (size == 0) {
+         return 0;
+      }
+      final long[] sorted = Arrays.copyOf(totalNanos, size);
+      Arrays.sort(sorted);
+      // nearest rank
+      final int rank = (int) Math.ceil(percentile / 100.0 * size);
+      return toMillis(sorted[Math.max(rank, 1) - 1]);
+   }
+
+   private static long toMillis(final long nanos) {
+      return TimeUnit.NANOSECONDS.toMillis(nanos);
+   }
+}
@@ -17,6 +17,7 @@
 package de.doubleslash.keeptime.viewpopup;
 
 import java.awt.Point;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,11 +26,14 @@ import org.springframework.stereotype.Component;
 
 import de.doubleslash.keeptime.common.ColorHelper;
 import de.doubleslash.keeptime.common.StyleUtils;
-import de.doubleslash.keeptime.common.time.Interval;
 import de.doubleslash.keeptime.controller.Controller;
 import de.doubleslash.keeptime.model.Model;
 import de.doubleslash.keeptime.model.Project;
+import de.doubleslash.keeptime.view.ProjectTimeModel;
 import de.doubleslash.keeptime.view.ProjectsListViewController;
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.beans.InvalidationListener;
 import javafx.fxml.FXML;
 import javafx.scene.control.ListView;
 import javafx.scene.control.TextField;
@@ -58,12 +62,25 @@ public class ViewControllerPopup {
 
    private final Model model;
 
+   private final ProjectTimeModel projectTimeModel;
+
+   /** subscription of the project list while the popup is showing **/
+   private ProjectTimeModel.Subscription projectTimeSubscription;
+
    private ProjectsListViewController projectsListViewController;
 
+   private final HotkeyLatencyRecorder latencyRecorder = new HotkeyLatencyRecorder();
+
+   private final FirstPulseTimer firstPulseTimer = new FirstPulseTimer();
+
+   private boolean prewarmScheduled = false;
+
    @Autowired
-   public ViewControllerPopup(final Model model, final Controller controller) {
+   public ViewControllerPopup(final Model model, final Controller controller,
+         final ProjectTimeModel projectTimeModel) {
       this.model = model;
       this.controller = controller;
+      this.projectTimeModel = projectTimeModel;
    }
 
    public void setStage(final Stage primaryStage) {
@@ -76,30 +93,76 @@ public class ViewControllerPopup {
          }
       });
 
-      projectsListViewController = new ProjectsListViewController(model, controller, stage, projectListView,
-            searchTextField, true);
+      projectsListViewController = new ProjectsListViewController(model, controller, projectTimeModel, stage,
+            projectListView, searchTextField, true);
 
-      new Interval(1).registerCallBack(() -> projectsListViewController.tick());
+      stage.showingProperty().addListener((a, b, isShowing) -> {
+         if (isShowing) {
+            return;
+         }
+         // the project list hides the stage itself, too. The next show has to start with all projects again
+         searchTextField.setText("");
+         // no need to update the project times while the popup is hidden
+         if (projectTimeSubscription != null) {
+            projectTimeSubscription.cancel();
+            projectTimeSubscription = null;
+         }
+      });
 
+      // lay out the list again while hidden, whenever the shown projects change
+      projectListView.getItems().addListener((InvalidationListener) observable -> schedulePrewarm());
+      prewarm();
    }
 
-   public void show(final Point mouseLocation) {
+   /**
+    * @param hotkeyNanos
+    *           {@link System#nanoTime()} when the hotkey was pressed, to measure the time until the popup is rendered
+    */
+   public void show(final Point mouseLocation, final long hotkeyNanos) {
       if (!stage.isShowing()) {
+         final long fxNanos = System.nanoTime();
          LOG.info("Showing popup");
          projectListView.getSelectionModel().select(0);
-         projectListView.refresh();
+         projectListView.scrollTo(0);
 
-         searchTextField.setText("a"); // trigger to update list size
-         searchTextField.setText("");
+         if (projectTimeSubscription == null) {
+            projectTimeSubscription = projectTimeModel.subscribe();
+         }
 
          stage.setX(mouseLocation.getX() - 2);
          stage.setY(mouseLocation.getY() - 2);
          stage.show();
          stage.requestFocus();
          searchTextField.requestFocus();
+         firstPulseTimer.start(hotkeyNanos, fxNanos, System.nanoTime());
       }
    }
 
+   private void schedulePrewarm() {
+      if (!prewarmScheduled) {
+         prewarmScheduled = true;
+         Platform.runLater(() -> {
+            prewarmScheduled = false;
+            prewarm();
+         });
+      }
+   }
+
+   /**
+    * Applies the css and lays out the hidden popup, so showing it does not have to. The former show toggled the search
+    * text to get the list updated instead.
+    */
+   private void prewarm() {
+      if (stage == null || stage.isShowing()) {
+         return;
+      }
+      final long start = System.nanoTime();
+      root.applyCss();
+      root.autosize();
+      root.layout();
+      LOG.debug("Prewarmed popup in '{}' ms.", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+   }
+
    @FXML
    private void initialize() {
 
@@ -122,10 +185,29 @@ public class ViewControllerPopup {
 
    private void hide() {
       if (stage.isShowing()) {
+         stage.hide();
+      }
+   }
 
-         searchTextField.setText("");
+   /**
+    * Stops at the first pulse after the popup was shown, which is the pulse rendering it.
+    */
+   private class FirstPulseTimer extends AnimationTimer {
+      private long hotkeyNanos;
+      private long fxNanos;
+      private long shownNanos;
+
+      private void start(final long hotkeyNanos, final long fxNanos, final long shownNanos) {
+         this.hotkeyNanos = hotkeyNanos;
+         this.fxNanos = fxNanos;
+         this.shownNanos = shownNanos;
+         start();
+      }
 
-         stage.hide();
+      @Override
+      public void handle(final long now) {
+         stop();
+         latencyRecorder.record(hotkeyNanos, fxNanos, shownNanos, System.nanoTime());
       }
    }
 
@@ -137,6 +219,7 @@ public class ViewControllerPopup {
       style = StyleUtils.changeStyleAttribute(style, "fx-border-color",
             "rgba(" + ColorHelper.colorToCssRgb(color) + ", " + opacity + ")");
       root.setStyle(style);
+      schedulePrewarm();
    }
 
 }
@@ -0,0 +1,3 @@
+CREATE INDEX IF NOT EXISTS idx_work_start_time ON work (start_time);
+
+CREATE INDEX IF NOT EXISTS idx_work_end_time ON work (end_time);
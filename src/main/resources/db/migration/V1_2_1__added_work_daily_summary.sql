@@ -0,0 +1,12 @@
+CREATE TABLE IF NOT EXISTS work_daily_summary
+  (
+     work_date     DATE NOT NULL,
+     project_id    BIGINT NOT NULL,
+     total_seconds BIGINT NOT NULL,
+     work_seconds  BIGINT NOT NULL,
+     PRIMARY KEY (work_date, project_id)
+  );
+
+ALTER TABLE work_daily_summary
+  ADD CONSTRAINT IF NOT EXISTS fk_work_daily_summary_project FOREIGN KEY (project_id) REFERENCES
+  project;
@@ -0,0 +1,2 @@
+ALTER TABLE settings
+  ADD COLUMN popup_hotkey VARCHAR(255) NOT NULL DEFAULT ('162+91');
@@ -0,0 +1,6 @@
+-- ids of work and project are allocated in blocks of 50 from sequences, so inserts can be batched
+CREATE SEQUENCE IF NOT EXISTS work_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE work_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM work);
+
+CREATE SEQUENCE IF NOT EXISTS project_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE project_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM project);
@@ -0,0 +1,2 @@
+-- project indexes are ordering keys with gaps, so moving a project only changes its own row. Deleted projects keep -1.
+UPDATE project SET index = (index + 1) * 1024 WHERE index >= 0;
@@ -0,0 +1,95 @@
+// Copyright 2019 doubleSlash Net Business GmbH
+//
+// This file is part of KeepTime.
+// KeepTime is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+
+package de.doubleslash.keeptime.common;
+
+import static org.junit.Assert.assertEquals;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares the former boxing and concatenating implementation of {@link DateFormatter#secondsToHHMMSS(long)} with
+ * the table based one and with a cached {@link DateFormatter.HHMMSSFormatter} (time and allocated bytes per call).<br>
+ * Not part of the regular test run. Start it with {@code mvn test -Dtest=DateFormatterBenchmark}.
+ */
+public class DateFormatterBenchmark {
+
+   private static final Logger LOG = LoggerFactory.getLogger(DateFormatterBenchmark.class);
+
+   private static final int CALLS = 2_000_000;
+   private static final int ROUNDS = 5;
+
+   private final com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory
+         .getThreadMXBean();
+
+   private int blackhole;
+
+   @Test
+   public void compareFormatters() {
+      for (long seconds = 0; seconds < 100_000; seconds += 13) {
+         assertEquals(formerSecondsToHHMMSS(seconds), DateFormatter.secondsToHHMMSS(seconds));
+      }
+
+      // each second formatted three times, like labels ticking every second
+      final DateFormatter.HHMMSSFormatter formatter = new DateFormatter.HHMMSSFormatter();
+      for (int round = 0; round < ROUNDS; round++) {
+         final boolean lastRound = round == ROUNDS - 1;
+         measure("former", DateFormatterBenchmark::formerSecondsToHHMMSS, lastRound);
+         measure("table", DateFormatter::secondsToHHMMSS, lastRound);
+         measure("cached", formatter::format, lastRound);
+      }
+      LOG.debug("{}", blackhole);
+   }
+
+   private void measure(final String name, final LongFunction<String> format, final boolean log) {
+      final long threadId = Thread.currentThread().getId();
+      final long bytesBefore = threadBean.getThreadAllocatedBytes(threadId);
+      final long start = System.nanoTime();
+      for (int i = 0; i < CALLS; i++) {
+         blackhole += format.apply(i / 3).length();
+      }
+      final long nanos = System.nanoTime() - start;
+      final long bytes = threadBean.getThreadAllocatedBytes(threadId) - bytesBefore;
+      if (log) {
+         LOG.info("{}: {} ns/call, {} bytes/call ({} ms total)", name, nanos / CALLS, bytes / CALLS,
+               TimeUnit.NANOSECONDS.toMillis(nanos));
+      }
+   }
+
+   /**
+    * Implementation of {@link DateFormatter#secondsToHHMMSS(long)} before the table based one.
+    */
+   private static String formerSecondsToHHMMSS(final long currentWorkSeconds) {
+      final int hours = (int) (currentWorkSeconds / 3600);
+      final int minutes = (int) ((currentWorkSeconds % 3600) / 60);
+
+      final int sec = (int) (currentWorkSeconds % 3600 % 60);
+
+      final Object hoursString = hours > 9 ? hours : "0" + hours;
+      final Object minutesString = minutes > 9 ? minutes : "0" + minutes;
+      final Object secondsString = sec > 9 ? sec : "0" + sec;
+
+      final String timeString = hoursString + ":" + minutesString + ":" + secondsString;
+      return timeString;
+   }
+}
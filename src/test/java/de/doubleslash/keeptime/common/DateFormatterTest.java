@@ -24,9 +24,9 @@ import org.hamcrest.Matchers;
 import org.junit.Ignore;
 import org.junit.Test;
 
-@Ignore
 public class DateFormatterTest {
 
+   @Ignore
    @Test
    public void zeroSecondsBetweenTest() {
       final LocalDateTime startDate = LocalDateTime.now();
@@ -38,4 +38,39 @@ public class DateFormatterTest {
       final long secondsBewtweenSwitched = DateFormatter.getSecondsBewtween(endDate, startDate);
       assertThat(secondsBewtweenSwitched, Matchers.is(0l)); // why??
    }
+
+   @Test
+   public void secondsToHHMMSSTest() {
+      assertThat(DateFormatter.secondsToHHMMSS(0), Matchers.is("00:00:00"));
+      assertThat(DateFormatter.secondsToHHMMSS(59), Matchers.is("00:00:59"));
+      assertThat(DateFormatter.secondsToHHMMSS(3600 + 60 + 1), Matchers.is("01:01:01"));
+      assertThat(DateFormatter.secondsToHHMMSS(99 * 3600 + 59 * 60 + 59), Matchers.is("99:59:59"));
+      assertThat(DateFormatter.secondsToHHMMSS(1234 * 3600 + 5), Matchers.is("1234:00:05"));
+   }
+
+   @Test
+   public void secondsToHHMMSSAtPowersOfTenTest() {
+      long hours = 100;
+      for (int digits = 3; digits <= 15; digits++) {
+         assertThat(DateFormatter.secondsToHHMMSS((hours - 1) * 3600), Matchers.is((hours - 1) + ":00:00"));
+         assertThat(DateFormatter.secondsToHHMMSS(hours * 3600), Matchers.is(hours + ":00:00"));
+         hours *= 10;
+      }
+   }
+
+   @Test
+   public void appendHHMMSSTest() {
+      final StringBuilder builder = new StringBuilder("time ");
+      DateFormatter.appendHHMMSS(10 * 3600 + 20 * 60 + 30, builder);
+      assertThat(builder.toString(), Matchers.is("time 10:20:30"));
+   }
+
+   @Test
+   public void hhmmssFormatterReturnsCachedStringIfSecondsDidNotChange() {
+      final DateFormatter.HHMMSSFormatter formatter = new DateFormatter.HHMMSSFormatter();
+
+      final String first = formatter.format(42);
+      assertThat(formatter.format(42), Matchers.sameInstance(first));
+      assertThat(formatter.format(43), Matchers.is("00:00:43"));
+   }
 }
@@ -0,0 +1,158 @@
+// Copyright 2019 doubleSlash Net Business GmbH
+//
+// This file is part of KeepTime.
+// KeepTime is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+
+package de.doubleslash.keeptime.common.time;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import de.doubleslash.keeptime.common.DateProvider;
+
+public class TickSchedulerTest {
+
+   private DateProvider mockedDateProvider;
+
+   private long virtualNanos = 1_000_000;
+
+   private final List<Runnable> postedFxBatches = new ArrayList<>();
+
+   private TickScheduler testee;
+
+   @Before
+   public void beforeTest() {
+      mockedDateProvider = Mockito.mock(DateProvider.class);
+      Mockito.when(mockedDateProvider.nanoTime()).thenAnswer(invocation -> virtualNanos);
+      testee = new TickScheduler(mockedDateProvider, postedFxBatches::add);
+   }
+
+   @Test
+   public void shouldCallCallbacksWithTheirOwnPeriods() {
+      final AtomicInteger everySecond = new AtomicInteger();
+      final AtomicInteger everyMinute = new AtomicInteger();
+      testee.schedule(Duration.ofSeconds(1), everySecond::incrementAndGet);
+      testee.schedule(Duration.ofMinutes(1), everyMinute::incrementAndGet);
+
+      advanceSeconds(120);
+
+      assertEquals(120, everySecond.get());
+      assertEquals(2, everyMinute.get());
+   }
+
+   @Test
+   public void shouldRunFxCallbacksOfOneTickInOneBatch() {
+      final AtomicInteger first = new AtomicInteger();
+      final AtomicInteger second = new AtomicInteger();
+      final AtomicInteger background = new AtomicInteger();
+      testee.scheduleOnFxThread(Duration.ofSeconds(1), first::incrementAndGet);
+      testee.scheduleOnFxThread(Duration.ofSeconds(1), second::incrementAndGet);
+      testee.schedule(Duration.ofSeconds(1), background::incrementAndGet);
+
+      advanceSeconds(1);
+
+      assertEquals("Background callback should run on scheduler thread", 1, background.get());
+      assertEquals("FX callbacks should wait for the FX thread", 0, first.get());
+      assertEquals(1, postedFxBatches.size());
+
+      postedFxBatches.remove(0).run();
+
+      assertEquals(1, first.get());
+      assertEquals(1, second.get());
+   }
+
+   @Test
+   public void shouldNotPostAnotherBatchWhileFxThreadIsBusy() {
+      final AtomicInteger counter = new AtomicInteger();
+      testee.scheduleOnFxThread(Duration.ofSeconds(1), counter::incrementAndGet);
+
+      advanceSeconds(3);
+
+      assertEquals(1, postedFxBatches.size());
+      postedFxBatches.remove(0).run();
+      assertEquals("Pending callback should only be called once", 1, counter.get());
+   }
+
+   @Test
+   public void shouldCallCallbackOnlyOnceAfterStandby() {
+      final AtomicInteger counter = new AtomicInteger();
+      testee.schedule(Duration.ofSeconds(1), counter::incrementAndGet);
+
+      virtualNanos += Duration.ofHours(8).toNanos();
+      testee.advance();
+      assertEquals(1, counter.get());
+
+      advanceSeconds(1);
+      assertEquals(2, counter.get());
+   }
+
+   @Test
+   public void shouldNotCallCancelledCallback() {
+      final AtomicInteger counter = new AtomicInteger();
+      final TickScheduler.Registration registration = testee.schedule(Duration.ofSeconds(1),
+            counter::incrementAndGet);
+
+      advanceSeconds(1);
+      registration.cancel();
+      advanceSeconds(5);
+
+      assertEquals(1, counter.get());
+   }
+
+   @Test
+   public void shouldRunLatestFxUpdateOfBackgroundComputation() {
+      final AtomicInteger computations = new AtomicInteger();
+      final List<Integer> appliedUpdates = new ArrayList<>();
+      testee.scheduleWithFxUpdate(Duration.ofSeconds(1), () -> {
+         final int computation = computations.incrementAndGet();
+         return () -> appliedUpdates.add(computation);
+      });
+
+      advanceSeconds(3);
+
+      assertEquals("Computation should run on scheduler thread", 3, computations.get());
+      assertEquals(1, postedFxBatches.size());
+      postedFxBatches.remove(0).run();
+      assertEquals(Collections.singletonList(3), appliedUpdates);
+   }
+
+   @Test
+   public void shouldSleepUntilNextDeadline() {
+      testee.schedule(Duration.ofMinutes(1), () -> {});
+      testee.schedule(Duration.ofSeconds(5), () -> {});
+
+      assertEquals(Duration.ofSeconds(5).toNanos(), testee.nextDeadlineTick() * TickScheduler.TICK_NANOS);
+
+      advanceSeconds(5);
+      assertEquals(Duration.ofSeconds(10).toNanos(), testee.nextDeadlineTick() * TickScheduler.TICK_NANOS);
+   }
+
+   private void advanceSeconds(final int seconds) {
+      for (long i = 0; i < Duration.ofSeconds(seconds).toNanos() / TickScheduler.TICK_NANOS; i++) {
+         virtualNanos += TickScheduler.TICK_NANOS;
+         testee.advance();
+      }
+   }
+
+}
@@ -17,6 +17,7 @@
 package de.doubleslash.keeptime.controller;
 
 import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
@@ -27,10 +28,12 @@ import static org.junit.Assert.assertTrue;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Queue;
 import java.util.concurrent.TimeUnit;
 
-import org.hamcrest.Matchers;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
@@ -38,11 +41,13 @@ import org.mockito.Mockito;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import de.doubleslash.keeptime.common.DateProvider;
+import de.doubleslash.keeptime.common.time.TickScheduler;
 import de.doubleslash.keeptime.model.Model;
 import de.doubleslash.keeptime.model.Project;
 import de.doubleslash.keeptime.model.Work;
 import de.doubleslash.keeptime.model.repos.ProjectRepository;
 import de.doubleslash.keeptime.model.repos.SettingsRepository;
+import de.doubleslash.keeptime.model.repos.WorkDailySummaryRepository;
 import de.doubleslash.keeptime.model.repos.WorkRepository;
 import javafx.scene.paint.Color;
 
@@ -58,143 +63,147 @@ public class ControllerTest {
    @Before
    public void beforeTest() {
       mockedWorkRepository = Mockito.mock(WorkRepository.class);
+      Mockito.when(mockedWorkRepository.save(Mockito.any(Work.class)))
+            .thenAnswer(invocation -> invocation.getArguments()[0]);
       model = new Model(Mockito.mock(ProjectRepository.class), mockedWorkRepository,
             Mockito.mock(SettingsRepository.class));
+      Mockito.when(model.getProjectRepository().saveAll(Mockito.anyIterable()))
+            .thenAnswer(invocation -> invocation.getArguments()[0]);
       mockedDateProvider = Mockito.mock(DateProvider.class);
-      testee = new Controller(model, mockedDateProvider);
+      final PersistenceExecutor persistenceExecutor = new PersistenceExecutor(Runnable::run);
+      testee = new Controller(model, mockedDateProvider,
+            new WorkDailySummaryService(mockedWorkRepository, Mockito.mock(WorkDailySummaryRepository.class),
+                  model.getProjectRepository()),
+            persistenceExecutor, Mockito.mock(WorkJournal.class),
+            new DayReportCache(mockedWorkRepository, persistenceExecutor), Mockito.mock(ProjectCache.class),
+            Mockito.mock(TickScheduler.class));
    }
 
    @Test
    public void moveProjectFromEndToStart() {
+      final List<Project> projectList = createProjects(4);
+      final Project project3 = projectList.get(3);
 
-      final List<Integer> expectedOrderAfter = Arrays.asList(1, 2, 3, 0);
-
-      final Project project0 = new Project();
-      project0.setIndex(0);
-      final Project project1 = new Project();
-      project1.setIndex(1);
-      final Project project2 = new Project();
-      project2.setIndex(2);
-
-      final Project project3 = new Project();
-      final int oldIndex = 3;
-      project3.setIndex(oldIndex);
-      final int newIndex = 0;
-      project3.setIndex(newIndex);
-
-      // change index to 0
-      final List<Project> projectList = Arrays.asList(project0, project1, project2, project3);
-      testee.resortProjectIndexes(projectList, project3, oldIndex, newIndex);
-
-      for (int i = 0; i < projectList.size(); i++) {
-         assertThat(projectList.get(i).getIndex(), Matchers.is(expectedOrderAfter.get(i)));
-      }
+      final List<Project> changedProjects = testee.placeProject(projectList, project3, 0);
 
+      assertThat("Only the moved project should change", changedProjects, is(empty()));
+      assertThat(sortedByIndex(projectList),
+            contains(project3, projectList.get(0), projectList.get(1), projectList.get(2)));
    }
 
    @Test
    public void moveProjectFromStartToEnd() {
+      final List<Project> projectList = createProjects(4);
+      final Project project0 = projectList.get(0);
 
-      final List<Integer> expectedOrderAfter = Arrays.asList(3, 0, 1, 2);
-
-      final Project project0 = new Project();
-      final int oldIndex = 0;
-      project0.setIndex(oldIndex);
-      final int newIndex = 3;
-      project0.setIndex(newIndex);
-
-      final Project project1 = new Project();
-      project1.setIndex(1);
-      final Project project2 = new Project();
-      project2.setIndex(2);
-      final Project project3 = new Project();
-      project3.setIndex(3);
-
-      final List<Project> projectList = Arrays.asList(project0, project1, project2, project3);
-      testee.resortProjectIndexes(projectList, project0, oldIndex, newIndex);
-
-      for (int i = 0; i < projectList.size(); i++) {
-         assertThat(projectList.get(i).getIndex(), Matchers.is(expectedOrderAfter.get(i)));
-      }
+      final List<Project> changedProjects = testee.placeProject(projectList, project0, 3);
 
+      assertThat("Only the moved project should change", changedProjects, is(empty()));
+      assertThat(sortedByIndex(projectList),
+            contains(projectList.get(1), projectList.get(2), projectList.get(3), project0));
    }
 
    @Test
    public void moveProjectForward() {
+      final List<Project> projectList = createProjects(4);
+      final Project project1 = projectList.get(1);
 
-      final List<Integer> expectedOrderAfter = Arrays.asList(0, 2, 1, 3);
-
-      final Project project0 = new Project();
-      project0.setIndex(0);
-
-      final Project project1 = new Project();
-      final int oldIndex = 1;
-      project1.setIndex(oldIndex);
-      final int newIndex = 2;
-      project1.setIndex(newIndex);
-      final Project project2 = new Project();
-      project2.setIndex(2);
-      final Project project3 = new Project();
-      project3.setIndex(3);
-
-      final List<Project> projectList = Arrays.asList(project0, project1, project2, project3);
-      testee.resortProjectIndexes(projectList, project1, oldIndex, newIndex);
-
-      for (int i = 0; i < projectList.size(); i++) {
-         assertThat(projectList.get(i).getIndex(), Matchers.is(expectedOrderAfter.get(i)));
-      }
+      final List<Project> changedProjects = testee.placeProject(projectList, project1, 2);
 
+      assertThat("Only the moved project should change", changedProjects, is(empty()));
+      assertThat(sortedByIndex(projectList),
+            contains(projectList.get(0), projectList.get(2), project1, projectList.get(3)));
    }
 
    @Test
    public void moveProjectBackward() {
+      final List<Project> projectList = createProjects(4);
+      final Project project2 = projectList.get(2);
 
-      final List<Integer> expectedOrderAfter = Arrays.asList(0, 2, 1, 3);
+      final List<Project> changedProjects = testee.placeProject(projectList, project2, 1);
 
-      final Project project0 = new Project();
-      project0.setIndex(0);
+      assertThat("Only the moved project should change", changedProjects, is(empty()));
+      assertThat(sortedByIndex(projectList),
+            contains(projectList.get(0), project2, projectList.get(1), projectList.get(3)));
+   }
 
-      final Project project1 = new Project();
-      project1.setIndex(1);
-      final Project project2 = new Project();
-      final int oldIndex = 2;
-      project2.setIndex(oldIndex);
-      final int newIndex = 1;
-      project2.setIndex(newIndex);
-      final Project project3 = new Project();
-      project3.setIndex(3);
+   @Test
+   public void dontMoveProjectTest() {
+      final List<Project> projectList = createProjects(4);
+      final List<Integer> expectedIndexes = Arrays.asList(1024, 2048, 3072, 4096);
 
-      final List<Project> projectList = Arrays.asList(project0, project1, project2, project3);
-      testee.resortProjectIndexes(projectList, project2, oldIndex, newIndex);
+      for (int i = 0; i < projectList.size(); i++) {
+         assertThat(testee.placeProject(projectList, projectList.get(i), i), is(empty()));
+      }
 
       for (int i = 0; i < projectList.size(); i++) {
-         assertThat(projectList.get(i).getIndex(), is(expectedOrderAfter.get(i)));
+         assertThat(projectList.get(i).getIndex(), is(expectedIndexes.get(i)));
       }
    }
 
    @Test
-   public void dontMoveProjectTest() {
-
-      final List<Integer> expectedOrderAfter = Arrays.asList(0, 1, 2, 3);
-
-      final Project project0 = new Project();
-      project0.setIndex(0);
-
-      final Project project1 = new Project();
-      project1.setIndex(1);
-      final Project project2 = new Project();
-      project2.setIndex(2);
-      final Project project3 = new Project();
-      project3.setIndex(3);
-
-      final List<Project> projectList = Arrays.asList(project0, project1, project2, project3);
-      for (final Project project : projectList) {
-         testee.resortProjectIndexes(projectList, project, project.getIndex(), project.getIndex());
+   public void renumberProjectsIfNoIndexIsLeftTest() {
+      final List<Project> projectList = createProjects(3);
+      projectList.get(0).setIndex(0);
+      projectList.get(1).setIndex(1);
+      projectList.get(2).setIndex(2);
+      final Project newProject = new Project();
+
+      final List<Project> changedProjects = testee.placeProject(projectList, newProject, 1);
+
+      assertThat(changedProjects, contains(projectList.get(0), projectList.get(1), projectList.get(2)));
+      final List<Project> expectedOrder = Arrays.asList(projectList.get(0), newProject, projectList.get(1),
+            projectList.get(2));
+      for (int i = 0; i < expectedOrder.size(); i++) {
+         assertThat(expectedOrder.get(i).getIndex(), is((i + 1) * Controller.PROJECT_INDEX_GAP));
       }
+   }
 
-      for (int i = 0; i < projectList.size(); i++) {
-         assertThat(projectList.get(i).getIndex(), is(expectedOrderAfter.get(i)));
-      }
+   @Test
+   public void deleteProjectSavesOnlyTheProjectTest() {
+      final List<Project> projectList = createProjects(4);
+      model.getAllProjects().addAll(projectList);
+      model.getAvailableProjects().addAll(projectList);
+      final Project project1 = projectList.get(1);
+
+      testee.deleteProject(project1);
+
+      // a copy of the project is saved
+      Mockito.verify(model.getProjectRepository())
+            .saveAll(Mockito.argThat((final List<Project> savedProjects) -> savedProjects.size() == 1
+                  && savedProjects.get(0).getId() == project1.getId() && !savedProjects.get(0).isEnabled()));
+      assertThat(model.getSortedAvailableProjects(), contains(projectList.get(0), projectList.get(2),
+            projectList.get(3)));
+   }
+
+   @Test
+   public void workOnNewProjectShouldBeSavedWithIdOfProject() {
+      final Queue<Runnable> persistenceTasks = new LinkedList<>();
+      final Queue<Runnable> fxTasks = new LinkedList<>();
+      final PersistenceExecutor persistenceExecutor = new PersistenceExecutor(persistenceTasks::add, fxTasks::add);
+      testee = new Controller(model, mockedDateProvider,
+            new WorkDailySummaryService(mockedWorkRepository, Mockito.mock(WorkDailySummaryRepository.class),
+                  model.getProjectRepository()),
+            persistenceExecutor, Mockito.mock(WorkJournal.class),
+            new DayReportCache(mockedWorkRepository, persistenceExecutor), Mockito.mock(ProjectCache.class),
+            Mockito.mock(TickScheduler.class));
+      Mockito.when(model.getProjectRepository().saveAll(Mockito.anyIterable())).thenAnswer(invocation -> {
+         final List<Project> savedProjects = invocation.getArgument(0);
+         savedProjects.forEach(savedProject -> savedProject.setId(5));
+         return savedProjects;
+      });
+      final Project newProject = new Project("New", "", Color.GREEN, true, 0);
+      final LocalDateTime startTime = LocalDateTime.now();
+
+      testee.addNewProject(newProject);
+      model.activeWorkItem.set(new Work(startTime, startTime, newProject, ""));
+      testee.saveCurrentWork(startTime.plusMinutes(1));
+      runAll(persistenceTasks);
+
+      assertThat("id is only applied on the FX thread", newProject.getId(), is(0L));
+      Mockito.verify(model.getProjectRepository()).getOne(5L);
+      runAll(fxTasks);
+      assertThat(newProject.getId(), is(5L));
    }
 
    @Test
@@ -205,6 +214,8 @@ public class ControllerTest {
       Mockito.when(mockedDateProvider.dateTimeNow()).thenReturn(firstProjectDateTime);
       final Project firstProject = new Project("1st Project", "A good description", Color.GREEN, true, 0);
       final Project secondProject = new Project("2nd Project", "An even better description", Color.RED, true, 1);
+      storeProject(firstProject, 1);
+      storeProject(secondProject, 2);
       testee.changeProject(firstProject);
       Mockito.when(mockedDateProvider.dateTimeNow()).thenReturn(secondProjectDateTime);
       testee.changeProject(secondProject);
@@ -230,13 +241,14 @@ public class ControllerTest {
 
    @Test
    public void changeProjectOtherDayTest() {
-      Mockito.when(mockedWorkRepository.save(Mockito.any(Work.class))).thenAnswer(i -> i.getArguments()[0]);
       final LocalDateTime firstProjectDateTime = LocalDateTime.now();
       final LocalDateTime secondProjectDateTime = firstProjectDateTime.plusDays(1); // project is create the next day
 
       Mockito.when(mockedDateProvider.dateTimeNow()).thenReturn(firstProjectDateTime);
       final Project firstProject = new Project("1st Project", "A good description", Color.GREEN, true, 0);
       final Project secondProject = new Project("2nd Project", "An even better description", Color.RED, true, 1);
+      storeProject(firstProject, 1);
+      storeProject(secondProject, 2);
       testee.changeProject(firstProject);
       Mockito.when(mockedDateProvider.dateTimeNow()).thenReturn(secondProjectDateTime);
       testee.changeProject(secondProject);
@@ -268,6 +280,8 @@ public class ControllerTest {
       Mockito.when(mockedDateProvider.dateTimeNow()).thenReturn(firstProjectDateTime);
       final Project firstProject = new Project("1st Project", "A good description", Color.GREEN, true, 0);
       final Project secondProject = new Project("2nd Project", "An even better description", Color.RED, true, 1);
+      storeProject(firstProject, 1);
+      storeProject(secondProject, 2);
       testee.changeProject(firstProject);
       Mockito.when(mockedDateProvider.dateTimeNow()).thenReturn(secondProjectDateTime);
       testee.changeProject(secondProject, 23 * 60 * 60); // change with -23 hours
@@ -333,9 +347,6 @@ public class ControllerTest {
    @Test
    public void shouldUpdateWorkItemPersistentlyWhenWorkItemIsEdited() {
       Mockito.when(mockedDateProvider.dateTimeNow()).thenReturn(LocalDateTime.now());
-      Mockito.when(mockedWorkRepository.save(Mockito.any(Work.class)))
-            .thenAnswer(invocation -> invocation.getArguments()[0]);
-
       final Project project1 = new Project("workProject1", "Some description", Color.RED, true, 0);
       model.getAllProjects().add(project1);
 
@@ -358,16 +369,15 @@ public class ControllerTest {
 
       final ArgumentCaptor<Work> argument = ArgumentCaptor.forClass(Work.class);
       Mockito.verify(mockedWorkRepository, Mockito.times(1)).save(argument.capture());
-      assertThat("Edited work was not saved persistently", argument.getValue(), is(originalWork));
+      assertThat("Edited work was not saved persistently", argument.getValue().getNotes(), is("updated"));
+      assertThat(argument.getValue().getStartTime(), is(newWork.getStartTime()));
+      assertThat(argument.getValue().getEndTime(), is(newWork.getEndTime()));
 
    }
 
    @Test
    public void shouldNotUpdateOthersWhenWorkItemIsEdited() {
       Mockito.when(mockedDateProvider.dateTimeNow()).thenReturn(LocalDateTime.now());
-      Mockito.when(mockedWorkRepository.save(Mockito.any(Work.class)))
-            .thenAnswer(invocation -> invocation.getArguments()[0]);
-
       final Project project1 = new Project("workProject1", "Some description", Color.RED, true, 0);
       model.getAllProjects().add(project1);
 
@@ -395,8 +405,8 @@ public class ControllerTest {
 
       final ArgumentCaptor<Work> argument = ArgumentCaptor.forClass(Work.class);
       Mockito.verify(mockedWorkRepository, Mockito.times(1)).save(argument.capture());
-      assertThat("Saved other Work persistently than what should be edited", argument.getValue(),
-            not(is(notToBeUpdatedWork)));
+      assertThat("Saved other Work persistently than what should be edited", argument.getValue().getId(),
+            is(originalWork.getId()));
 
    }
 
@@ -410,13 +420,12 @@ public class ControllerTest {
 
       final Work work = new Work(localDateTimeMorning.plusHours(0), localDateTimeMorning.plusHours(1), project1,
             "originalWork");
+      ReflectionTestUtils.setField(work, "id", 1L);
       model.getPastWorkItems().add(work);
 
       testee.deleteWork(work);
 
-      final ArgumentCaptor<Work> argument = ArgumentCaptor.forClass(Work.class);
-      Mockito.verify(mockedWorkRepository, Mockito.times(1)).delete(argument.capture());
-      assertThat("Edited work was not deleted persistently", argument.getValue(), is(work));
+      Mockito.verify(mockedWorkRepository, Mockito.times(1)).deleteById(1L);
 
    }
 
@@ -438,4 +447,31 @@ public class ControllerTest {
 
    }
 
+   private void runAll(final Queue<Runnable> tasks) {
+      while (!tasks.isEmpty()) {
+         tasks.poll().run();
+      }
+   }
+
+   private void storeProject(final Project project, final long id) {
+      ReflectionTestUtils.setField(project, "id", id);
+      Mockito.when(model.getProjectRepository().getOne(id)).thenReturn(project);
+   }
+
+   private List<Project> createProjects(final int amount) {
+      final List<Project> projects = new ArrayList<>(amount);
+      for (int i = 0; i < amount; i++) {
+         final Project project = new Project("Project " + i, "", Color.GREEN, true,
+               (i + 1) * Controller.PROJECT_INDEX_GAP);
+         ReflectionTestUtils.setField(project, "id", i + 1L);
+         projects.add(project);
+      }
+      return projects;
+   }
+
+   private List<Project> sortedByIndex(final List<Project> projects) {
+      final List<Project> sortedProjects = new ArrayList<>(projects);
+      sortedProjects.sort(Comparator.comparingInt(Project::getIndex));
+      return sortedProjects;
+   }
 }
@@ -0,0 +1,162 @@
+// Copyright 2019 doubleSlash Net Business GmbH
+//
+// This file is part of KeepTime.
+// KeepTime is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+
+package de.doubleslash.keeptime.controller;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.flywaydb.core.Flyway;
+import org.h2.tools.Script;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.doubleslash.keeptime.ApplicationProperties;
+
+/**
+ * Compares the former blocking {@link Script} export with the gzip export on 100k work items and measures how long
+ * a quick-save has to wait while the export runs.<br>
+ * Not part of the regular test run. Start it with {@code mvn test -Dtest=DatabaseExporterBenchmark}.
+ */
+public class DatabaseExporterBenchmark {
+
+   private static final Logger LOG = LoggerFactory.getLogger(DatabaseExporterBenchmark.class);
+
+   private static final String URL = "jdbc:h2:mem:databaseExporterBenchmark;DB_CLOSE_DELAY=-1";
+
+   private static final int WORK_ITEMS = 100_000;
+   private static final LocalDateTime FIRST_START = LocalDateTime.of(2015, 1, 1, 8, 0);
+
+   @Rule
+   public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+   private Connection connection;
+
+   @Before
+   public void setUp() throws SQLException {
+      connection = DriverManager.getConnection(URL, "sa", "");
+      Flyway.configure().dataSource(URL, "sa", "").load().migrate();
+      fillDatabase();
+   }
+
+   @After
+   public void tearDown() throws SQLException {
+      try (Statement statement = connection.createStatement()) {
+         statement.execute("SHUTDOWN");
+      }
+      connection.close();
+   }
+
+   @Test
+   public void compareExports() throws Exception {
+      final File scriptFile = new File(temporaryFolder.getRoot(), "script.sql");
+      final File exportFile = new File(temporaryFolder.getRoot(), "export.sql.gz");
+      final PersistenceExecutor persistenceExecutor = new PersistenceExecutor();
+      final DatabaseExporter exporter = new DatabaseExporter(Mockito.mock(ApplicationProperties.class),
+            persistenceExecutor);
+
+      // warm up
+      Script.process(connection, scriptFile.getAbsolutePath(), "DROP", "");
+      exporter.export(connection, exportFile, progress());
+
+      long start = System.nanoTime();
+      Script.process(connection, scriptFile.getAbsolutePath(), "DROP", "");
+      final long scriptMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+      long longestSaveWaitMillis = 0;
+      start = System.nanoTime();
+      final CompletableFuture<Void> export = CompletableFuture.runAsync(() -> {
+         try {
+            exporter.export(connection, exportFile, progress());
+         } catch (final Exception e) {
+            throw new IllegalStateException(e);
+         }
+      });
+      while (!export.isDone()) {
+         final long saveStart = System.nanoTime();
+         persistenceExecutor.submit("quick-save", () -> {}).get();
+         longestSaveWaitMillis = Math.max(longestSaveWaitMillis,
+               TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - saveStart));
+         Thread.sleep(10);
+      }
+      export.get();
+      final long exportMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+      persistenceExecutor.shutdown();
+
+      LOG.info("Exporting {} work items:", WORK_ITEMS);
+      LOG.info("Script.process, blocking: {} ms, {} kB", scriptMillis, scriptFile.length() / 1024);
+      LOG.info("DatabaseExporter, gzip:   {} ms, {} kB", exportMillis, exportFile.length() / 1024);
+      LOG.info("Longest wait of a quick-save during the export: {} ms", longestSaveWaitMillis);
+      assertTrue("Export should take seconds only.", exportMillis < TimeUnit.SECONDS.toMillis(10));
+   }
+
+   private DatabaseExporter.Progress progress() {
+      return new DatabaseExporter.Progress() {
+         @Override
+         public void update(final long exportedStatements, final long totalStatements) {
+            // not needed
+         }
+
+         @Override
+         public boolean isCancelled() {
+            return false;
+         }
+      };
+   }
+
+   private void fillDatabase() throws SQLException {
+      try (Statement statement = connection.createStatement()) {
+         statement.execute("INSERT INTO project (id, color, index, is_default, is_enabled, is_work, name) "
+               + "VALUES (1, '0xff0000ff', 1024, TRUE, TRUE, TRUE, 'Project')");
+      }
+      connection.setAutoCommit(false);
+      try (PreparedStatement statement = connection.prepareStatement(
+            "INSERT INTO work (id, start_time, end_time, project_id, notes) VALUES (?, ?, ?, ?, ?)")) {
+         for (int i = 0; i < WORK_ITEMS; i++) {
+            final LocalDateTime start = FIRST_START.plusMinutes(i * 30L);
+            statement.setLong(1, i + 1L);
+            statement.setTimestamp(2, Timestamp.valueOf(start));
+            statement.setTimestamp(3, Timestamp.valueOf(start.plusMinutes(29)));
+            statement.setLong(4, 1);
+            statement.setString(5, "Worked on ticket " + i);
+            statement.addBatch();
+            if (i % 1000 == 999) {
+               statement.executeBatch();
+            }
+         }
+         statement.executeBatch();
+      }
+      connection.commit();
+      connection.setAutoCommit(true);
+   }
+}
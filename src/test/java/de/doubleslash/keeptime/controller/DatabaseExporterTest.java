@@ -0,0 +1,163 @@
+// Copyright 2019 doubleSlash Net Business GmbH
+//
+// This file is part of KeepTime.
+// KeepTime is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+
+package de.doubleslash.keeptime.controller;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.CancellationException;
+
+import org.flywaydb.core.Flyway;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+import de.doubleslash.keeptime.ApplicationProperties;
+
+public class DatabaseExporterTest {
+
+   private static final String URL = "jdbc:h2:mem:databaseExporterTest;DB_CLOSE_DELAY=-1";
+   private static final String IMPORT_URL = "jdbc:h2:mem:databaseExporterTestImport;DB_CLOSE_DELAY=-1";
+
+   @Rule
+   public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+   private Connection connection;
+   private File exportFile;
+   private DatabaseExporter testee;
+
+   @Before
+   public void setUp() throws SQLException {
+      connection = DriverManager.getConnection(URL, "sa", "");
+      Flyway.configure().dataSource(URL, "sa", "").load().migrate();
+      execute(connection, "INSERT INTO project (id, color, index, is_default, is_enabled, is_work, name, description) "
+            + "VALUES (1, '0xff0000ff', 1024, TRUE, TRUE, FALSE, 'Idle', ''), "
+            + "(2, '0x00ff00ff', 2048, FALSE, TRUE, TRUE, 'Customer''s project', 'Line 1\nLine 2')");
+      for (int i = 1; i <= 250; i++) {
+         execute(connection, "INSERT INTO work (id, start_time, end_time, project_id, notes) VALUES (" + i
+               + ", TIMESTAMP '2020-01-01 08:00:00', TIMESTAMP '2020-01-01 09:30:00', " + (1 + i % 2) + ", "
+               + (i % 10 == 0 ? "NULL" : "'Note " + i + "'") + ")");
+      }
+      exportFile = new File(temporaryFolder.getRoot(), "export.sql.gz");
+      testee = new DatabaseExporter(Mockito.mock(ApplicationProperties.class), new PersistenceExecutor(Runnable::run));
+   }
+
+   @After
+   public void tearDown() throws SQLException {
+      execute(connection, "SHUTDOWN");
+      connection.close();
+   }
+
+   @Test
+   public void exportCanBeImportedTest() throws Exception {
+      testee.export(connection, exportFile, progress(false));
+
+      try (Connection importConnection = DriverManager.getConnection(IMPORT_URL, "sa", "")) {
+         execute(importConnection, "RUNSCRIPT FROM '" + exportFile.getAbsolutePath() + "' COMPRESSION GZIP");
+
+         assertThat(query(importConnection, "SELECT COUNT(*) FROM work"), is("250"));
+         assertThat(query(importConnection, "SELECT COUNT(*) FROM work WHERE notes IS NULL"), is("25"));
+         assertThat(query(importConnection, "SELECT notes FROM work WHERE id = 7"), is("Note 7"));
+         assertThat(query(importConnection, "SELECT end_time FROM work WHERE id = 7"), is("2020-01-01 09:30:00"));
+         assertThat(query(importConnection, "SELECT name FROM project WHERE id = 2"), is("Customer's project"));
+         assertThat(query(importConnection, "SELECT description FROM project WHERE id = 2"), is("Line 1\nLine 2"));
+         assertThat(query(importConnection, "SELECT is_work FROM project WHERE id = 2"), is("TRUE"));
+         execute(importConnection, "SHUTDOWN");
+      }
+   }
+
+   @Test
+   public void exportContainsSnapshotOnlyTest() throws Exception {
+      testee.export(connection, exportFile, new DatabaseExporter.Progress() {
+         @Override
+         public void update(final long exportedStatements, final long totalStatements) {
+            if (exportedStatements == 0) {
+               // quick-save while the file is written
+               try (Connection otherConnection = DriverManager.getConnection(URL, "sa", "")) {
+                  execute(otherConnection, "INSERT INTO work (id, start_time, end_time, project_id, notes) "
+                        + "VALUES (1000, TIMESTAMP '2020-01-02 08:00:00', NULL, 1, 'late')");
+               } catch (final SQLException e) {
+                  throw new IllegalStateException(e);
+               }
+            }
+         }
+
+         @Override
+         public boolean isCancelled() {
+            return false;
+         }
+      });
+
+      assertThat(query(connection, "SELECT COUNT(*) FROM work"), is("251"));
+      try (Connection importConnection = DriverManager.getConnection(IMPORT_URL, "sa", "")) {
+         execute(importConnection, "RUNSCRIPT FROM '" + exportFile.getAbsolutePath() + "' COMPRESSION GZIP");
+         assertThat(query(importConnection, "SELECT COUNT(*) FROM work"), is("250"));
+         execute(importConnection, "SHUTDOWN");
+      }
+   }
+
+   @Test
+   public void cancelledExportDeletesFileTest() throws Exception {
+      try {
+         testee.export(connection, exportFile, progress(true));
+         fail("Export should have been cancelled.");
+      } catch (final CancellationException e) {
+         // expected
+      }
+
+      assertFalse("Cancelled export should not leave a file behind.", exportFile.exists());
+   }
+
+   private DatabaseExporter.Progress progress(final boolean cancelled) {
+      return new DatabaseExporter.Progress() {
+         @Override
+         public void update(final long exportedStatements, final long totalStatements) {
+            // not needed
+         }
+
+         @Override
+         public boolean isCancelled() {
+            return cancelled;
+         }
+      };
+   }
+
+   private static void execute(final Connection connection, final String sql) throws SQLException {
+      try (Statement statement = connection.createStatement()) {
+         statement.execute(sql);
+      }
+   }
+
+   private static String query(final Connection connection, final String sql) throws SQLException {
+      try (Statement statement = connection.createStatement(); ResultSet resultSet = statement.executeQuery(sql)) {
+         resultSet.next();
+         return resultSet.getString(1);
+      }
+   }
+}
@@ -0,0 +1,170 @@
+// Copyright 2019 doubleSlash Net Business GmbH
+//
+// This file is part of KeepTime.
+// KeepTime is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+
+package de.doubleslash.keeptime.controller;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import de.doubleslash.keeptime.model.DayReport;
+import de.doubleslash.keeptime.model.Project;
+import de.doubleslash.keeptime.model.Work;
+import de.doubleslash.keeptime.model.repos.WorkRepository;
+import javafx.scene.paint.Color;
+
+public class DayReportCacheTest {
+
+   private static final LocalDate DAY = LocalDate.of(2020, 3, 10);
+
+   private final Queue<Runnable> queuedTasks = new LinkedList<>();
+
+   private boolean queueTasks;
+
+   private WorkRepository mockedWorkRepository;
+
+   private DayReportCache testee;
+
+   @Before
+   public void beforeTest() {
+      mockedWorkRepository = Mockito.mock(WorkRepository.class);
+      final PersistenceExecutor persistenceExecutor = new PersistenceExecutor(task -> {
+         if (queueTasks) {
+            queuedTasks.add(task);
+         } else {
+            task.run();
+         }
+      });
+      testee = new DayReportCache(mockedWorkRepository, persistenceExecutor);
+   }
+
+   @Test
+   public void shouldGroupWorkByProjectIndex() {
+      final Project work = new Project("Work", "", Color.BLUE, true, 1);
+      final Project idle = new Project("Idle", "", Color.GREEN, false, 0);
+      ReflectionTestUtils.setField(work, "id", 1L);
+      ReflectionTestUtils.setField(idle, "id", 2L);
+      final Work first = createWork(work, 8, 10);
+      final Work second = createWork(idle, 10, 11);
+      final Work third = createWork(work, 11, 12);
+      Mockito.when(mockedWorkRepository.findStartedOn(DAY)).thenReturn(Arrays.asList(first, second, third));
+
+      final DayReport report = testee.get(DAY).join();
+
+      assertThat(report.getProjectEntries().size(), is(2));
+      assertThat(report.getProjectEntries().get(0).getProject(), is(idle));
+      assertThat(report.getProjectEntries().get(0).getSeconds(), is(3600L));
+      assertThat(report.getProjectEntries().get(1).getWorkItems(), contains(first, third));
+      assertThat(report.getProjectEntries().get(1).getSeconds(), is(3 * 3600L));
+      assertThat(report.getTotalSeconds(), is(4 * 3600L));
+      assertThat(report.getWorkSeconds(), is(3 * 3600L));
+   }
+
+   @Test
+   public void shouldLoadDayOnlyOnce() {
+      final DayReport report = testee.get(DAY).join();
+
+      assertThat(testee.get(DAY).join(), is(sameInstance(report)));
+      Mockito.verify(mockedWorkRepository, Mockito.times(1)).findStartedOn(DAY);
+   }
+
+   @Test
+   public void shouldNotWaitForQueuedLoad() {
+      queueTasks = true;
+      final CompletableFuture<DayReport> report = testee.get(DAY);
+      assertThat(report.isDone(), is(false));
+
+      runQueuedTasks();
+
+      assertThat(report.isDone(), is(true));
+      assertThat(testee.contains(DAY), is(true));
+   }
+
+   @Test
+   public void shouldDropLeastRecentlyUsedDay() {
+      for (int i = 0; i < DayReportCache.CAPACITY; i++) {
+         testee.get(DAY.plusDays(i)).join();
+      }
+      // use the first day again, so the second one is the least recently used
+      testee.get(DAY).join();
+
+      testee.get(DAY.minusDays(1)).join();
+
+      assertThat(testee.contains(DAY), is(true));
+      assertThat(testee.contains(DAY.plusDays(1)), is(false));
+      assertThat(testee.contains(DAY.plusDays(2)), is(true));
+   }
+
+   @Test
+   public void shouldOnlyDropInvalidatedDays() {
+      testee.get(DAY).join();
+      testee.get(DAY.plusDays(1)).join();
+
+      testee.invalidate(Collections.singleton(DAY));
+
+      assertThat(testee.contains(DAY), is(false));
+      assertThat(testee.contains(DAY.plusDays(1)), is(true));
+   }
+
+   @Test
+   public void shouldCachePrefetchedDay() {
+      queueTasks = true;
+      testee.prefetch(DAY);
+      testee.prefetch(DAY);
+      assertThat(testee.contains(DAY), is(false));
+
+      runQueuedTasks();
+
+      assertThat(testee.contains(DAY), is(true));
+      Mockito.verify(mockedWorkRepository, Mockito.times(1)).findStartedOn(DAY);
+   }
+
+   @Test
+   public void shouldNotCachePrefetchedDayWhichWasInvalidatedWhileLoading() {
+      queueTasks = true;
+      testee.prefetch(DAY);
+
+      testee.invalidate(Collections.singleton(DAY));
+      runQueuedTasks();
+
+      assertThat(testee.contains(DAY), is(false));
+   }
+
+   private void runQueuedTasks() {
+      while (!queuedTasks.isEmpty()) {
+         queuedTasks.poll().run();
+      }
+   }
+
+   private Work createWork(final Project project, final int startHour, final int endHour) {
+      return new Work(DAY.atTime(LocalTime.of(startHour, 0)), DAY.atTime(LocalTime.of(endHour, 0)), project, "");
+   }
+}
@@ -0,0 +1,130 @@
+// Copyright 2019 doubleSlash Net Business GmbH
+//
+// This file is part of KeepTime.
+// KeepTime is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+
+package de.doubleslash.keeptime.controller;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class PersistenceExecutorTest {
+
+   private final Queue<Runnable> queuedTasks = new LinkedList<>();
+
+   private final List<String> executedOperations = new ArrayList<>();
+
+   private PersistenceExecutor testee;
+
+   @Before
+   public void beforeTest() {
+      testee = new PersistenceExecutor(queuedTasks::add);
+   }
+
+   @Test
+   public void shouldExecuteOperationsInSubmissionOrder() {
+      final Object work = new Object();
+
+      testee.submitSave(work, "save", () -> executedOperations.add("save"));
+      testee.submit("delete", () -> executedOperations.add("delete"));
+      testee.submit("edit", () -> executedOperations.add("edit"));
+      runQueuedTasks();
+
+      assertThat(executedOperations, contains("save", "delete", "edit"));
+   }
+
+   @Test
+   public void shouldCoalesceQueuedSavesOfSameObject() {
+      final Object work = new Object();
+      final Object otherWork = new Object();
+
+      final CompletableFuture<Void> firstSave = testee.submitSave(work, "save", () -> executedOperations.add("save"));
+      final CompletableFuture<Void> secondSave = testee.submitSave(work, "save", () -> executedOperations.add("save"));
+      testee.submitSave(otherWork, "other", () -> executedOperations.add("other"));
+      runQueuedTasks();
+
+      assertThat(executedOperations, contains("save", "other"));
+      assertThat("Coalesced save should complete with the queued one", secondSave, is(firstSave));
+      assertThat(secondSave.isDone(), is(true));
+   }
+
+   @Test
+   public void shouldRunLatestOperationOfCoalescedSaves() {
+      final Object work = new Object();
+
+      testee.submitSave(work, "first", () -> executedOperations.add("first"));
+      testee.submitSave(work, "latest", () -> executedOperations.add("latest"));
+      runQueuedTasks();
+
+      assertThat(executedOperations, contains("latest"));
+   }
+
+   @Test
+   public void shouldQueueSaveAgainWhenPreviousSaveIsRunning() {
+      final Object work = new Object();
+
+      testee.submitSave(work, "save", () -> {
+         executedOperations.add("save");
+         testee.submitSave(work, "save", () -> executedOperations.add("save again"));
+      });
+      runQueuedTasks();
+
+      assertThat(executedOperations, contains("save", "save again"));
+   }
+
+   @Test
+   public void shouldCompleteExceptionallyAndContinueWhenOperationFails() {
+      final CompletableFuture<Void> failing = testee.submit("failing", () -> {
+         throw new IllegalStateException("database not available");
+      });
+      final CompletableFuture<Void> next = testee.submit("next", () -> executedOperations.add("next"));
+      runQueuedTasks();
+
+      assertThat(failing.isCompletedExceptionally(), is(true));
+      assertThat(next.isCompletedExceptionally(), is(false));
+      assertThat(executedOperations, contains("next"));
+   }
+
+   @Test
+   public void shouldReportFailedOperationsToFailureListener() {
+      final List<String> failures = new ArrayList<>();
+      testee.setFailureListener(failures::add);
+
+      testee.submit("failing", () -> {
+         throw new IllegalStateException("database not available");
+      });
+      testee.submit("next", () -> executedOperations.add("next"));
+      runQueuedTasks();
+
+      assertThat(failures, contains("failing"));
+   }
+
+   private void runQueuedTasks() {
+      while (!queuedTasks.isEmpty()) {
+         queuedTasks.poll().run();
+      }
+   }
+
+}
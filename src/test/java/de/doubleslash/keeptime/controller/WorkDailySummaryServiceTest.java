@@ -0,0 +1,117 @@
+// Copyright 2019 doubleSlash Net Business GmbH
+//
+// This file is part of KeepTime.
+// KeepTime is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+
+package de.doubleslash.keeptime.controller;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import de.doubleslash.keeptime.model.Project;
+import de.doubleslash.keeptime.model.Work;
+import de.doubleslash.keeptime.model.WorkDailySummary;
+import de.doubleslash.keeptime.model.WorkSnapshot;
+import de.doubleslash.keeptime.model.WorkTime;
+import de.doubleslash.keeptime.model.repos.ProjectRepository;
+import de.doubleslash.keeptime.model.repos.WorkDailySummaryRepository;
+import de.doubleslash.keeptime.model.repos.WorkRepository;
+import javafx.scene.paint.Color;
+
+public class WorkDailySummaryServiceTest {
+
+   private static final LocalDate DAY = LocalDate.of(2019, 3, 14);
+
+   private WorkDailySummaryService testee;
+
+   private WorkRepository mockedWorkRepository;
+   private WorkDailySummaryRepository mockedSummaryRepository;
+
+   private final Project workProject = new Project("work", "", Color.GREEN, true, 0);
+   private final Project nonWorkProject = new Project("nonWork", "", Color.RED, false, 1);
+
+   @Before
+   public void beforeTest() {
+      mockedWorkRepository = Mockito.mock(WorkRepository.class);
+      mockedSummaryRepository = Mockito.mock(WorkDailySummaryRepository.class);
+      testee = new WorkDailySummaryService(mockedWorkRepository, mockedSummaryRepository,
+            Mockito.mock(ProjectRepository.class));
+   }
+
+   @Test
+   public void shouldSplitWorkCrossingMidnight() {
+      final Work work = new Work(DAY.atTime(23, 0), DAY.plusDays(1).atTime(1, 30), workProject, "");
+
+      final Map<WorkDailySummary.Key, WorkDailySummary> summaries = new HashMap<>();
+      WorkDailySummaryService.addSecondsPerDay(WorkTime.of(work), LocalDate.MIN, LocalDate.MAX, summaries);
+
+      assertThat(summaries.size(), is(2));
+      final WorkDailySummary firstDay = summaries.get(new WorkDailySummary.Key(DAY, workProject.getId()));
+      assertThat(firstDay.getTotalSeconds(), is(3600L));
+      assertThat(firstDay.getWorkSeconds(), is(3600L));
+      final WorkDailySummary secondDay = summaries.get(new WorkDailySummary.Key(DAY.plusDays(1), workProject.getId()));
+      assertThat(secondDay.getTotalSeconds(), is(5400L));
+   }
+
+   @Test
+   public void shouldOnlyAddSecondsOfGivenDays() {
+      final Work work = new Work(DAY.atTime(22, 0), DAY.plusDays(2).atTime(2, 0), nonWorkProject, "");
+
+      final Map<WorkDailySummary.Key, WorkDailySummary> summaries = new HashMap<>();
+      WorkDailySummaryService.addSecondsPerDay(WorkTime.of(work), DAY.plusDays(1), DAY.plusDays(1), summaries);
+
+      assertThat(summaries.size(), is(1));
+      final WorkDailySummary summary = summaries.get(new WorkDailySummary.Key(DAY.plusDays(1), nonWorkProject.getId()));
+      assertThat(summary.getTotalSeconds(), is(24 * 3600L));
+      assertThat("Non work projects should not count as work", summary.getWorkSeconds(), is(0L));
+   }
+
+   @Test
+   public void shouldRefreshPreviousAndNewDaysWhenWorkIsSaved() {
+      final LocalDateTime start = DAY.plusDays(3).atTime(10, 0);
+      final Work work = new Work(start, start.plusHours(1), workProject, "");
+      Mockito.when(mockedWorkRepository.save(Mockito.any(Work.class)))
+            .thenAnswer(invocation -> invocation.getArguments()[0]);
+
+      testee.saveWork(WorkSnapshot.of(work), Collections.singleton(DAY));
+
+      Mockito.verify(mockedWorkRepository)
+            .save(Mockito.argThat((final Work savedWork) -> savedWork.getStartTime().equals(start)));
+      Mockito.verify(mockedSummaryRepository).deleteByWorkDate(DAY);
+      Mockito.verify(mockedSummaryRepository).deleteByWorkDate(DAY.plusDays(3));
+   }
+
+   @Test
+   public void shouldRefreshAllDaysOfDeletedWork() {
+      final Work work = new Work(DAY.atTime(23, 0), DAY.plusDays(1).atTime(1, 0), workProject, "");
+
+      testee.deleteWork(WorkSnapshot.of(work));
+
+      Mockito.verify(mockedWorkRepository).deleteById(work.getId());
+      Mockito.verify(mockedSummaryRepository).deleteByWorkDate(DAY);
+      Mockito.verify(mockedSummaryRepository).deleteByWorkDate(DAY.plusDays(1));
+   }
+
+}
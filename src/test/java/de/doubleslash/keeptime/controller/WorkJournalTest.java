@@ -0,0 +1,149 @@
+// Copyright 2019 doubleSlash Net Business GmbH
+//
+// This file is part of KeepTime.
+// KeepTime is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+
+package de.doubleslash.keeptime.controller;
+
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.doubleslash.keeptime.model.Project;
+import de.doubleslash.keeptime.model.Work;
+import de.doubleslash.keeptime.model.WorkSnapshot;
+
+public class WorkJournalTest {
+
+   @Rule
+   public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+   private static final LocalDateTime START = LocalDateTime.of(2019, 3, 14, 9, 15, 30, 123456789);
+
+   private Path journalFile;
+
+   private final Work work = new Work(START, START, new Project(), "notes with umlauts \u00e4\u00f6\u00fc");
+
+   @Before
+   public void beforeTest() throws IOException {
+      journalFile = temporaryFolder.getRoot().toPath().resolve("journal.bin");
+   }
+
+   @Test
+   public void shouldRecoverLastRecordedWork() {
+      final WorkJournal journal = new WorkJournal(journalFile);
+      journal.record(WorkSnapshot.of(work), START.plusSeconds(1));
+      work.setNotes("changed notes");
+      journal.record(WorkSnapshot.of(work), START.plusSeconds(2));
+
+      final List<WorkJournal.Entry> entries = new WorkJournal(journalFile).readUncleanEntries();
+
+      assertThat(entries.size(), is(1));
+      assertThat(entries.get(0).getStartTime(), is(START));
+      assertThat(entries.get(0).getEndTime(), is(START.plusSeconds(2)));
+      assertThat(entries.get(0).getNotes(), is("changed notes"));
+   }
+
+   @Test
+   public void shouldNotRecoverAfterCleanShutdown() {
+      final WorkJournal journal = new WorkJournal(journalFile);
+      journal.record(WorkSnapshot.of(work), START.plusSeconds(1));
+      journal.markClean();
+
+      assertThat(new WorkJournal(journalFile).readUncleanEntries(), is(empty()));
+   }
+
+   @Test
+   public void shouldNotRecoverFromEmptyJournal() {
+      assertThat(new WorkJournal(journalFile).readUncleanEntries(), is(empty()));
+   }
+
+   @Test
+   public void shouldFallBackToOlderSlotWhenNewerSlotIsTorn() throws IOException {
+      final WorkJournal journal = new WorkJournal(journalFile);
+      journal.record(WorkSnapshot.of(work), START.plusSeconds(1)); // sequence 1 -> second slot
+      journal.record(WorkSnapshot.of(work), START.plusSeconds(2)); // sequence 2 -> first slot
+
+      try (FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.WRITE)) {
+         channel.write(ByteBuffer.wrap(new byte[] { 42 }), 40);
+      }
+
+      final List<WorkJournal.Entry> entries = new WorkJournal(journalFile).readUncleanEntries();
+
+      assertThat(entries.size(), is(1));
+      assertThat(entries.get(0).getEndTime(), is(START.plusSeconds(1)));
+   }
+
+   @Test
+   public void shouldTruncateTooLongNotes() {
+      final StringBuilder notes = new StringBuilder();
+      while (notes.length() < WorkJournal.SLOT_SIZE) {
+         notes.append('\u00e4');
+      }
+      work.setNotes(notes.toString());
+
+      new WorkJournal(journalFile).record(WorkSnapshot.of(work), START);
+      final List<WorkJournal.Entry> entries = new WorkJournal(journalFile).readUncleanEntries();
+
+      assertThat(entries.size(), is(1));
+      assertThat(notes.toString().startsWith(entries.get(0).getNotes()), is(true));
+   }
+
+   @Test
+   public void shouldRecoverSwitchedAwayWorkUntilItIsSaved() {
+      final WorkJournal journal = new WorkJournal(journalFile);
+      work.setEndTime(START.plusSeconds(5));
+      journal.recordPendingSave(work, WorkSnapshot.of(work));
+      final Work newWork = new Work(START.plusSeconds(5), START.plusSeconds(5), new Project(), "new work");
+      journal.record(WorkSnapshot.of(newWork), START.plusSeconds(6));
+
+      final List<WorkJournal.Entry> entries = new WorkJournal(journalFile).readUncleanEntries();
+      assertThat(entries.size(), is(2));
+      assertThat(entries.get(0).getEndTime(), is(START.plusSeconds(5)));
+      assertThat(entries.get(1).getNotes(), is("new work"));
+
+      journal.markSaved(work);
+      final List<WorkJournal.Entry> entriesAfterSave = new WorkJournal(journalFile).readUncleanEntries();
+      assertThat(entriesAfterSave.size(), is(1));
+      assertThat(entriesAfterSave.get(0).getNotes(), is("new work"));
+   }
+
+   @Test
+   public void shouldKeepLatestPendingSavesWhenAllRegionsAreTaken() {
+      final WorkJournal journal = new WorkJournal(journalFile);
+      for (int i = 0; i <= WorkJournal.PENDING_SAVE_REGIONS; i++) {
+         final Work pendingWork = new Work(START.plusHours(i), START.plusHours(i), new Project(), "work " + i);
+         journal.recordPendingSave(pendingWork, WorkSnapshot.of(pendingWork));
+      }
+
+      final List<WorkJournal.Entry> entries = new WorkJournal(journalFile).readUncleanEntries();
+      assertThat(entries.size(), is(WorkJournal.PENDING_SAVE_REGIONS));
+      assertThat(entries.stream().anyMatch(entry -> entry.getNotes().equals("work 0")), is(false));
+   }
+
+}
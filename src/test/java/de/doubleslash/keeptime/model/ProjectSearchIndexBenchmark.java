@@ -0,0 +1,117 @@
+// Copyright 2019 doubleSlash Net Business GmbH
+//
+// This file is part of KeepTime.
+// KeepTime is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+
+package de.doubleslash.keeptime.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javafx.scene.paint.Color;
+
+/**
+ * Measures typing into the project filter with thousands of projects: the former predicate, which lowercases every
+ * name and description per keystroke, against {@link ProjectSearchIndex}.<br>
+ * Not part of the regular test run. Start it with {@code mvn test -Dtest=ProjectSearchIndexBenchmark}.
+ */
+public class ProjectSearchIndexBenchmark {
+
+   private static final Logger LOG = LoggerFactory.getLogger(ProjectSearchIndexBenchmark.class);
+
+   private static final int PROJECTS = 5_000;
+   private static final int ROUNDS = 200;
+   private static final String[] WORDS = { "development", "meeting", "support", "customer", "review", "planning",
+         "migration", "release", "infrastructure", "training", "documentation", "workshop", "analysis", "keeptime" };
+   private static final String[] TYPED = { "r", "re", "rel", "rele", "relea", "releas", "release", "release c",
+         "release cu", "release cus", "release cust", "relaese" };
+
+   private int blackhole;
+
+   @Test
+   public void compareSearches() {
+      final List<Project> projects = createProjects();
+      final ProjectSearchIndex index = new ProjectSearchIndex(projects);
+
+      for (int round = 0; round < 10; round++) {
+         index.invalidate();
+         index.search("x");
+      }
+      long start = System.nanoTime();
+      index.invalidate();
+      index.search("x");
+      LOG.info("building the index: {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+      assertEquals(countFormerMatches(projects, "release"), index.search("release").size());
+
+      for (int round = 0; round < ROUNDS; round++) {
+         for (final String text : TYPED) {
+            blackhole += countFormerMatches(projects, text) + index.search(text).size();
+         }
+      }
+
+      start = System.nanoTime();
+      for (int round = 0; round < ROUNDS; round++) {
+         for (final String text : TYPED) {
+            blackhole += countFormerMatches(projects, text);
+         }
+      }
+      final long formerNanos = (System.nanoTime() - start) / (ROUNDS * TYPED.length);
+
+      start = System.nanoTime();
+      for (int round = 0; round < ROUNDS; round++) {
+         for (final String text : TYPED) {
+            blackhole += index.search(text).size();
+         }
+      }
+      final long indexNanos = (System.nanoTime() - start) / (ROUNDS * TYPED.length);
+
+      LOG.info("{} projects, per keystroke: former predicate {} us, index {} us", PROJECTS,
+            TimeUnit.NANOSECONDS.toMicros(formerNanos), TimeUnit.NANOSECONDS.toMicros(indexNanos));
+      assertTrue("Search has to stay below a millisecond.", indexNanos < TimeUnit.MILLISECONDS.toNanos(1));
+      LOG.debug("{}", blackhole);
+   }
+
+   private static int countFormerMatches(final List<Project> projects, final String text) {
+      final String lowerCaseFilter = text.toLowerCase();
+      int matches = 0;
+      for (final Project project : projects) {
+         if (project.getName().toLowerCase().contains(lowerCaseFilter)
+               || project.getDescription().toLowerCase().contains(lowerCaseFilter)) {
+            matches++;
+         }
+      }
+      return matches;
+   }
+
+   private static List<Project> createProjects() {
+      final Random random = new Random(42);
+      final List<Project> projects = new ArrayList<>(PROJECTS);
+      for (int i = 0; i < PROJECTS; i++) {
+         final String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + i;
+         final String description = WORDS[random.nextInt(WORDS.length)] + " for customer " + random.nextInt(500);
+         projects.add(new Project(name, description, Color.GREEN, random.nextBoolean(), i));
+      }
+      return projects;
+   }
+}
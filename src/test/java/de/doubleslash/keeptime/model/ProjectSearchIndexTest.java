@@ -0,0 +1,160 @@
+// Copyright 2019 doubleSlash Net Business GmbH
+//
+// This file is part of KeepTime.
+// KeepTime is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+
+package de.doubleslash.keeptime.model;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javafx.scene.paint.Color;
+
+public class ProjectSearchIndexTest {
+
+   private final List<Project> projects = new ArrayList<>();
+
+   private ProjectSearchIndex testee;
+
+   private Project idle;
+   private Project development;
+   private Project meeting;
+   private Project support;
+
+   @Before
+   public void beforeTest() {
+      idle = createProject(1, "Idle", "");
+      development = createProject(2, "Development", "KeepTime Entwicklung");
+      meeting = createProject(3, "Weekly meeting", "Besprechung mit dem Team");
+      support = createProject(4, "Support", "Hilfe f\u00fcr Kunden bei der Entwicklung");
+      testee = new ProjectSearchIndex(projects);
+   }
+
+   private Project createProject(final long id, final String name, final String description) {
+      final Project project = new Project(name, description, Color.GREEN, true, projects.size());
+      ReflectionTestUtils.setField(project, "id", id);
+      projects.add(project);
+      return project;
+   }
+
+   @Test
+   public void shouldReturnAllProjectsInOrderIfNothingIsSearched() {
+      assertThat(testee.search(""), contains(idle, development, meeting, support));
+      assertThat(testee.search("  "), contains(idle, development, meeting, support));
+      assertThat(testee.search(null), contains(idle, development, meeting, support));
+   }
+
+   @Test
+   public void shouldRankNameBeforeDescriptionMatches() {
+      final Project internalHelp = createProject(5, "Hilfe intern", "");
+      testee.invalidate();
+
+      assertThat(testee.search("hilfe"), contains(internalHelp, support));
+      assertThat(testee.search("entw"), contains(development, support));
+   }
+
+   @Test
+   public void shouldRankPrefixBeforeSubstringMatches() {
+      final Project portal = createProject(5, "Portal", "");
+      testee.invalidate();
+
+      assertThat(testee.search("port"), contains(portal, support));
+      assertThat(testee.search("meet"), contains(meeting));
+   }
+
+   @Test
+   public void shouldMatchAllQueryTokens() {
+      assertThat(testee.search("weekly team"), contains(meeting));
+      assertThat(testee.search("weekly kunden"), empty());
+   }
+
+   @Test
+   public void shouldIgnoreCaseAndAccents() {
+      assertThat(testee.search("FUR"), contains(support));
+      assertThat(testee.search("f\u00fcr"), contains(support));
+   }
+
+   @Test
+   public void shouldMatchDescription() {
+      final Project project = createProject(5, "NotSearchTerm", "Searchterm_test");
+      testee.invalidate();
+
+      assertThat(testee.search("test"), contains(project));
+   }
+
+   @Test
+   public void shouldMatchNameAndDescriptionIgnoringCase() {
+      final Project name = createProject(5, "PeTerPAn", "");
+      final Project description = createProject(6, "", "MylItTLeaNT");
+      testee.invalidate();
+
+      assertThat(testee.search("pEtErpAn"), contains(name));
+      assertThat(testee.search("mYliTTlEAnT"), contains(description));
+   }
+
+   @Test
+   public void shouldNotMatchIfNeitherNameNorDescriptionMatches() {
+      createProject(5, "MyNameIsJohn", "I am a project.");
+      testee.invalidate();
+
+      assertThat(testee.search("Hellow world"), empty());
+   }
+
+   @Test
+   public void shouldFindProjectsWithTypos() {
+      assertThat(testee.search("devlopment"), contains(development));
+      assertThat(testee.search("suport"), contains(support));
+      assertThat(testee.search("xyzzy"), empty());
+   }
+
+   @Test
+   public void shouldRankFrequentlyUsedProjectsFirstAmongEqualMatches() {
+      assertThat(testee.search("e"), contains(idle, development, meeting, support));
+
+      testee.recordUse(support);
+      testee.recordUse(support);
+      testee.recordUse(meeting);
+
+      assertThat(testee.search("entw"), contains(support, development));
+      assertThat(testee.search("e"), contains(meeting, idle, development, support));
+   }
+
+   @Test
+   public void shouldUseEditedValuesAfterInvalidation() {
+      assertThat(testee.search("pause"), empty());
+      idle.setName("Pause");
+      assertThat(testee.search("pause"), empty());
+
+      testee.invalidate();
+      assertThat(testee.search("pause"), contains(idle));
+   }
+
+   @Test
+   public void shouldCalculateDistanceToClosestPrefix() {
+      assertEquals(0, ProjectSearchIndex.prefixDistance("dev", "development", 1));
+      assertEquals(1, ProjectSearchIndex.prefixDistance("devlop", "development", 1));
+      assertEquals(1, ProjectSearchIndex.prefixDistance("suport", "support", 1));
+      assertEquals(2, ProjectSearchIndex.prefixDistance("abcdef", "support", 1));
+   }
+}
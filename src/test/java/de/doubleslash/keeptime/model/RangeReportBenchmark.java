@@ -0,0 +1,164 @@
+// Copyright 2019 doubleSlash Net Business GmbH
+//
+// This file is part of KeepTime.
+// KeepTime is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+
+package de.doubleslash.keeptime.model;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.flywaydb.core.Flyway;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javafx.scene.paint.Color;
+
+/**
+ * Measures loading and grouping the range report of a full year from the daily summary of a generated database with
+ * five years of work on 20 projects.<br>
+ * Not part of the regular test run. Start it with {@code mvn test -Dtest=RangeReportBenchmark}.
+ */
+public class RangeReportBenchmark {
+
+   private static final Logger LOG = LoggerFactory.getLogger(RangeReportBenchmark.class);
+
+   private static final String URL = "jdbc:h2:mem:rangeReportBenchmark;DB_CLOSE_DELAY=-1";
+
+   private static final int PROJECTS = 20;
+   private static final int PROJECTS_PER_DAY = 6;
+   private static final LocalDate FIRST_DAY = LocalDate.of(2015, 1, 1);
+   private static final int DAYS = 5 * 365;
+   private static final int RUNS = 10;
+
+   private static final String SUMMARY_QUERY = "SELECT * FROM work_daily_summary WHERE work_date >= ? "
+         + "AND work_date <= ? ORDER BY work_date ASC";
+
+   private Connection connection;
+
+   private final List<Project> projects = new ArrayList<>();
+
+   @Before
+   public void setUp() throws SQLException {
+      connection = DriverManager.getConnection(URL, "sa", "");
+      Flyway.configure().dataSource(URL, "sa", "").load().migrate();
+      fillDatabase();
+   }
+
+   @After
+   public void tearDown() throws SQLException {
+      try (Statement statement = connection.createStatement()) {
+         statement.execute("SHUTDOWN");
+      }
+      connection.close();
+   }
+
+   @Test
+   public void loadYearReport() throws SQLException {
+      final LocalDate firstDay = FIRST_DAY.plusYears(2);
+      final LocalDate lastDay = firstDay.plusYears(1).minusDays(1);
+
+      // warm up
+      loadRangeReport(firstDay, lastDay);
+
+      RangeReport rangeReport = null;
+      final long start = System.nanoTime();
+      for (int i = 0; i < RUNS; i++) {
+         rangeReport = loadRangeReport(firstDay, lastDay);
+      }
+      final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) / RUNS;
+
+      LOG.info("Range report of one year ({} daily summaries, {} projects): {} ms",
+            rangeReport.getDailySummaries().size(), rangeReport.getProjectTotals().size(), millis);
+      assertThat(rangeReport.getDailySummaries().size(), is(365 * PROJECTS_PER_DAY));
+      assertThat(millis, lessThan(1000L));
+   }
+
+   private RangeReport loadRangeReport(final LocalDate firstDay, final LocalDate lastDay) throws SQLException {
+      final List<WorkDailySummary> summaries = new ArrayList<>();
+      try (PreparedStatement statement = connection.prepareStatement(SUMMARY_QUERY)) {
+         statement.setDate(1, Date.valueOf(firstDay));
+         statement.setDate(2, Date.valueOf(lastDay));
+         try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+               final WorkDailySummary summary = new WorkDailySummary(resultSet.getDate("work_date").toLocalDate(),
+                     resultSet.getLong("project_id"));
+               summary.addSeconds(resultSet.getLong("total_seconds"), resultSet.getLong("work_seconds") > 0);
+               summaries.add(summary);
+            }
+         }
+      }
+      return RangeReport.of(firstDay, lastDay, summaries, projects);
+   }
+
+   private void fillDatabase() throws SQLException {
+      connection.setAutoCommit(false);
+      try (PreparedStatement statement = connection.prepareStatement(
+            "INSERT INTO project (id, color, index, is_default, is_enabled, is_work, name) "
+                  + "VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+         for (int i = 0; i < PROJECTS; i++) {
+            statement.setLong(1, i + 1L);
+            statement.setString(2, "0xff0000ff");
+            statement.setInt(3, i);
+            statement.setBoolean(4, i == 0);
+            statement.setBoolean(5, true);
+            statement.setBoolean(6, i % 2 == 0);
+            statement.setString(7, "Project " + i);
+            statement.addBatch();
+
+            final Project project = new Project("Project " + i, "", Color.BLUE, i % 2 == 0, i, i == 0);
+            ReflectionTestUtils.setField(project, "id", i + 1L);
+            projects.add(project);
+         }
+         statement.executeBatch();
+      }
+
+      try (PreparedStatement statement = connection.prepareStatement(
+            "INSERT INTO work_daily_summary (work_date, project_id, total_seconds, work_seconds) "
+                  + "VALUES (?, ?, ?, ?)")) {
+         for (int day = 0; day < DAYS; day++) {
+            for (int i = 0; i < PROJECTS_PER_DAY; i++) {
+               final int project = (day + i * 3) % PROJECTS;
+               final long seconds = 600L + (day * 31L + i * 17L) % 3600;
+               statement.setDate(1, Date.valueOf(FIRST_DAY.plusDays(day)));
+               statement.setLong(2, project + 1L);
+               statement.setLong(3, seconds);
+               statement.setLong(4, project % 2 == 0 ? seconds : 0);
+               statement.addBatch();
+            }
+            statement.executeBatch();
+         }
+      }
+      connection.commit();
+      connection.setAutoCommit(true);
+   }
+}
@@ -0,0 +1,110 @@
+// Copyright 2019 doubleSlash Net Business GmbH
+//
+// This file is part of KeepTime.
+// KeepTime is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+
+package de.doubleslash.keeptime.model;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import de.doubleslash.keeptime.model.repos.ProjectRepository;
+import de.doubleslash.keeptime.model.repos.SettingsRepository;
+import de.doubleslash.keeptime.model.repos.WorkRepository;
+import javafx.scene.paint.Color;
+
+public class TodaysTimeAccumulatorTest {
+
+   private static final LocalDateTime MORNING = LocalDateTime.now().withHour(4);
+
+   private Model model;
+
+   private TodaysTimeAccumulator testee;
+
+   private Project workProject;
+   private Project nonWorkProject;
+
+   @Before
+   public void beforeTest() {
+      model = new Model(Mockito.mock(ProjectRepository.class), Mockito.mock(WorkRepository.class),
+            Mockito.mock(SettingsRepository.class));
+      testee = model.getTodaysTimeAccumulator();
+
+      workProject = new Project("workProject", "", Color.GREEN, true, 0);
+      ReflectionTestUtils.setField(workProject, "id", 1);
+      nonWorkProject = new Project("nonWorkProject", "", Color.RED, false, 1);
+      ReflectionTestUtils.setField(nonWorkProject, "id", 2);
+      model.getAllProjects().addAll(workProject, nonWorkProject);
+   }
+
+   @Test
+   public void shouldSumClosedWorkItemsPerProject() {
+      model.getPastWorkItems().add(new Work(MORNING, MORNING.plusHours(1), workProject, ""));
+      model.getPastWorkItems().add(new Work(MORNING.plusHours(1), MORNING.plusHours(3), nonWorkProject, ""));
+      model.getPastWorkItems().add(new Work(MORNING.plusHours(3), MORNING.plusHours(4), workProject, ""));
+
+      assertEquals(TimeUnit.HOURS.toSeconds(4), testee.getTodaysSeconds());
+      assertEquals(TimeUnit.HOURS.toSeconds(2), testee.getTodaysWorkSeconds());
+      assertEquals(TimeUnit.HOURS.toSeconds(2), testee.getTodaysSeconds(workProject.getId()));
+      assertEquals(TimeUnit.HOURS.toSeconds(2), testee.getTodaysSeconds(nonWorkProject.getId()));
+   }
+
+   @Test
+   public void shouldAddLiveSecondsOfActiveWorkWithoutRecalculating() {
+      model.getPastWorkItems().add(new Work(MORNING, MORNING.plusHours(1), nonWorkProject, ""));
+      final Work activeWork = new Work(MORNING.plusHours(1), MORNING.plusHours(1), workProject, "");
+      model.getPastWorkItems().add(activeWork);
+      model.activeWorkItem.set(activeWork);
+      final long version = testee.getVersion();
+
+      activeWork.setEndTime(MORNING.plusHours(1).plusSeconds(30));
+
+      assertEquals(TimeUnit.HOURS.toSeconds(1) + 30, testee.getTodaysSeconds());
+      assertEquals(30, testee.getTodaysWorkSeconds());
+      assertEquals(30, testee.getTodaysSeconds(workProject.getId()));
+      assertEquals("Ticking active work should not recalculate the totals", version, testee.getVersion());
+   }
+
+   @Test
+   public void shouldRecalculateWhenWorkFlagChanged() {
+      model.getPastWorkItems().add(new Work(MORNING, MORNING.plusHours(1), nonWorkProject, ""));
+      assertEquals(0, testee.getTodaysWorkSeconds());
+
+      nonWorkProject.setWork(true);
+      testee.invalidate();
+
+      assertEquals(TimeUnit.HOURS.toSeconds(1), testee.getTodaysWorkSeconds());
+   }
+
+   @Test
+   public void shouldRecalculateWhenWorkItemWasRemoved() {
+      final Work work = new Work(MORNING, MORNING.plusHours(1), workProject, "");
+      model.getPastWorkItems().add(work);
+      assertEquals(TimeUnit.HOURS.toSeconds(1), testee.getTodaysSeconds());
+
+      model.getPastWorkItems().remove(work);
+
+      assertEquals(0, testee.getTodaysSeconds());
+      assertEquals(0, testee.getTodaysSeconds(workProject.getId()));
+   }
+
+}
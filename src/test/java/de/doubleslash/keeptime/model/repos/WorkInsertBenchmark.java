@@ -0,0 +1,172 @@
+// Copyright 2019 doubleSlash Net Business GmbH
+//
+// This file is part of KeepTime.
+// KeepTime is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+
+package de.doubleslash.keeptime.model.repos;
+
+import static org.junit.Assert.assertEquals;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.flywaydb.core.Flyway;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares inserting 100k work items the way Hibernate does it with identity ids (one statement per row, reading the
+ * generated key) with sequence ids allocated in blocks and JDBC batches.<br>
+ * Not part of the regular test run. Start it with {@code mvn test -Dtest=WorkInsertBenchmark}.
+ */
+public class WorkInsertBenchmark {
+
+   private static final Logger LOG = LoggerFactory.getLogger(WorkInsertBenchmark.class);
+
+   private static final String URL = "jdbc:h2:mem:workInsertBenchmark;DB_CLOSE_DELAY=-1";
+
+   private static final int WORK_ITEMS = 100_000;
+   private static final int BATCH_SIZE = BulkInsertRepositoryImpl.BATCH_SIZE;
+   private static final LocalDateTime FIRST_START = LocalDateTime.of(2015, 1, 1, 8, 0);
+
+   private static final String IDENTITY_INSERT = "INSERT INTO work (start_time, end_time, project_id, notes) "
+         + "VALUES (?, ?, ?, ?)";
+   private static final String SEQUENCE_INSERT = "INSERT INTO work (id, start_time, end_time, project_id, notes) "
+         + "VALUES (?, ?, ?, ?, ?)";
+
+   private Connection connection;
+
+   @Before
+   public void setUp() throws SQLException {
+      connection = DriverManager.getConnection(URL, "sa", "");
+      Flyway.configure().dataSource(URL, "sa", "").load().migrate();
+      try (Statement statement = connection.createStatement()) {
+         statement.execute("INSERT INTO project (id, color, index, is_default, is_enabled, is_work, name) "
+               + "VALUES (1, '0xff0000ff', 0, TRUE, TRUE, TRUE, 'Project')");
+      }
+   }
+
+   @After
+   public void tearDown() throws SQLException {
+      try (Statement statement = connection.createStatement()) {
+         statement.execute("SHUTDOWN");
+      }
+      connection.close();
+   }
+
+   @Test
+   public void compareInserts() throws SQLException {
+      // warm up
+      insertWithIdentity(WORK_ITEMS / 10);
+      insertWithSequence(WORK_ITEMS / 10);
+      deleteAllWork();
+
+      long start = System.nanoTime();
+      insertWithIdentity(WORK_ITEMS);
+      final long identityMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+      assertEquals(WORK_ITEMS, countWork());
+      deleteAllWork();
+
+      start = System.nanoTime();
+      insertWithSequence(WORK_ITEMS);
+      final long sequenceMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+      assertEquals(WORK_ITEMS, countWork());
+
+      LOG.info("Inserting {} work items:", WORK_ITEMS);
+      LOG.info("identity, one statement per row: {} ms", identityMillis);
+      LOG.info("sequence, batches of {}:         {} ms", BATCH_SIZE, sequenceMillis);
+   }
+
+   private void insertWithIdentity(final int workItems) throws SQLException {
+      connection.setAutoCommit(false);
+      try (PreparedStatement statement = connection.prepareStatement(IDENTITY_INSERT,
+            Statement.RETURN_GENERATED_KEYS)) {
+         for (int i = 0; i < workItems; i++) {
+            setWorkValues(statement, 1, i);
+            statement.executeUpdate();
+            try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+               generatedKeys.next();
+            }
+         }
+      }
+      connection.commit();
+      connection.setAutoCommit(true);
+   }
+
+   private void insertWithSequence(final int workItems) throws SQLException {
+      // same as the migration: continue after the ids handed out by the identity column
+      try (Statement statement = connection.createStatement()) {
+         statement.execute("ALTER SEQUENCE work_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM work)");
+      }
+      connection.setAutoCommit(false);
+      try (PreparedStatement nextBlock = connection.prepareStatement("SELECT NEXT VALUE FOR work_seq");
+            PreparedStatement statement = connection.prepareStatement(SEQUENCE_INSERT)) {
+         long nextId = 0;
+         long blockEnd = 0;
+         for (int i = 0; i < workItems; i++) {
+            if (nextId == blockEnd) {
+               // pooled-lo: the sequence value is the lowest id of the next block
+               try (ResultSet resultSet = nextBlock.executeQuery()) {
+                  resultSet.next();
+                  nextId = resultSet.getLong(1);
+               }
+               blockEnd = nextId + BATCH_SIZE;
+            }
+            statement.setLong(1, nextId++);
+            setWorkValues(statement, 2, i);
+            statement.addBatch();
+            if (i % BATCH_SIZE == BATCH_SIZE - 1) {
+               statement.executeBatch();
+            }
+         }
+         statement.executeBatch();
+      }
+      connection.commit();
+      connection.setAutoCommit(true);
+   }
+
+   private void setWorkValues(final PreparedStatement statement, final int firstIndex, final int item)
+         throws SQLException {
+      final LocalDateTime start = FIRST_START.plusMinutes(item * 30L);
+      statement.setTimestamp(firstIndex, Timestamp.valueOf(start));
+      statement.setTimestamp(firstIndex + 1, Timestamp.valueOf(start.plusMinutes(29)));
+      statement.setLong(firstIndex + 2, 1);
+      statement.setString(firstIndex + 3, "Note " + item);
+   }
+
+   private int countWork() throws SQLException {
+      try (Statement statement = connection.createStatement();
+            ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM work")) {
+         resultSet.next();
+         return resultSet.getInt(1);
+      }
+   }
+
+   private void deleteAllWork() throws SQLException {
+      try (Statement statement = connection.createStatement()) {
+         statement.execute("DELETE FROM work");
+      }
+   }
+}
@@ -0,0 +1,197 @@
+// Copyright 2019 doubleSlash Net Business GmbH
+//
+// This file is part of KeepTime.
+// KeepTime is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+package de.doubleslash.keeptime.model.repos;
+
+import static org.junit.Assert.assertEquals;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.flywaydb.core.Flyway;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares the former per row {@code CAST(start_time AS DATE)} day lookup with the indexed half-open range lookup on a
+ * generated database with 100k work items spread over five years.<br>
+ * Not part of the regular test run. Start it with {@code mvn test -Dtest=WorkRepositoryBenchmark}.
+ */
+public class WorkRepositoryBenchmark {
+
+   private static final Logger LOG = LoggerFactory.getLogger(WorkRepositoryBenchmark.class);
+
+   private static final String URL = "jdbc:h2:mem:workRepositoryBenchmark;DB_CLOSE_DELAY=-1";
+
+   private static final int WORK_ITEMS = 100_000;
+   private static final int PROJECTS = 20;
+   private static final int LOOKUPS = 200;
+   private static final LocalDate FIRST_DAY = LocalDate.of(2015, 1, 1);
+   private static final int DAYS = 5 * 365;
+
+   private static final String CAST_QUERY = "SELECT * FROM work WHERE CAST(start_time AS DATE) = ? "
+         + "ORDER BY start_time ASC";
+   private static final String RANGE_QUERY = "SELECT * FROM work WHERE start_time >= ? AND start_time < ? "
+         + "ORDER BY start_time ASC";
+
+   private Connection connection;
+
+   @Before
+   public void setUp() throws SQLException {
+      connection = DriverManager.getConnection(URL, "sa", "");
+      Flyway.configure().dataSource(URL, "sa", "").load().migrate();
+      fillDatabase();
+   }
+
+   @After
+   public void tearDown() throws SQLException {
+      try (Statement statement = connection.createStatement()) {
+         statement.execute("SHUTDOWN");
+      }
+      connection.close();
+   }
+
+   @Test
+   public void compareDayLookups() throws SQLException {
+      final List<LocalDate> days = randomDays();
+
+      // warm up
+      lookUpWithCast(days);
+      lookUpWithRange(days);
+
+      long start = System.nanoTime();
+      final int castRows = lookUpWithCast(days);
+      final long castMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+      start = System.nanoTime();
+      final int rangeRows = lookUpWithRange(days);
+      final long rangeMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+      assertEquals("Both lookups have to find the same work items.", castRows, rangeRows);
+
+      LOG.info("{} day lookups on {} work items ({} rows found):", LOOKUPS, WORK_ITEMS, rangeRows);
+      LOG.info("CAST(start_time AS DATE): {} ms", castMillis);
+      LOG.info("start_time range:         {} ms", rangeMillis);
+      logQueryPlan();
+   }
+
+   private int lookUpWithCast(final List<LocalDate> days) throws SQLException {
+      int rows = 0;
+      try (PreparedStatement statement = connection.prepareStatement(CAST_QUERY)) {
+         for (final LocalDate day : days) {
+            statement.setDate(1, Date.valueOf(day));
+            rows += countRows(statement);
+         }
+      }
+      return rows;
+   }
+
+   private int lookUpWithRange(final List<LocalDate> days) throws SQLException {
+      int rows = 0;
+      try (PreparedStatement statement = connection.prepareStatement(RANGE_QUERY)) {
+         for (final LocalDate day : days) {
+            statement.setTimestamp(1, Timestamp.valueOf(day.atStartOfDay()));
+            statement.setTimestamp(2, Timestamp.valueOf(day.plusDays(1).atStartOfDay()));
+            rows += countRows(statement);
+         }
+      }
+      return rows;
+   }
+
+   private int countRows(final PreparedStatement statement) throws SQLException {
+      int rows = 0;
+      try (ResultSet resultSet = statement.executeQuery()) {
+         while (resultSet.next()) {
+            rows++;
+         }
+      }
+      return rows;
+   }
+
+   private void logQueryPlan() throws SQLException {
+      try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + RANGE_QUERY)) {
+         statement.setTimestamp(1, Timestamp.valueOf(FIRST_DAY.atStartOfDay()));
+         statement.setTimestamp(2, Timestamp.valueOf(FIRST_DAY.plusDays(1).atStartOfDay()));
+         try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+               LOG.info("Query plan of range lookup: {}", resultSet.getString(1));
+            }
+         }
+      }
+   }
+
+   private List<LocalDate> randomDays() {
+      final Random random = new Random(42);
+      final List<LocalDate> days = new ArrayList<>(LOOKUPS);
+      for (int i = 0; i < LOOKUPS; i++) {
+         days.add(FIRST_DAY.plusDays(random.nextInt(DAYS)));
+      }
+      return days;
+   }
+
+   private void fillDatabase() throws SQLException {
+      connection.setAutoCommit(false);
+      try (PreparedStatement statement = connection.prepareStatement(
+            "INSERT INTO project (color, index, is_default, is_enabled, is_work, name) VALUES (?, ?, ?, ?, ?, ?)")) {
+         for (int i = 0; i < PROJECTS; i++) {
+            statement.setString(1, "0xff0000ff");
+            statement.setInt(2, i);
+            statement.setBoolean(3, i == 0);
+            statement.setBoolean(4, true);
+            statement.setBoolean(5, i % 2 == 0);
+            statement.setString(6, "Project " + i);
+            statement.addBatch();
+         }
+         statement.executeBatch();
+      }
+
+      // spread the items evenly, so some of them cross midnight
+      final long minutesPerItem = TimeUnit.DAYS.toMinutes(DAYS) / WORK_ITEMS;
+      final LocalDateTime firstStart = FIRST_DAY.atStartOfDay();
+      try (PreparedStatement statement = connection.prepareStatement(
+            "INSERT INTO work (start_time, end_time, project_id, notes) VALUES (?, ?, ?, ?)")) {
+         for (int i = 0; i < WORK_ITEMS; i++) {
+            final LocalDateTime start = firstStart.plusMinutes(i * minutesPerItem);
+            statement.setTimestamp(1, Timestamp.valueOf(start));
+            statement.setTimestamp(2, Timestamp.valueOf(start.plusMinutes(minutesPerItem - 1)));
+            statement.setLong(3, 1 + i % PROJECTS);
+            statement.setString(4, "Note " + i);
+            statement.addBatch();
+            if (i % 1000 == 999) {
+               statement.executeBatch();
+            }
+         }
+         statement.executeBatch();
+      }
+      connection.commit();
+      connection.setAutoCommit(true);
+   }
+}
@@ -0,0 +1,92 @@
+// Copyright 2019 doubleSlash Net Business GmbH
+//
+// This file is part of KeepTime.
+// KeepTime is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+
+package de.doubleslash.keeptime.view;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.time.LocalDateTime;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import de.doubleslash.keeptime.model.Model;
+import de.doubleslash.keeptime.model.Project;
+import de.doubleslash.keeptime.model.Work;
+import de.doubleslash.keeptime.model.repos.ProjectRepository;
+import de.doubleslash.keeptime.model.repos.SettingsRepository;
+import de.doubleslash.keeptime.model.repos.WorkRepository;
+import javafx.scene.paint.Color;
+
+public class ProjectTimeModelTest {
+
+   private static final LocalDateTime MORNING = LocalDateTime.now().withHour(4).withMinute(0).withSecond(0);
+
+   private Model model;
+
+   private ProjectTimeModel testee;
+
+   private Project project;
+   private Work activeWork;
+
+   @Before
+   public void beforeTest() {
+      model = new Model(Mockito.mock(ProjectRepository.class), Mockito.mock(WorkRepository.class),
+            Mockito.mock(SettingsRepository.class));
+      testee = new ProjectTimeModel(model);
+
+      project = new Project("project", "", Color.GREEN, true, 0);
+      ReflectionTestUtils.setField(project, "id", 1);
+      model.getAllProjects().add(project);
+      activeWork = new Work(MORNING, MORNING.plusSeconds(10), project, "");
+      model.getPastWorkItems().add(activeWork);
+      model.activeWorkItem.set(activeWork);
+   }
+
+   @Test
+   public void shouldShareRowModelBetweenLists() {
+      assertSame(testee.getRowModel(project), testee.getRowModel(project));
+      assertEquals("00:00:10", testee.getRowModel(project).elapsedTimeProperty().get());
+   }
+
+   @Test
+   public void shouldOnlyUpdateTimesWhileSubscribed() {
+      final ProjectRowModel rowModel = testee.getRowModel(project);
+
+      activeWork.setEndTime(MORNING.plusSeconds(20));
+      testee.tick();
+      assertEquals("00:00:10", rowModel.elapsedTimeProperty().get());
+
+      final ProjectTimeModel.Subscription mainView = testee.subscribe();
+      assertEquals("subscribing updates the times right away", "00:00:20", rowModel.elapsedTimeProperty().get());
+
+      final ProjectTimeModel.Subscription popup = testee.subscribe();
+      popup.cancel();
+      popup.cancel();
+      activeWork.setEndTime(MORNING.plusSeconds(30));
+      testee.tick();
+      assertEquals("00:00:30", rowModel.elapsedTimeProperty().get());
+
+      mainView.cancel();
+      activeWork.setEndTime(MORNING.plusSeconds(40));
+      testee.tick();
+      assertEquals("00:00:30", rowModel.elapsedTimeProperty().get());
+   }
+}
@@ -0,0 +1,141 @@
+// Copyright 2019 doubleSlash Net Business GmbH
+//
+// This file is part of KeepTime.
+// KeepTime is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+
+package de.doubleslash.keeptime.view;
+
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.doubleslash.keeptime.common.DateFormatter;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.embed.swing.JFXPanel;
+import javafx.embed.swing.SwingFXUtils;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.WritableImage;
+import javafx.scene.layout.StackPane;
+import javafx.scene.paint.Color;
+import javafx.scene.text.TextAlignment;
+
+/**
+ * Soak measurement of the bytes allocated on the FX thread for one hour of taskbar icon updates (one per second),
+ * comparing the former canvas snapshot pipeline with the {@link TaskbarIconRenderer}.<br>
+ * Needs a display. Not part of the regular test run. Start it with
+ * {@code mvn test -Dtest=TaskbarIconRendererBenchmark}.
+ */
+public class TaskbarIconRendererBenchmark {
+
+   private static final Logger LOG = LoggerFactory.getLogger(TaskbarIconRendererBenchmark.class);
+
+   private static final int SECONDS_PER_HOUR = 3600;
+
+   private final ObservableList<Image> icons = FXCollections.observableArrayList();
+
+   @BeforeClass
+   public static void startToolkit() {
+      new JFXPanel();
+   }
+
+   @Test
+   public void compareAllocationsPerHour() throws InterruptedException {
+      final Canvas taskbarCanvas = new Canvas(32, 32);
+      final TaskbarIconRenderer renderer = new TaskbarIconRenderer();
+
+      // warm up
+      measureOnFxThread(seconds -> renderWithSnapshot(taskbarCanvas, seconds));
+      measureOnFxThread(seconds -> renderWithAtlas(renderer, seconds));
+
+      final long snapshotBytes = measureOnFxThread(seconds -> renderWithSnapshot(taskbarCanvas, seconds));
+      final long atlasBytes = measureOnFxThread(seconds -> renderWithAtlas(renderer, seconds));
+
+      LOG.info("Allocated per hour of taskbar icon updates:");
+      LOG.info("canvas snapshot: {} KiB", snapshotBytes / 1024);
+      LOG.info("digit atlas:     {} KiB", atlasBytes / 1024);
+      assertTrue("Atlas renderer should allocate less.", atlasBytes < snapshotBytes);
+   }
+
+   private long measureOnFxThread(final LongConsumer iconUpdate) throws InterruptedException {
+      final long[] allocatedBytes = new long[1];
+      final CountDownLatch latch = new CountDownLatch(1);
+      Platform.runLater(() -> {
+         final com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory
+               .getThreadMXBean();
+         final long threadId = Thread.currentThread().getId();
+         final long before = threadBean.getThreadAllocatedBytes(threadId);
+         for (long seconds = 0; seconds < SECONDS_PER_HOUR; seconds++) {
+            iconUpdate.accept(seconds);
+         }
+         allocatedBytes[0] = threadBean.getThreadAllocatedBytes(threadId) - before;
+         latch.countDown();
+      });
+      latch.await(5, TimeUnit.MINUTES);
+      return allocatedBytes[0];
+   }
+
+   private void renderWithAtlas(final TaskbarIconRenderer renderer, final long seconds) {
+      final Image icon = renderer.render(seconds, true, Color.ORANGE, Color.BLACK);
+      if (icon != null) {
+         icons.setAll(icon);
+      }
+   }
+
+   /**
+    * The taskbar icon pipeline as it was before {@link TaskbarIconRenderer}.
+    */
+   private void renderWithSnapshot(final Canvas taskbarCanvas, final long seconds) {
+      final GraphicsContext gcIcon = taskbarCanvas.getGraphicsContext2D();
+
+      gcIcon.clearRect(0, 0, taskbarCanvas.getWidth(), taskbarCanvas.getHeight());
+      gcIcon.setFill(Color.ORANGE);
+      gcIcon.fillRect(1, 27, 31, 5);
+
+      gcIcon.setStroke(Color.BLACK);
+      gcIcon.setTextAlign(TextAlignment.CENTER);
+      gcIcon.strokeText(DateFormatter.secondsToHHMMSS(seconds).replaceFirst(":", ":\n"),
+            Math.round(taskbarCanvas.getWidth() / 2), Math.round(taskbarCanvas.getHeight() / 2) - 5.0);
+
+      final SnapshotParameters snapshotParameters = new SnapshotParameters();
+      snapshotParameters.setFill(Color.TRANSPARENT);
+      final WritableImage image = taskbarCanvas.snapshot(snapshotParameters, null);
+
+      final StackPane layout = new StackPane();
+      layout.getChildren().addAll(new ImageView(image));
+
+      final BufferedImage bi = SwingFXUtils.fromFXImage(image, null);
+      final Image icon = SwingFXUtils.toFXImage(bi, null);
+
+      icons.addAll(icon);
+      if (icons.size() > 1) {
+         icons.remove(0);
+      }
+   }
+}
@@ -0,0 +1,104 @@
+// Copyright 2019 doubleSlash Net Business GmbH
+//
+// This file is part of KeepTime.
+// KeepTime is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+
+package de.doubleslash.keeptime.viewpopup;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class ChordMatcherTest {
+
+   private static final int CTRL = 162;
+   private static final int WIN = 91;
+   private static final int SHIFT = 160;
+   private static final int A = 65;
+
+   private final ChordMatcher testee = new ChordMatcher("162+91");
+
+   @Test
+   public void shouldMatchChordInAnyOrder() {
+      assertFalse(testee.keyPressed(CTRL, 0));
+      assertTrue(testee.keyPressed(WIN, 10));
+
+      testee.keyReleased(CTRL);
+      testee.keyReleased(WIN);
+      assertFalse(testee.keyPressed(WIN, 20));
+      assertTrue(testee.keyPressed(CTRL, 30));
+   }
+
+   @Test
+   public void shouldNotMatchAfterRelease() {
+      testee.keyPressed(CTRL, 0);
+      testee.keyReleased(CTRL);
+
+      assertFalse(testee.keyPressed(WIN, 10));
+   }
+
+   @Test
+   public void shouldIgnoreOtherKeys() {
+      testee.keyPressed(CTRL, 0);
+      assertFalse(testee.keyPressed(A, 10));
+      testee.keyReleased(A);
+
+      assertTrue(testee.keyPressed(WIN, 20));
+   }
+
+   @Test
+   public void shouldForgetPressedKeysAfterResetTime() {
+      // e.g. release event lost while the screen was locked
+      testee.keyPressed(CTRL, 0);
+
+      assertFalse(testee.keyPressed(WIN, ChordMatcher.RESET_NANOS + 1));
+   }
+
+   @Test
+   public void shouldSupportAlternativeChordsWithMoreKeys() {
+      testee.setBindings("162+160+65, 91+65");
+
+      testee.keyPressed(CTRL, 0);
+      assertFalse(testee.keyPressed(A, 10));
+      assertTrue(testee.keyPressed(SHIFT, 20));
+
+      testee.keyReleased(CTRL);
+      testee.keyReleased(SHIFT);
+      assertTrue(testee.keyPressed(WIN, 30));
+
+      testee.keyReleased(WIN);
+      testee.keyReleased(A);
+      testee.keyPressed(CTRL, 40);
+      assertFalse("Former binding is replaced.", testee.keyPressed(WIN, 50));
+   }
+
+   @Test
+   public void shouldValidateBindings() {
+      assertTrue(ChordMatcher.isValid("162+91"));
+      assertTrue(ChordMatcher.isValid(" 162 + 91 , 1023 "));
+      assertFalse(ChordMatcher.isValid(""));
+      assertFalse(ChordMatcher.isValid(null));
+      assertFalse(ChordMatcher.isValid(","));
+      assertFalse(ChordMatcher.isValid("ctrl+91"));
+      assertFalse(ChordMatcher.isValid("162++91"));
+      assertFalse(ChordMatcher.isValid("1024"));
+   }
+
+   @Test(expected = IllegalArgumentException.class)
+   public void shouldRejectInvalidBindings() {
+      testee.setBindings("162+x");
+   }
+}
@@ -0,0 +1,61 @@
+// Copyright 2019 doubleSlash Net Business GmbH
+//
+// This file is part of KeepTime.
+// KeepTime is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+
+package de.doubleslash.keeptime.viewpopup;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class HotkeyLatencyRecorderTest {
+
+   private final HotkeyLatencyRecorder testee = new HotkeyLatencyRecorder();
+
+   private void recordMillis(final long millis) {
+      final long hotkeyNanos = 1_000_000_000L;
+      final long pulseNanos = hotkeyNanos + TimeUnit.MILLISECONDS.toNanos(millis);
+      testee.record(hotkeyNanos, hotkeyNanos + 1, hotkeyNanos + 2, pulseNanos);
+   }
+
+   @Test
+   public void shouldReturnZeroWithoutRecords() {
+      assertEquals(0, testee.percentileMillis(99));
+   }
+
+   @Test
+   public void shouldCalculateNearestRankPercentiles() {
+      for (int millis = 1; millis <= 100; millis++) {
+         recordMillis(millis);
+      }
+
+      assertEquals(50, testee.percentileMillis(50));
+      assertEquals(99, testee.percentileMillis(99));
+      assertEquals(100, testee.percentileMillis(100));
+   }
+
+   @Test
+   public void shouldOnlyKeepLatestRecords() {
+      recordMillis(1000);
+      for (int i = 0; i < HotkeyLatencyRecorder.CAPACITY; i++) {
+         recordMillis(10);
+      }
+
+      assertEquals(10, testee.percentileMillis(100));
+   }
+}